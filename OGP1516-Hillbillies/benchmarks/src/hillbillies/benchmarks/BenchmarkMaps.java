@@ -0,0 +1,96 @@
+package hillbillies.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the terrain of the maps used by the benchmarks. Every map is a
+ * deterministic function of its parameters, so results of different
+ * versions of the model are measured on exactly the same terrain.
+ */
+public final class BenchmarkMaps {
+
+	private BenchmarkMaps() {
+	}
+
+	public static final int AIR = 0;
+	public static final int ROCK = 1;
+	public static final int TREE = 2;
+	public static final int WORKSHOP = 3;
+
+	/**
+	 * Gives back a map of the given size with a rock floor at z == 0 and,
+	 * on top of it, a layer of scattered rock pillars and trees that Units
+	 * have to walk around. The first row of cubes (y == 1) above the floor is
+	 * kept free, so its two ends are always connected.
+	 * @param nbX
+	 * 		The number of cubes in the x direction.
+	 * @param nbY
+	 * 		The number of cubes in the y direction.
+	 * @param nbZ
+	 * 		The number of cubes in the z direction, at least 3.
+	 * @param seed
+	 * 		The seed for the placement of pillars and trees.
+	 */
+	public static int[][][] obstacleField(int nbX, int nbY, int nbZ, long seed) {
+		Random random = new Random(seed);
+		int[][][] types = new int[nbX][nbY][nbZ];
+		for (int x = 0; x < nbX; x++) {
+			for (int y = 0; y < nbY; y++) {
+				types[x][y][0] = ROCK;
+				if (y == 1) {
+					continue;
+				}
+				int roll = random.nextInt(10);
+				if (roll == 0) {
+					types[x][y][1] = ROCK;
+					types[x][y][2] = ROCK;
+				} else if (roll == 1) {
+					types[x][y][1] = TREE;
+				}
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Gives back a map of the given size with a rock floor at z == 0 and a
+	 * solid block of rock floating above it. The block only touches the
+	 * border of the map through a one cube thick bridge along the x axis,
+	 * so digging out the cube of the bridge next to the block (see
+	 * getBridgeEnd) makes the whole block cave in.
+	 * @param nbX
+	 * 		The number of cubes in the x direction, at least 8.
+	 * @param nbY
+	 * 		The number of cubes in the y direction, at least 8.
+	 * @param nbZ
+	 * 		The number of cubes in the z direction, at least 6.
+	 */
+	public static int[][][] floatingRock(int nbX, int nbY, int nbZ) {
+		int[][][] types = new int[nbX][nbY][nbZ];
+		for (int x = 0; x < nbX; x++) {
+			for (int y = 0; y < nbY; y++) {
+				types[x][y][0] = ROCK;
+			}
+		}
+		for (int x = nbX / 4; x < 3 * nbX / 4; x++) {
+			for (int y = nbY / 4; y < 3 * nbY / 4; y++) {
+				for (int z = 2; z < nbZ - 2; z++) {
+					types[x][y][z] = ROCK;
+				}
+			}
+		}
+		int[] bridgeEnd = getBridgeEnd(nbX, nbY, nbZ);
+		for (int x = 0; x <= bridgeEnd[0]; x++) {
+			types[x][bridgeEnd[1]][bridgeEnd[2]] = ROCK;
+		}
+		return types;
+	}
+
+	/**
+	 * Gives back the coordinate of the cube of the bridge of a floatingRock
+	 * map of the given size that touches the floating block.
+	 */
+	public static int[] getBridgeEnd(int nbX, int nbY, int nbZ) {
+		return new int[] { nbX / 4 - 1, nbY / 2, nbZ / 2 };
+	}
+}
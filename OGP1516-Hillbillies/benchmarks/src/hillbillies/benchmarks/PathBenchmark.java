@@ -0,0 +1,103 @@
+package hillbillies.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hillbillies.model.BadFSMStateException;
+import hillbillies.model.Coordinate;
+import hillbillies.model.Unit;
+import hillbillies.model.Utils;
+import hillbillies.model.World;
+
+/**
+ * Benchmarks of the path finding of a Unit: computing a path with moveTo
+ * over several distances, and asking whether cubes are reachable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PathBenchmark {
+
+	/**
+	 * Gives back a Unit standing at the start of the free row of an
+	 * obstacleField map of the given size.
+	 */
+	private static Unit spawnWalker(int size) {
+		Utils.setRandomSeed(0);
+		World world = new World(BenchmarkMaps.obstacleField(size, size, 5, 0), (x, y, z) -> {
+		});
+		Unit unit = world.spawnUnit(false);
+		unit.setPosition(world.cubeCenter(new Coordinate(0, 1, 1)));
+		return unit;
+	}
+
+	@State(Scope.Thread)
+	public static class Walker {
+
+		@Param({ "50", "100" })
+		public int size;
+
+		@Param({ "5", "20", "45" })
+		public int distance;
+
+		public Unit unit;
+		public Coordinate destination;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.unit = spawnWalker(this.size);
+			this.destination = new Coordinate(this.distance, 1, 1);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Explorer {
+
+		@Param({ "50", "100" })
+		public int size;
+
+		public Unit unit;
+		public Coordinate[] destinations;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.unit = spawnWalker(this.size);
+			this.destinations = new Coordinate[this.size];
+			for (int i = 0; i < this.size; i++) {
+				this.destinations[i] = new Coordinate(i, (i * 7) % this.size, 1);
+			}
+		}
+	}
+
+	/**
+	 * Every call searches a new path, since the Unit never advances and so
+	 * keeps standing on its start cube.
+	 */
+	@Benchmark
+	public Unit moveTo(Walker state) throws BadFSMStateException {
+		state.unit.moveTo(state.destination);
+		return state.unit;
+	}
+
+	@Benchmark
+	public void isReachable(Explorer state, Blackhole blackhole) {
+		for (Coordinate destination : state.destinations) {
+			blackhole.consume(state.unit.isReachable(destination));
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package hillbillies.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hillbillies.model.Coordinate;
+import hillbillies.model.Scheduler;
+import hillbillies.model.Task;
+import hillbillies.model.Unit;
+import hillbillies.model.Utils;
+import hillbillies.model.World;
+import hillbillies.model.expressions.True;
+import hillbillies.model.statements.Print;
+
+/**
+ * Benchmarks of the Scheduler of a Faction: handing the most important Task
+ * to a Unit, out of a varying number of Tasks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchedulerBenchmark {
+
+	@State(Scope.Thread)
+	public static class Tasks {
+
+		@Param({ "10", "100", "1000" })
+		public int nbTasks;
+
+		public Scheduler scheduler;
+		public Unit unit;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Utils.setRandomSeed(0);
+			World world = new World(BenchmarkMaps.obstacleField(10, 10, 5, 0), (x, y, z) -> {
+			});
+			this.unit = world.spawnUnit(false);
+			this.scheduler = this.unit.getFaction().getScheduler();
+			for (int i = 0; i < this.nbTasks; i++) {
+				this.scheduler.addTask(new Task("task" + i, Utils.randomInt(-1000, 1000), new Coordinate(0, 0, 0),
+						new Print(new True())));
+			}
+		}
+	}
+
+	/**
+	 * Schedules the most important Task for the Unit and puts it back, so
+	 * the Scheduler always holds the same Tasks.
+	 */
+	@Benchmark
+	public Scheduler setTaskToBeScheduled(Tasks state) {
+		state.scheduler.setTaskToBeScheduled(state.unit);
+		state.scheduler.resetTask(state.unit.getTask());
+		return state.scheduler;
+	}
+}
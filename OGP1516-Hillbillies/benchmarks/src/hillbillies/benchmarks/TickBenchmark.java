@@ -0,0 +1,73 @@
+package hillbillies.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hillbillies.model.Utils;
+import hillbillies.model.World;
+
+/**
+ * Benchmarks of advancing a whole World, populated with 100 Units with
+ * default behavior, by a single tick of its fixed time step.
+ *
+ * The World keeps running from one invocation to the next, so the Units
+ * keep walking, working and fighting as they would in a game. Every trial
+ * starts from the same seed, and the outcome does not depend on the number
+ * of threads, so the trials with 1 and 4 threads do exactly the same work.
+ * Most of that work is searching paths for Units setting off, which the
+ * threads take over, and those paths grow longer with the size of the map.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TickBenchmark {
+
+	@State(Scope.Thread)
+	public static class Populated {
+
+		@Param({ "20", "50", "100" })
+		public int size;
+
+		@Param({ "1", "4" })
+		public int threads;
+
+		public World world;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Utils.setRandomSeed(0);
+			this.world = new World(BenchmarkMaps.obstacleField(this.size, this.size, 10, 0), (x, y, z) -> {
+			});
+			this.world.setTickParallelism(this.threads);
+			for (int i = 0; i < 100; i++) {
+				this.world.spawnUnit(true);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.world.setTickParallelism(1);
+		}
+	}
+
+	@Benchmark
+	public World advanceTime(Populated state) {
+		state.world.advanceTime(state.world.getFixedTimeStep());
+		return state.world;
+	}
+}
@@ -0,0 +1,118 @@
+package hillbillies.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hillbillies.model.Coordinate;
+import hillbillies.model.Utils;
+import hillbillies.model.World;
+import hillbillies.part2.listener.TerrainChangeListener;
+
+/**
+ * Benchmarks of the terrain of a World: constructing it, digging out a cube
+ * that makes a large body of rock cave in, and listing the GameObjects in a
+ * cube.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorldBenchmark {
+
+	private static final TerrainChangeListener NO_LISTENER = (x, y, z) -> {
+	};
+
+	@State(Scope.Thread)
+	public static class Construction {
+
+		@Param({ "20", "50", "100" })
+		public int size;
+
+		public int[][][] terrain;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.terrain = BenchmarkMaps.obstacleField(this.size, this.size, this.size / 2, 0);
+		}
+	}
+
+	@Benchmark
+	public World construct(Construction state) {
+		return new World(state.terrain, NO_LISTENER);
+	}
+
+	@State(Scope.Thread)
+	public static class CaveIn {
+
+		@Param({ "20", "50", "100" })
+		public int size;
+
+		public int[][][] terrain;
+		public Coordinate bridgeEnd;
+		public World world;
+
+		@Setup(Level.Trial)
+		public void setUpTerrain() {
+			this.terrain = BenchmarkMaps.floatingRock(this.size, this.size, this.size / 2);
+			this.bridgeEnd = new Coordinate(BenchmarkMaps.getBridgeEnd(this.size, this.size, this.size / 2));
+		}
+
+		@Setup(Level.Invocation)
+		public void setUpWorld() {
+			Utils.setRandomSeed(0);
+			this.world = new World(this.terrain, NO_LISTENER);
+		}
+	}
+
+	@Benchmark
+	public World digOutCubeWithCaveIn(CaveIn state) {
+		state.world.digOutCube(state.bridgeEnd);
+		return state.world;
+	}
+
+	@State(Scope.Thread)
+	public static class Crowded {
+
+		@Param({ "1", "10", "100" })
+		public int nbUnits;
+
+		public World world;
+		public Coordinate[] cubes;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Utils.setRandomSeed(0);
+			this.world = new World(BenchmarkMaps.obstacleField(10, 10, 5, 0), NO_LISTENER);
+			for (int i = 0; i < this.nbUnits; i++) {
+				this.world.spawnUnit(false);
+			}
+			this.cubes = new Coordinate[10 * 10];
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 10; y++) {
+					this.cubes[x * 10 + y] = new Coordinate(x, y, 1);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void listGameObjectsInCube(Crowded state, Blackhole blackhole) {
+		for (Coordinate cube : state.cubes) {
+			blackhole.consume(state.world.listGameObjectsInCube(cube));
+		}
+	}
+}
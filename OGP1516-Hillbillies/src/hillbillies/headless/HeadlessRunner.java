@@ -0,0 +1,163 @@
+package hillbillies.headless;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import hillbillies.model.Faction;
+import hillbillies.model.Task;
+import hillbillies.model.Unit;
+import hillbillies.model.Utils;
+import hillbillies.model.World;
+import hillbillies.part3.TaskFactory;
+import hillbillies.part3.programs.TaskParser;
+import hillbillies.util.VoxelMap;
+import hillbillies.util.VoxelMapReader;
+
+/**
+ * Runs a World without any user interface, as fast as possible, and reports
+ * how fast it went. Meant for load tests on machines without a display.
+ *
+ * Usage:
+ *
+ * <pre>
+ * java hillbillies.headless.HeadlessRunner map.wrld[.gz] [options]
+ *   --units N       number of Units to spawn, with default behavior (default 50)
+ *   --seconds S     simulated time to run for (default 600)
+ *   --tasks FILE    task file to schedule in every Faction (may be repeated)
+ *   --threads N     threads preparing Units every tick (default 1)
+ *   --seed N        seed for all randomness of the model (default 0)
+ * </pre>
+ */
+public class HeadlessRunner {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: HeadlessRunner map.wrld[.gz] [--units N] [--seconds S] "
+					+ "[--tasks FILE]... [--threads N] [--seed N]");
+			System.exit(2);
+		}
+		HeadlessRunner runner = new HeadlessRunner(args[0]);
+		for (int i = 1; i < args.length; i++) {
+			String option = args[i];
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for option " + option);
+			}
+			String value = args[++i];
+			switch (option) {
+			case "--units":
+				runner.nbUnits = Integer.parseInt(value);
+				break;
+			case "--seconds":
+				runner.seconds = Double.parseDouble(value);
+				break;
+			case "--tasks":
+				runner.taskFiles.add(value);
+				break;
+			case "--threads":
+				runner.nbThreads = Integer.parseInt(value);
+				break;
+			case "--seed":
+				runner.seed = Long.parseLong(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+		runner.run();
+	}
+
+	public HeadlessRunner(String mapFile) {
+		this.mapFile = mapFile;
+	}
+
+	private final String mapFile;
+	private int nbUnits = 50;
+	private double seconds = 600;
+	private final List<String> taskFiles = new ArrayList<>();
+	private int nbThreads = 1;
+	private long seed = 0;
+
+	/**
+	 * Loads the map, populates the World and runs it, printing a report.
+	 */
+	public void run() throws IOException {
+		Utils.setRandomSeed(this.seed);
+
+		long start = System.nanoTime();
+		VoxelMap map = new VoxelMapReader().readFromFile(this.mapFile);
+		World world = new World(map.getCubes(), map.getNbX(), map.getNbY(), map.getNbZ(), (x, y, z) -> {
+		});
+		world.setTickParallelism(this.nbThreads);
+		long loaded = System.nanoTime();
+		System.out.printf("Loaded %s (%dx%dx%d) in %.1f ms%n", this.mapFile, world.getMaxXCoordinate(),
+				world.getMaxYCoordinate(), world.getMaxZCoordinate(), (loaded - start) / 1e6);
+
+		int nbSpawned = 0;
+		while (nbSpawned < this.nbUnits && world.spawnUnit(true) != null) {
+			nbSpawned++;
+		}
+		int nbTasks = 0;
+		for (String taskFile : this.taskFiles) {
+			for (Faction faction : world.listAllFactions()) {
+				List<Task> tasks = TaskParser.parseTasksFromFile(taskFile, new TaskFactory(),
+						Collections.emptyList());
+				if (tasks == null) {
+					throw new IllegalArgumentException("Could not parse " + taskFile);
+				}
+				for (Task task : tasks) {
+					faction.getScheduler().addTask(task);
+					nbTasks++;
+				}
+			}
+		}
+		System.out.printf("Spawned %d Units, scheduled %d Tasks%n", nbSpawned, nbTasks);
+
+		long gcCount = getGcCount();
+		long gcTime = getGcTime();
+		long runStart = System.nanoTime();
+		world.fastForward(this.seconds);
+		double wallSeconds = (System.nanoTime() - runStart) / 1e9;
+		gcCount = getGcCount() - gcCount;
+		gcTime = getGcTime() - gcTime;
+
+		int nbAlive = 0;
+		for (Unit unit : world.listAllUnits()) {
+			if (!unit.isTerminated()) {
+				nbAlive++;
+			}
+		}
+		System.out.printf("Simulated %.1f s in %.3f s (%.1fx real time)%n", this.seconds, wallSeconds,
+				this.seconds / wallSeconds);
+		System.out.printf("Ticks: %d (%.0f ticks/s)%n", world.getNbTicks(), world.getNbTicks() / wallSeconds);
+		System.out.printf("Path searches: %d (%.0f searches/s)%n", world.getNbPathSearches(),
+				world.getNbPathSearches() / wallSeconds);
+		System.out.printf("Units alive: %d, awake: %d; Items: %d, active: %d; terrain changes: %d%n", nbAlive,
+				world.getNbAwakeUnits(), world.listAllBoulders().size() + world.listAllLogs().size(),
+				world.getNbActiveItems(), world.getTerrainVersion());
+		Runtime runtime = Runtime.getRuntime();
+		System.out.printf("GC: %d collections, %d ms (%.1f%% of run); heap used %.1f MB of %.1f MB%n", gcCount,
+				gcTime, 100.0 * gcTime / (wallSeconds * 1000),
+				(runtime.totalMemory() - runtime.freeMemory()) / 1048576.0, runtime.totalMemory() / 1048576.0);
+		world.setTickParallelism(1);
+	}
+
+	private static long getGcCount() {
+		long result = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			result += Math.max(0, bean.getCollectionCount());
+		}
+		return result;
+	}
+
+	private static long getGcTime() {
+		long result = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			result += Math.max(0, bean.getCollectionTime());
+		}
+		return result;
+	}
+}
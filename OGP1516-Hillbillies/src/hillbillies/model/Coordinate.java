@@ -34,9 +34,19 @@ public class Coordinate extends VectorI {
 	 * 		Equal cubes are NOT adjacent!
 	 */
 	public boolean isAdjacentTo(Coordinate other) {
-		int dx = other.getX() - this.getX();
-		int dy = other.getY() - this.getY();
-		int dz = other.getZ() - this.getZ();
+		return isAdjacentTo(other.getX(), other.getY(), other.getZ());
+	}
+	
+	/**
+	 * Tells whether the prime object represents a cube adjacent to the cube
+	 * with the given coordinates. Equal cubes are NOT adjacent!
+	 * @return
+	 * 		| result == this.isAdjacentTo(new Coordinate(x, y, z))
+	 */
+	public boolean isAdjacentTo(int x, int y, int z) {
+		int dx = x - this.getX();
+		int dy = y - this.getY();
+		int dz = z - this.getZ();
 		return (dx == -1 || dx == 0 || dx == 1) &&
 				(dy == -1 || dy == 0 || dy == 1) &&
 				(dz == -1 || dz == 0 || dz == 1) &&
@@ -52,7 +62,7 @@ public class Coordinate extends VectorI {
 	 */
 	@Immutable
 	public Set<Coordinate> getNeighbors() {
-		Set<Coordinate> result = new HashSet<Coordinate>();
+		Set<Coordinate> result = new HashSet<Coordinate>(36);
 		for (int x=-1; x<=1; x++) {
 			for (int y=-1; y<=1; y++) {
 				for (int z=-1; z<=1; z++) {
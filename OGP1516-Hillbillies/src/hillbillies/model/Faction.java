@@ -14,6 +14,15 @@ import be.kuleuven.cs.som.annotate.Raw;
  */
 public class Faction {
 
+	/**
+	 * Initializes a new Faction without Units, with its own Scheduler.
+	 * @effect
+	 * 		| new Scheduler(this)
+	 */
+	public Faction() {
+		new Scheduler(this);
+	}
+
 	/* Unit */
 	
 	/**
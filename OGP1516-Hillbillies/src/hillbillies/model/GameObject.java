@@ -87,7 +87,8 @@ public abstract class GameObject implements IAdvanceable{
 	 */
 	@Raw
 	public boolean canHaveAsPosition(Position position){
-		return this.getWorld().withinBounds(position) && this.getWorld().isPassableCube(position.toCoordinate());
+		return this.getWorld().withinBounds(position) &&
+				this.getWorld().isPassable((int) position.getX(), (int) position.getY(), (int) position.getZ());
 	}
 
 	/**
@@ -113,6 +114,9 @@ public abstract class GameObject implements IAdvanceable{
 			throw new IllegalArgumentException();
 		this.setPreviousPosition(this.getPosition());
 		this.position = position;
+		if (this.getWorld() != null) {
+			this.getWorld().updateCubeOf(this);
+		}
 	}
 
 	/**                                                                                                                                                                                  
@@ -166,7 +170,15 @@ public abstract class GameObject implements IAdvanceable{
 	 * 		True iff this GameObject's World says its cube is around a solid one.
 	 */
 	protected boolean aroundSolid(){
-		return this.getWorld().isAroundSolid(this.getWorld().cubeCoordinates(this.getPosition()));
+		// The World files this GameObject under the index of its cube
+		if (this.getCubeIndex() >= 0) {
+			return this.getWorld().isAroundSolid(this.getCubeIndex());
+		}
+		Position position = this.getPosition();
+		if (!this.getWorld().withinBounds(position)) {
+			throw new IllegalArgumentException("Position is not valid: " + position.toString());
+		}
+		return this.getWorld().isAroundSolid((int) position.getX(), (int) position.getY(), (int) position.getZ());
 	}
 	
 	/**
@@ -175,7 +187,15 @@ public abstract class GameObject implements IAdvanceable{
 	 * 		True iff this GameObject's World says its cube is above a solid one.
 	 */
 	protected boolean aboveSolid(){
-		return this.getWorld().isAboveSolid(this.getWorld().cubeCoordinates(this.getPosition()));
+		// The World files this GameObject under the index of its cube
+		if (this.getCubeIndex() >= 0) {
+			return this.getWorld().isAboveSolid(this.getCubeIndex());
+		}
+		Position position = this.getPosition();
+		if (!this.getWorld().withinBounds(position)) {
+			throw new IllegalArgumentException("Position is not valid: " + position.toString());
+		}
+		return this.getWorld().isAboveSolid((int) position.getX(), (int) position.getY(), (int) position.getZ());
 	}
 	
 	/**
@@ -194,4 +214,30 @@ public abstract class GameObject implements IAdvanceable{
 	
 	protected World world;
 
+	/**
+	 * Gives back the index of the cube this GameObject is filed under in the
+	 * SpatialHash of its World, or -1 if it is not filed.
+	 */
+	@Basic @Raw
+	int getCubeIndex() {
+		return this.cubeIndex;
+	}
+
+	/**
+	 * Sets the index of the cube this GameObject is filed under in the
+	 * SpatialHash of its World. Only to be used by that World.
+	 * @param cubeIndex
+	 * 		The index of the cube, or -1.
+	 */
+	@Raw
+	void setCubeIndex(int cubeIndex) {
+		this.cubeIndex = cubeIndex;
+	}
+
+	/**
+	 * Variable registering the cube this GameObject is filed under in the
+	 * SpatialHash of its World.
+	 */
+	private int cubeIndex = -1;
+
 }
@@ -284,6 +284,16 @@ public class Item extends GameObject{
 		}
 	}
 	
+	/**
+	 * Tells whether this Item rests on solid ground, so advancing it changes
+	 * nothing until the terrain under it changes or it is moved.
+	 * @return
+	 * 		| result == (hasWorld() && this.state == ItemState.NOTHING && this.aboveSolid())
+	 */
+	boolean isAtRest() {
+		return this.state == ItemState.NOTHING && this.hasWorld() && this.aboveSolid();
+	}
+	
 	/**
 	 * Makes this Item transition to the nothing state.
 	 * @post
@@ -342,18 +352,24 @@ public class Item extends GameObject{
 	 * 		| VectorD.add(this.getPosition(), VectorD.multiply(getFallingVelocity(), dt))
 	 */
 	private void doFalling(double dt) {
-		VectorD velocity = getFallingVelocity();
-		VectorD deltaPosition = VectorD.multiply(velocity, dt);
-		this.setPosition(Position.add(this.getPosition(), deltaPosition));
+		Position position = this.getPosition();
+		this.setPosition(new Position(position.getX() + getFallingVelocity().getX() * dt,
+				position.getY() + getFallingVelocity().getY() * dt,
+				position.getZ() + getFallingVelocity().getZ() * dt));
 	}
 	
 	/**
-	 * Gives back the velocity with which a Unit falls.
+	 * Gives back the velocity with which an Item falls.
 	 */
-	private VectorD getFallingVelocity() {
-		return new VectorD(0, 0, -3);
+	private static VectorD getFallingVelocity() {
+		return fallingVelocity;
 	}
 	
+	/**
+	 * The velocity with which an Item falls.
+	 */
+	private static final VectorD fallingVelocity = new VectorD(0, 0, -3);
+	
 	public static double getMaxDT() {
 		return maxDT;
 	}
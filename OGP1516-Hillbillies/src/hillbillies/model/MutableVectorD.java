@@ -0,0 +1,109 @@
+package hillbillies.model;
+
+import be.kuleuven.cs.som.annotate.Basic;
+
+/**
+ * A vector of dimension 3 with double components that can be changed in
+ * place.
+ *
+ * Hot loops, such as moving a Unit every tick, keep one MutableVectorD as a
+ * scratch buffer and compute in it, rather than creating an immutable
+ * VectorD for every intermediate result. A MutableVectorD must never be
+ * shared or used as a hash key.
+ */
+public class MutableVectorD {
+
+	/**
+	 * Initializes a MutableVectorD with all components zero.
+	 */
+	public MutableVectorD() {
+	}
+
+	/**
+	 * Returns this MutableVectorD's x component
+	 */
+	@Basic
+	public double getX() {
+		return this.x;
+	}
+
+	/**
+	 * Returns this MutableVectorD's y component
+	 */
+	@Basic
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Returns this MutableVectorD's z component
+	 */
+	@Basic
+	public double getZ() {
+		return this.z;
+	}
+
+	/**
+	 * Sets the components of this MutableVectorD.
+	 * @return
+	 * 		This MutableVectorD.
+	 */
+	public MutableVectorD set(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	/**
+	 * Sets this MutableVectorD to the first given vector minus the second.
+	 * @return
+	 * 		This MutableVectorD.
+	 */
+	public MutableVectorD setToDifference(VectorD vector1, VectorD vector2) {
+		return set(vector1.getX() - vector2.getX(), vector1.getY() - vector2.getY(),
+				vector1.getZ() - vector2.getZ());
+	}
+
+	/**
+	 * Multiplies every component of this MutableVectorD by the given factor.
+	 * @return
+	 * 		This MutableVectorD.
+	 */
+	public MutableVectorD scale(double factor) {
+		return set(this.x * factor, this.y * factor, this.z * factor);
+	}
+
+	/**
+	 * Scales this MutableVectorD to the given length, keeping its direction.
+	 * @return
+	 * 		This MutableVectorD.
+	 */
+	public MutableVectorD scaleTo(double length) {
+		return scale(length / getLength());
+	}
+
+	/**
+	 * Gives back the Euclidean length of this MutableVectorD.
+	 */
+	public double getLength() {
+		return Math.sqrt(this.x*this.x + this.y*this.y + this.z*this.z);
+	}
+
+	/**
+	 * Gives back a new Position at the given VectorD plus this MutableVectorD.
+	 */
+	public Position addTo(VectorD vector) {
+		return new Position(vector.getX() + this.x, vector.getY() + this.y, vector.getZ() + this.z);
+	}
+
+	/**
+	 * Returns a human-readable representation of this
+	 */
+	@Override
+	public String toString() {
+		return "MutableVectorD(" + this.x + ", " + this.y + ", " + this.z + ")";
+	}
+
+	private double x, y, z;
+}
@@ -4,10 +4,6 @@ import be.kuleuven.cs.som.annotate.Immutable;
 
 public class Position extends VectorD {
 
-	public Position(Double x, Double y, Double z) {
-		super(x, y, z);
-	}
-	
 	public Position(double x, double y, double z) {
 		super(x, y, z);
 	}
@@ -28,7 +24,23 @@ public class Position extends VectorD {
 	 */
 	@Immutable
 	public Coordinate toCoordinate() {
-		return new Coordinate(this.getX().intValue(), this.getY().intValue(), this.getZ().intValue());
+		return new Coordinate((int) this.getX(), (int) this.getY(), (int) this.getZ());
+	}
+
+	/**
+	 * Tells whether the cube this Position is located in is adjacent to the
+	 * cube the given Position is located in, without creating Coordinates.
+	 * @param other
+	 * 		The other Position.
+	 * @return
+	 * 		| result == this.toCoordinate().isAdjacentTo(other.toCoordinate())
+	 */
+	public boolean isInCubeAdjacentTo(Position other) {
+		int dx = (int) other.getX() - (int) this.getX();
+		int dy = (int) other.getY() - (int) this.getY();
+		int dz = (int) other.getZ() - (int) this.getZ();
+		return Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && Math.abs(dz) <= 1 &&
+				!(dx == 0 && dy == 0 && dz == 0);
 	}
 
 	/**
@@ -38,10 +50,8 @@ public class Position extends VectorD {
 	 * @return
 	 */
 	public static Position add(VectorD vector1, VectorD vector2){
-		 double X = vector1.getX() + vector2.getX();
-		 double Y = vector1.getY() + vector2.getY();
-		 double Z = vector1.getZ() + vector2.getZ();
-		 return new Position(X, Y, Z);
+		return new Position(vector1.getX() + vector2.getX(), vector1.getY() + vector2.getY(),
+				vector1.getZ() + vector2.getZ());
 	}
 	
 	/**
@@ -52,10 +62,7 @@ public class Position extends VectorD {
 	 * @return
 	 */
 	public static Position multiply(VectorD vector, double x){
-		double X = vector.getX() * x;
-		double Y = vector.getY() * x;
-		double Z = vector.getZ() * x;
-		return new Position(X, Y, Z);
+		return new Position(vector.getX() * x, vector.getY() * x, vector.getZ() * x);
 	}
 	
 	/**
@@ -65,15 +72,7 @@ public class Position extends VectorD {
 	 * @return
 	 */
 	public static Position subtract(VectorD vector1, VectorD vector2){
-		return Position.add(vector1, invert(vector2));
-	}
-	
-	/**
-	 * Invert a given vector
-	 * @param vector
-	 * @return
-	 */
-	private static VectorD invert(VectorD vector) {
-		return VectorD.multiply(vector, -1);
+		return new Position(vector1.getX() - vector2.getX(), vector1.getY() - vector2.getY(),
+				vector1.getZ() - vector2.getZ());
 	}
 }
@@ -1,12 +1,13 @@
 package hillbillies.model;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
-import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
@@ -63,11 +64,11 @@ public class Scheduler {
 	
 	/**
 	 * return and remove the task with the highest priority that is not scheduled
-	 * @return the task with the highest priority in the priorityQueue
-	 * 		| result == tasks.poll
+	 * @return the task with the highest priority in the heap of tasks
+	 * 		| result == pollTask()
 	 */
 	public Task getMostImportandTask(){
-		return this.tasks.poll();
+		return this.pollTask();
 	}
 	
 	/**
@@ -94,9 +95,13 @@ public class Scheduler {
 	 * @effect the Task is set to scheduled in all its factions
 	 * 		| for every scheduler in getScheulers()
 	 * 		|		scheduler.addScheduledTask(task)
+	 * @post if all tasks of this scheduler are already scheduled, nothing changes
 	 */
 	public void setTaskToBeScheduled(Unit unit){
 		Task task = this.getMostImportandTask();
+		if (task == null) {
+			return;
+		}
 		task.setUnit(unit);
 		this.scheduledTasks.add(task);
 		for(Scheduler scheduler : task.getScheulers()){
@@ -115,8 +120,6 @@ public class Scheduler {
 	public void resetTask(Task task){
 		if (this.isScheduled(task)) {
 			task.removeUnit();
-			this.removeTask(task);
-			this.addTask(task);
 			for(Scheduler scheduler : task.getScheulers()){
 				scheduler.unschedleTask(task);
 			}
@@ -133,9 +136,8 @@ public class Scheduler {
 	 * 		|		! this.isScheduled(task)
 	 */
 	public void unschedleTask(@Raw Task task){
-		if(this.hasAsTask(task) && ! task.hasUnit()){
-			this.removeTask(task);
-			this.addTask(task);
+		if(! task.hasUnit() && this.scheduledTasks.remove(task)){
+			this.offerTask(task);
 		}
 	} 
 
@@ -151,7 +153,7 @@ public class Scheduler {
 	@Basic
 	@Raw
 	public boolean hasAsTask(@Raw Task task) {
-		return tasks.contains(task) || scheduledTasks.contains(task);
+		return taskIndices.containsKey(task) || scheduledTasks.contains(task);
 	}
 	
 	/**
@@ -203,9 +205,12 @@ public class Scheduler {
 	 * @post   This scheduler has the given task as one of its tasks.
 	 *       | new.hasAsTask(task)
 	 *       | task.hasAsScheduler(this)
+	 * @post   If this scheduler already has the given task, nothing changes.
 	 */
 	public void addTask(@Raw Task task) {
-		tasks.add(task);
+		if (! this.hasAsTask(task)) {
+			this.offerTask(task);
+		}
 		task.addScheduler(this);
 	}
 
@@ -221,30 +226,129 @@ public class Scheduler {
 	 */
 	@Raw
 	public void removeTask(Task task) {
-		tasks.remove(task);
+		Integer index = taskIndices.get(task);
+		if (index != null) {
+			this.removeTaskAt(index);
+		}
 		scheduledTasks.remove(task);
 		task.removeScheduler(this);
 	}
 
 	/**
-	 * Variable referencing a priorityQueue collecting all the tasks
-	 * of this scheduler that are not scheduled.
+	 * Variable referencing a binary heap collecting all the tasks of this
+	 * scheduler that are not scheduled, the task with the highest priority
+	 * first.
 	 * 
-	 * @Invar  The referenced priorityQueue is effective.
+	 * @Invar  The referenced heap is effective.
 	 *       | this.tasks != null
-	 * @Invar  Each task registered in the referenced queue is
+	 * @Invar  Each task registered in the referenced heap is
 	 *         effective and not yet scheduled.
 	 *       | for each task in tasks:
 	 *       |   ( (task != null) &&
 	 *       |     (! task.hasUnit()) )
+	 * @Invar  No task in the heap has a higher priority than its parent.
+	 *       | for each i in 1..tasks.size()-1:
+	 *       |   tasks.get(i).getPriority() <= tasks.get((i-1)/2).getPriority()
 	 */
-	private final PriorityQueue<Task> tasks = new PriorityQueue<Task>(
-			new Comparator<Task> () {
-				@Override
-				public int compare(Task t1, Task t2) {
-					return (t1.getPriority() < t2.getPriority()) ? (1) : (t1.getPriority() == t2.getPriority() ? 0 : -1);
-				}
-			});
+	private final ArrayList<Task> tasks = new ArrayList<Task>();
+	
+	/**
+	 * Variable referencing the index in the heap of each task in it, so a
+	 * task can be found, removed or moved after its priority changed in
+	 * logarithmic time.
+	 * 
+	 * @Invar  Each task in the heap is registered at its index.
+	 *       | for each i in 0..tasks.size()-1:
+	 *       |   taskIndices.get(tasks.get(i)) == i
+	 */
+	private final HashMap<Task, Integer> taskIndices = new HashMap<Task, Integer>();
+	
+	/**
+	 * Add the given task to the heap of unscheduled tasks.
+	 */
+	private void offerTask(Task task) {
+		this.tasks.add(task);
+		this.taskIndices.put(task, this.tasks.size() - 1);
+		this.siftUp(this.tasks.size() - 1);
+	}
+	
+	/**
+	 * Remove and return the task with the highest priority from the heap of
+	 * unscheduled tasks, or null if the heap is empty.
+	 */
+	private Task pollTask() {
+		if (this.tasks.isEmpty()) {
+			return null;
+		}
+		Task result = this.tasks.get(0);
+		this.removeTaskAt(0);
+		return result;
+	}
+	
+	/**
+	 * Remove the task at the given index from the heap of unscheduled tasks,
+	 * by moving the last task of the heap in its place.
+	 */
+	private void removeTaskAt(int index) {
+		Task last = this.tasks.remove(this.tasks.size() - 1);
+		if (index == this.tasks.size()) {
+			this.taskIndices.remove(last);
+			return;
+		}
+		this.taskIndices.remove(this.tasks.get(index));
+		this.placeTask(last, index);
+		this.siftDown(index);
+		this.siftUp(this.taskIndices.get(last));
+	}
+	
+	/**
+	 * Restore the order of the heap after the priority of the given task
+	 * has changed. Nothing happens if the task is not in the heap.
+	 * @param task
+	 * 		| the task of which the priority changed
+	 */
+	void updatePriority(Task task) {
+		Integer index = this.taskIndices.get(task);
+		if (index != null) {
+			this.siftUp(index);
+			this.siftDown(this.taskIndices.get(task));
+		}
+	}
+	
+	private void siftUp(int index) {
+		Task task = this.tasks.get(index);
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (this.tasks.get(parent).getPriority() >= task.getPriority()) {
+				break;
+			}
+			this.placeTask(this.tasks.get(parent), index);
+			index = parent;
+		}
+		this.placeTask(task, index);
+	}
+	
+	private void siftDown(int index) {
+		Task task = this.tasks.get(index);
+		int size = this.tasks.size();
+		while (2 * index + 1 < size) {
+			int child = 2 * index + 1;
+			if (child + 1 < size && this.tasks.get(child + 1).getPriority() > this.tasks.get(child).getPriority()) {
+				child++;
+			}
+			if (this.tasks.get(child).getPriority() <= task.getPriority()) {
+				break;
+			}
+			this.placeTask(this.tasks.get(child), index);
+			index = child;
+		}
+		this.placeTask(task, index);
+	}
+	
+	private void placeTask(Task task, int index) {
+		this.tasks.set(index, task);
+		this.taskIndices.put(task, index);
+	}
 	
 	/**
 	 * Add a task that is has a unit but is still in tasks
@@ -257,25 +361,26 @@ public class Scheduler {
 	 */
 	@Raw
 	public void addScheduledTask(@Raw Task task){
-		if(task.hasUnit() && this.tasks.contains(task)){
-			this.tasks.remove(task);
+		Integer index = this.taskIndices.get(task);
+		if(task.hasUnit() && index != null){
+			this.removeTaskAt(index);
 			this.scheduledTasks.add(task);
 		}
 	}
 	
 	/**
-	 * Variable referencing a list collecting all the tasks
-	 * of this scheduler that are scheduled.
+	 * Variable referencing a set collecting all the tasks
+	 * of this scheduler that are scheduled, in the order they were scheduled.
 	 * 
-	 * @Invar  The referenced list is effective.
+	 * @Invar  The referenced set is effective.
 	 *       | this.tasks != null
-	 * @Invar  Each task registered in the referenced list is
+	 * @Invar  Each task registered in the referenced set is
 	 *         effective and scheduled.
 	 *       | for each task in scheduledTasks:
 	 *       |   ( (task != null) &&
 	 *       |     (task.hasUnit()) )
 	 */
-	private final LinkedList<Task> scheduledTasks = new LinkedList<Task>();
+	private final LinkedHashSet<Task> scheduledTasks = new LinkedHashSet<Task>();
 	
 	/**
 	 * Check whether a given task is scheduled
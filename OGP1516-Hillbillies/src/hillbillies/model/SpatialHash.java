@@ -0,0 +1,621 @@
+package hillbillies.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A uniform spatial hash of the GameObjects in a World.
+ *
+ * The World is divided into cells of CELL_SIZE x CELL_SIZE x CELL_SIZE
+ * cubes, and every GameObject is kept in the cell that holds the cube it is
+ * in. Looking up the GameObjects in or around a cube then only visits the
+ * GameObjects in one or a few cells, rather than every GameObject of the
+ * World.
+ *
+ * The hash itself does not know where GameObjects are; whoever inserts a
+ * GameObject must tell the hash every time its cube changes.
+ *
+ * Besides GameObjects, a SpatialHash can mark individual cubes, such as the
+ * workshops of a World, and count the marked cubes per cell.
+ *
+ * Nearest neighbour queries visit the cells in rings of growing distance
+ * around the origin. Candidates are kept in a heap by distance, and a
+ * candidate is only offered to the caller once no cell further out can hold
+ * anything closer, so the first accepted candidate is the closest acceptable
+ * one. The heap is kept in primitive arrays that every query reuses, so a
+ * query allocates nothing once they have grown large enough.
+ */
+public class SpatialHash {
+
+	/**
+	 * The number of cubes along each edge of a cell, a power of two.
+	 */
+	public static final int CELL_SIZE = 4;
+
+	/**
+	 * The base 2 logarithm of CELL_SIZE.
+	 */
+	private static final int CELL_SHIFT = 2;
+
+	/**
+	 * Initializes an empty SpatialHash for a World with the given numbers of
+	 * cubes in each direction.
+	 * @param nbX
+	 * @param nbY
+	 * @param nbZ
+	 * @throws IllegalArgumentException
+	 * 		If any of the given numbers is not positive.
+	 */
+	public SpatialHash(int nbX, int nbY, int nbZ) throws IllegalArgumentException {
+		if (nbX <= 0 || nbY <= 0 || nbZ <= 0) {
+			throw new IllegalArgumentException("Dimensions must be positive: " + nbX + ", " + nbY + ", " + nbZ);
+		}
+		this.nbX = nbX;
+		this.nbY = nbY;
+		this.nbZ = nbZ;
+		this.nbCellsX = ((nbX - 1) >> CELL_SHIFT) + 1;
+		this.nbCellsY = ((nbY - 1) >> CELL_SHIFT) + 1;
+		this.nbCellsZ = ((nbZ - 1) >> CELL_SHIFT) + 1;
+		this.cells = new GameObject[this.nbCellsX * this.nbCellsY * this.nbCellsZ][];
+		this.sizes = new int[this.cells.length];
+		this.marked = new BitSet();
+		this.nbMarked = new int[this.cells.length];
+	}
+
+	/**
+	 * Gives back the number of GameObjects in this SpatialHash.
+	 */
+	@Basic
+	public int getNbGameObjects() {
+		return this.nbGameObjects;
+	}
+
+	/**
+	 * Gives back the number of cubes of the World along the x axis.
+	 */
+	@Basic @Immutable
+	public int getNbX() {
+		return this.nbX;
+	}
+
+	/**
+	 * Gives back the number of cubes of the World along the y axis.
+	 */
+	@Basic @Immutable
+	public int getNbY() {
+		return this.nbY;
+	}
+
+	/**
+	 * Gives back the number of cubes of the World along the z axis.
+	 */
+	@Basic @Immutable
+	public int getNbZ() {
+		return this.nbZ;
+	}
+
+	/**
+	 * Adds the given GameObject, which is in the cube with the given index.
+	 * @param gameObject
+	 * 		The GameObject to add.
+	 * @param cube
+	 * 		The index of the cube the GameObject is in.
+	 */
+	public void insert(GameObject gameObject, int cube) {
+		int cell = getCell(cube);
+		GameObject[] objects = this.cells[cell];
+		if (objects == null) {
+			objects = this.cells[cell] = new GameObject[4];
+		} else if (this.sizes[cell] == objects.length) {
+			objects = this.cells[cell] = Arrays.copyOf(objects, 2 * objects.length);
+		}
+		objects[this.sizes[cell]++] = gameObject;
+		this.nbGameObjects++;
+	}
+
+	/**
+	 * Removes the given GameObject, which was in the cube with the given
+	 * index, if it is in this SpatialHash.
+	 * @param gameObject
+	 * 		The GameObject to remove.
+	 * @param cube
+	 * 		The index of the cube the GameObject was inserted or moved to.
+	 */
+	public void remove(GameObject gameObject, int cube) {
+		int cell = getCell(cube);
+		GameObject[] objects = this.cells[cell];
+		int size = this.sizes[cell];
+		for (int i = 0; i < size; i++) {
+			if (objects[i] == gameObject) {
+				objects[i] = objects[size - 1];
+				objects[size - 1] = null;
+				this.sizes[cell] = size - 1;
+				this.nbGameObjects--;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Moves the given GameObject from the cube with the given old index to
+	 * the cube with the given new index.
+	 * @param gameObject
+	 * 		The GameObject that moved.
+	 * @param oldCube
+	 * 		The index of the cube the GameObject was in.
+	 * @param newCube
+	 * 		The index of the cube the GameObject is in now.
+	 */
+	public void move(GameObject gameObject, int oldCube, int newCube) {
+		if (getCell(oldCube) != getCell(newCube)) {
+			remove(gameObject, oldCube);
+			insert(gameObject, newCube);
+		}
+	}
+
+	/**
+	 * Adds every GameObject of the given type in the cube with the given
+	 * index to the given collection.
+	 * @param cube
+	 * 		The index of the cube to look in.
+	 * @param type
+	 * 		The class the GameObjects must be an instance of.
+	 * @param result
+	 * 		The collection to add to.
+	 */
+	public <T extends GameObject> void collectInCube(int cube, Class<T> type, Collection<? super T> result) {
+		int cell = getCell(cube);
+		GameObject[] objects = this.cells[cell];
+		for (int i = 0, size = this.sizes[cell]; i < size; i++) {
+			if (objects[i].getCubeIndex() == cube && type.isInstance(objects[i])) {
+				result.add(type.cast(objects[i]));
+			}
+		}
+	}
+
+	/**
+	 * Gives back any GameObject of the given type in the cube with the given
+	 * index, or null if there is none.
+	 * @param cube
+	 * 		The index of the cube to look in.
+	 * @param type
+	 * 		The class the GameObject must be an instance of.
+	 */
+	public <T extends GameObject> T findInCube(int cube, Class<T> type) {
+		int cell = getCell(cube);
+		GameObject[] objects = this.cells[cell];
+		for (int i = 0, size = this.sizes[cell]; i < size; i++) {
+			if (objects[i].getCubeIndex() == cube && type.isInstance(objects[i])) {
+				return type.cast(objects[i]);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds every GameObject of the given type in the cubes next to the cube
+	 * with the given index, not in the cube itself, to the given collection.
+	 * @param cube
+	 * 		The index of the cube to look around.
+	 * @param type
+	 * 		The class the GameObjects must be an instance of.
+	 * @param result
+	 * 		The collection to add to.
+	 */
+	public <T extends GameObject> void collectAround(int cube, Class<T> type, Collection<? super T> result) {
+		int nbXY = this.nbX * this.nbY;
+		int x = cube % this.nbX;
+		int y = (cube / this.nbX) % this.nbY;
+		int z = cube / nbXY;
+		// The neighbouring cubes lie in at most 2 x 2 x 2 cells.
+		int minCellX = Math.max(x - 1, 0) >> CELL_SHIFT;
+		int maxCellX = Math.min(x + 1, this.nbX - 1) >> CELL_SHIFT;
+		int minCellY = Math.max(y - 1, 0) >> CELL_SHIFT;
+		int maxCellY = Math.min(y + 1, this.nbY - 1) >> CELL_SHIFT;
+		int minCellZ = Math.max(z - 1, 0) >> CELL_SHIFT;
+		int maxCellZ = Math.min(z + 1, this.nbZ - 1) >> CELL_SHIFT;
+		for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+					int cell = cellX + this.nbCellsX * (cellY + this.nbCellsY * cellZ);
+					GameObject[] objects = this.cells[cell];
+					for (int i = 0, size = this.sizes[cell]; i < size; i++) {
+						int other = objects[i].getCubeIndex();
+						if (other != cube && Math.abs(other % this.nbX - x) <= 1 &&
+								Math.abs((other / this.nbX) % this.nbY - y) <= 1 &&
+								Math.abs(other / nbXY - z) <= 1 && type.isInstance(objects[i])) {
+							result.add(type.cast(objects[i]));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gives back the GameObject of the given type closest to the given
+	 * origin that is accepted by the given predicate.
+	 * @param origin
+	 * 		The Position to measure distances from.
+	 * @param type
+	 * 		The class the GameObject must be an instance of.
+	 * @param accept
+	 * 		The predicate the GameObject must satisfy. It is tested on
+	 * 		candidates in order of increasing distance, so an expensive test
+	 * 		is only run for the candidates that are closest.
+	 * @return
+	 * 		The closest accepted GameObject of the given type, or null if
+	 * 		there is none.
+	 */
+	public <T extends GameObject> T findNearest(Position origin, Class<T> type, Predicate<? super T> accept) {
+		Query query = startQuery(origin);
+		try {
+			for (int ring = 0; ring <= query.maxRing; ring++) {
+				for (int c = 0, nbCells = collectRing(query, ring); c < nbCells; c++) {
+					int cell = query.ring[c];
+					GameObject[] objects = this.cells[cell];
+					for (int i = 0, size = this.sizes[cell]; i < size; i++) {
+						if (type.isInstance(objects[i])) {
+							query.heap.push(origin.distance(objects[i].getPosition()), objects[i], -1);
+						}
+					}
+				}
+				double bound = getBound(query, ring);
+				while (!query.heap.isEmpty() && query.heap.peekDistance() <= bound) {
+					T candidate = type.cast(query.heap.popObject());
+					if (accept.test(candidate)) {
+						return candidate;
+					}
+				}
+			}
+			return null;
+		} finally {
+			endQuery(query);
+		}
+	}
+
+	/**
+	 * Marks the cube with the given index.
+	 * @param cube
+	 * 		The index of the cube to mark.
+	 * @post
+	 * 		| new.isMarked(cube)
+	 */
+	public void mark(int cube) {
+		if (!this.marked.get(cube)) {
+			this.marked.set(cube);
+			this.nbMarked[getCell(cube)]++;
+		}
+	}
+
+	/**
+	 * Removes the mark of the cube with the given index, if any.
+	 * @param cube
+	 * 		The index of the cube to unmark.
+	 * @post
+	 * 		| !new.isMarked(cube)
+	 */
+	public void unmark(int cube) {
+		if (this.marked.get(cube)) {
+			this.marked.clear(cube);
+			this.nbMarked[getCell(cube)]--;
+		}
+	}
+
+	/**
+	 * Tells whether the cube with the given index is marked.
+	 */
+	public boolean isMarked(int cube) {
+		return this.marked.get(cube);
+	}
+
+	/**
+	 * Gives back the marked cube whose centre is closest to the given origin
+	 * that is accepted by the given predicate.
+	 * @param origin
+	 * 		The Position to measure distances from.
+	 * @param accept
+	 * 		The predicate the index of the cube must satisfy, tested in order
+	 * 		of increasing distance.
+	 * @return
+	 * 		The index of the closest accepted marked cube, or -1 if there is
+	 * 		none.
+	 */
+	public int findNearestMarked(Position origin, IntPredicate accept) {
+		Query query = startQuery(origin);
+		try {
+			for (int ring = 0; ring <= query.maxRing; ring++) {
+				for (int c = 0, nbCells = collectRing(query, ring); c < nbCells; c++) {
+					int cell = query.ring[c];
+					if (this.nbMarked[cell] > 0) {
+						pushMarked(cell, origin, query.heap);
+					}
+				}
+				double bound = getBound(query, ring);
+				while (!query.heap.isEmpty() && query.heap.peekDistance() <= bound) {
+					int candidate = query.heap.popCube();
+					if (accept.test(candidate)) {
+						return candidate;
+					}
+				}
+			}
+			return -1;
+		} finally {
+			endQuery(query);
+		}
+	}
+
+	/**
+	 * Adds every marked cube of the given cell to the given heap, by the
+	 * distance of its centre to the given origin.
+	 */
+	private void pushMarked(int cell, Position origin, CandidateHeap heap) {
+		int cellX = cell % this.nbCellsX;
+		int cellY = (cell / this.nbCellsX) % this.nbCellsY;
+		int cellZ = cell / (this.nbCellsX * this.nbCellsY);
+		int minX = cellX << CELL_SHIFT, maxX = Math.min(minX + CELL_SIZE, this.nbX);
+		int minY = cellY << CELL_SHIFT, maxY = Math.min(minY + CELL_SIZE, this.nbY);
+		int minZ = cellZ << CELL_SHIFT, maxZ = Math.min(minZ + CELL_SIZE, this.nbZ);
+		for (int z = minZ; z < maxZ; z++) {
+			for (int y = minY; y < maxY; y++) {
+				for (int x = minX; x < maxX; x++) {
+					int cube = x + this.nbX * (y + this.nbY * z);
+					if (this.marked.get(cube)) {
+						double dx = x + 0.5 - origin.getX();
+						double dy = y + 0.5 - origin.getY();
+						double dz = z + 0.5 - origin.getZ();
+						heap.push(Math.sqrt(dx*dx + dy*dy + dz*dz), null, cube);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Takes the Query of this SpatialHash, set up for the given origin. If a
+	 * predicate of a query in progress runs another query on this
+	 * SpatialHash, that one gets a Query of its own.
+	 */
+	private Query startQuery(Position origin) {
+		Query query = this.idleQuery != null ? this.idleQuery : new Query();
+		this.idleQuery = null;
+		query.originX = clamp((int) origin.getX(), this.nbX) >> CELL_SHIFT;
+		query.originY = clamp((int) origin.getY(), this.nbY) >> CELL_SHIFT;
+		query.originZ = clamp((int) origin.getZ(), this.nbZ) >> CELL_SHIFT;
+		query.maxRing = Math.max(Math.max(query.originX, this.nbCellsX - 1 - query.originX),
+				Math.max(Math.max(query.originY, this.nbCellsY - 1 - query.originY),
+						Math.max(query.originZ, this.nbCellsZ - 1 - query.originZ)));
+		return query;
+	}
+
+	/**
+	 * Gives back the given Query, which has finished, for reuse.
+	 */
+	private void endQuery(Query query) {
+		query.heap.clear();
+		this.idleQuery = query;
+	}
+
+	/**
+	 * Stores the cells of the given ring around the origin of the given
+	 * Query in its ring array, and gives back how many there are.
+	 */
+	private int collectRing(Query query, int ring) {
+		int nbCells = 0;
+		for (int cellZ = Math.max(query.originZ - ring, 0); cellZ <= Math.min(query.originZ + ring, this.nbCellsZ - 1); cellZ++) {
+			boolean onZ = Math.abs(cellZ - query.originZ) == ring;
+			for (int cellY = Math.max(query.originY - ring, 0); cellY <= Math.min(query.originY + ring, this.nbCellsY - 1); cellY++) {
+				boolean onShell = onZ || Math.abs(cellY - query.originY) == ring;
+				// Inside the shell only the two cells at distance ring along x
+				int step = onShell || ring == 0 ? 1 : 2 * ring;
+				for (int cellX = query.originX - ring; cellX <= query.originX + ring; cellX += step) {
+					if (cellX >= 0 && cellX < this.nbCellsX) {
+						if (nbCells == query.ring.length) {
+							query.ring = Arrays.copyOf(query.ring, 2 * nbCells);
+						}
+						query.ring[nbCells++] = cellX + this.nbCellsX * (cellY + this.nbCellsY * cellZ);
+					}
+				}
+			}
+		}
+		return nbCells;
+	}
+
+	/**
+	 * Gives back the distance within which the candidates of the given
+	 * Query are closer than anything still to be found, once the given ring
+	 * has been scanned.
+	 *
+	 * Every point of a cell in ring r+1 lies at least r*CELL_SIZE away from
+	 * the origin along one axis, so once ring r has been scanned, every
+	 * candidate within that distance is closer than anything that is still
+	 * to be found.
+	 */
+	private static double getBound(Query query, int ring) {
+		return ring == query.maxRing ? Double.POSITIVE_INFINITY : ring * CELL_SIZE;
+	}
+
+	/**
+	 * Clamps the given coordinate to the range [0, size).
+	 */
+	private static int clamp(int coordinate, int size) {
+		return Math.max(0, Math.min(coordinate, size - 1));
+	}
+
+	/**
+	 * The state of a nearest neighbour query: the cell of its origin, the
+	 * last ring around it, the cells of the ring being scanned and the
+	 * candidates found so far.
+	 */
+	private static class Query {
+		private int originX;
+		private int originY;
+		private int originZ;
+		private int maxRing;
+		private int[] ring = new int[64];
+		private final CandidateHeap heap = new CandidateHeap();
+	}
+
+	/**
+	 * A binary min-heap of the candidates of a nearest neighbour query by
+	 * their distance, stored in parallel arrays. A candidate is either a
+	 * GameObject or the index of a marked cube.
+	 *
+	 * Ties between equal distances are broken in favour of the candidate
+	 * pushed first, which keeps the result of a query deterministic.
+	 */
+	private static class CandidateHeap {
+
+		boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		/**
+		 * Removes all candidates, without keeping references to them.
+		 */
+		void clear() {
+			Arrays.fill(this.objects, 0, this.size, null);
+			this.size = 0;
+			this.nbPushed = 0;
+		}
+
+		void push(double distance, GameObject object, int cube) {
+			if (this.size == this.distances.length) {
+				int capacity = 2 * this.size;
+				this.distances = Arrays.copyOf(this.distances, capacity);
+				this.orders = Arrays.copyOf(this.orders, capacity);
+				this.objects = Arrays.copyOf(this.objects, capacity);
+				this.cubes = Arrays.copyOf(this.cubes, capacity);
+			}
+			int order = this.nbPushed++;
+			int i = this.size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (!less(distance, order, this.distances[parent], this.orders[parent])) {
+					break;
+				}
+				move(parent, i);
+				i = parent;
+			}
+			this.distances[i] = distance;
+			this.orders[i] = order;
+			this.objects[i] = object;
+			this.cubes[i] = cube;
+		}
+
+		double peekDistance() {
+			return this.distances[0];
+		}
+
+		GameObject popObject() {
+			GameObject result = this.objects[0];
+			pop();
+			return result;
+		}
+
+		int popCube() {
+			int result = this.cubes[0];
+			pop();
+			return result;
+		}
+
+		/**
+		 * Removes the closest candidate.
+		 */
+		private void pop() {
+			int last = --this.size;
+			double distance = this.distances[last];
+			int order = this.orders[last];
+			GameObject object = this.objects[last];
+			int cube = this.cubes[last];
+			this.objects[last] = null;
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= last) {
+					break;
+				}
+				if (child + 1 < last && less(this.distances[child + 1], this.orders[child + 1],
+						this.distances[child], this.orders[child])) {
+					child++;
+				}
+				if (!less(this.distances[child], this.orders[child], distance, order)) {
+					break;
+				}
+				move(child, i);
+				i = child;
+			}
+			if (i < last) {
+				this.distances[i] = distance;
+				this.orders[i] = order;
+				this.objects[i] = object;
+				this.cubes[i] = cube;
+			}
+		}
+
+		private void move(int from, int to) {
+			this.distances[to] = this.distances[from];
+			this.orders[to] = this.orders[from];
+			this.objects[to] = this.objects[from];
+			this.cubes[to] = this.cubes[from];
+		}
+
+		/**
+		 * Tells whether the candidate (distance1, order1) comes before
+		 * (distance2, order2).
+		 */
+		private static boolean less(double distance1, int order1, double distance2, int order2) {
+			return distance1 < distance2 || (distance1 == distance2 && order1 < order2);
+		}
+
+		private double[] distances = new double[16];
+		private int[] orders = new int[16];
+		private GameObject[] objects = new GameObject[16];
+		private int[] cubes = new int[16];
+		private int size;
+		private int nbPushed;
+	}
+
+	/**
+	 * Gives back the index of the cell holding the cube with the given index.
+	 */
+	private int getCell(int cube) {
+		int x = cube % this.nbX;
+		int y = (cube / this.nbX) % this.nbY;
+		int z = cube / (this.nbX * this.nbY);
+		return (x >> CELL_SHIFT) + this.nbCellsX * ((y >> CELL_SHIFT) + this.nbCellsY * (z >> CELL_SHIFT));
+	}
+
+	private final int nbX;
+	private final int nbY;
+	private final int nbZ;
+	private final int nbCellsX;
+	private final int nbCellsY;
+	private final int nbCellsZ;
+
+	/**
+	 * The GameObjects in each cell, of which only the first sizes[cell] are
+	 * used. Cells that never held a GameObject have no array.
+	 */
+	private final GameObject[][] cells;
+	private final int[] sizes;
+	private int nbGameObjects;
+
+	/**
+	 * The marked cubes, and the number of marked cubes in each cell.
+	 */
+	private final BitSet marked;
+	private final int[] nbMarked;
+
+	/**
+	 * The Query for the next nearest neighbour query, or null while it is in
+	 * use.
+	 */
+	private Query idleQuery = new Query();
+}
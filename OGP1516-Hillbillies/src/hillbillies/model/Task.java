@@ -4,15 +4,17 @@ package hillbillies.model;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Immutable;
 import be.kuleuven.cs.som.annotate.Raw;
 import hillbillies.model.expressions.Convert;
 import hillbillies.model.expressions.ReadVariable;
+import hillbillies.model.programs.ExecutionFrame;
+import hillbillies.model.programs.Interpreter;
+import hillbillies.model.programs.Program;
+import hillbillies.model.programs.TaskCompiler;
 import hillbillies.model.statements.*;
 import hillbillies.model.*;
 
@@ -56,7 +58,7 @@ public class Task {
 	 * @param  activity
 	 *         The activity for this new Task.
 	 * @effect The activity of this new Task is set to
-	 *         the given activity.
+	 *         the given activity, compiled.
 	 *       | this.setActivity(activity) 
 	 * @param  position
 	 *         The Position for this new Task.
@@ -65,96 +67,150 @@ public class Task {
 	 *       | this.setPosition(position)
 	 */
 	public Task(String name, int priority, Coordinate position, Statement activity) throws IllegalArgumentException {
+		this(name, priority, position, activity, TaskCompiler.compile(activity));
+	}
+	
+	/**
+	 * Initialize this new Task with given name, priority and a given activity,
+	 * that has already been compiled into the given program.
+	 * 
+	 * @param  name
+	 *         The name for this new Task.
+	 * @param  priority
+	 *         The Priority for this new Task.
+	 * @param  position
+	 *         The Position for this new Task.
+	 * @param  activity
+	 *         The activity for this new Task.
+	 * @param  program
+	 *         The activity, compiled. Tasks with the same activity can share
+	 *         its program: each of them executes it in a frame of its own.
+	 * @pre    The given program is the given activity, compiled.
+	 *       | program is a result of TaskCompiler.compile(activity)
+	 * @effect The name, priority and position of this new Task are set as
+	 *         by Task(name, priority, position, activity), and its activity
+	 *         is set to the given activity and the given program.
+	 *       | this.setActivity(activity, program)
+	 */
+	public Task(String name, int priority, Coordinate position, Statement activity, Program program)
+			throws IllegalArgumentException {
 		if (! canHaveAsName(name))
 			throw new IllegalArgumentException();
 		this.name = name;
 		this.setPriority(priority);
 		this.setPosition(position);
-		this.setActivity(activity);
-		this.getActivity().setNext(null);
-		this.getActivity().setLinearNext(null);
-		this.setBreaksNextStatement();
-		this.current = this.getActivity();
-	}
-	
-	public void execute (int num) {
-	    while (num > 0 && this.current != null) {
-	    	try {
-				this.current.execute();
-			} catch (Exception e) {
-				this.setPriority(this.getPriority() - 1);
+		this.setActivity(activity, program);
+	}
+	
+	/**
+	 * Execute at most the given number of statements of the activity of this
+	 * Task, for the Unit of this Task.
+	 * @param num
+	 * 		The maximal number of statements to execute.
+	 * @return The number of statements executed, which is less than num if
+	 * 		the activity ended, failed or gave the Unit an action to carry
+	 * 		out before.
+	 * @effect The compiled activity is executed from where it stopped the last
+	 * 		time, until it ends, the Unit is given an action to carry out, or
+	 * 		num statements have been executed.
+	 * 		| Interpreter.execute(this.frame, this, num)
+	 * @post The statements executed are counted.
+	 * 		| new.getNbStatementsExecuted() == this.getNbStatementsExecuted() + result
+	 * @effect If the execution fails, the priority of this Task is lowered and
+	 * 		the Task is given back to its scheduler.
+	 * 		| this.setPriority(this.getPriority() - 1) &&
+	 * 		| this.getScheduler().resetTask(this)
+	 * @effect If the activity has ended and its last action has been carried
+	 * 		out, this Task is removed from all its schedulers and from its
+	 * 		Unit.
+	 * 		| if (this.taskIsDone() && ! this.isWaitingForUnit())
+	 * 		| then this.finish()
+	 */
+	public int execute (int num) {
+		try {
+			Interpreter.execute(this.frame, this, num);
+		} catch (Exception e) {
+			this.nbStatementsExecuted += this.frame.getNbExecuted();
+			this.setPriority(this.getPriority() - 1);
+			if (this.getScheduler() != null) {
 				this.getScheduler().resetTask(this);
 			}
-	    	if (this.current.shouldContinueExecution()) {
-	    		num -= 1;
-	    		try {
-					this.current = this.current.getNextStatement();
-				} catch (Exception e) {
-					this.setPriority(this.getPriority() - 1);
-					this.getScheduler().resetTask(this);
-				} 
-	    	}else {
-	    		break;
-			}
-	    }
-	    if (this.taskIsDone()) {
-    		this.setPriority(this.getPriority() - 1);
-			this.getScheduler().resetTask(this);
-    	}
+			return this.frame.getNbExecuted();
+		}
+		this.nbStatementsExecuted += this.frame.getNbExecuted();
+		// An activity ending with an action is only done once its Unit has
+		// carried out that action and executes the Task again.
+		if (this.taskIsDone() && ! this.isWaitingForUnit()) {
+			this.finish();
+		}
+		return this.frame.getNbExecuted();
+	}
+	
+	/**
+	 * Check whether the last execution of this task stopped for its Unit to
+	 * carry out an action.
+	 * @return true iff the compiled activity stopped right after an action
+	 * 		| result == this.frame.isWaiting()
+	 */
+	public boolean isWaitingForUnit () {
+		return this.frame.isWaiting();
 	}
 	
-
 	/**
 	 * Check whether this task is done
-	 * @return
+	 * @return true iff the compiled activity of this task has ended
+	 * 		| result == this.frame.isFinished()
 	 */
 	public boolean taskIsDone () {
-	    return this.current == null;
+	    return this.frame.isFinished();
 	}
 	
-
 	/**
-	 * The statement to execute first
+	 * Remove this finished Task from all its schedulers and from its Unit.
+	 * @post This Task no longer has any schedulers
+	 * 		| new.getNbSchedulers() == 0
+	 * @effect If this Task has a Unit, it is removed
+	 * 		| if (this.hasUnit()) then this.removeUnit()
 	 */
-	private Statement current;
-	
-	/* Variables */
+	private void finish() {
+		for (Scheduler scheduler : new ArrayList<Scheduler>(this.schedulers)) {
+			scheduler.removeTask(this);
+		}
+		if (this.hasUnit()) {
+			this.removeUnit();
+		}
+	}
 	
 	/**
-	 * return the value of a given variable name
-	 * @param name
-	 * 		| The name of the variable
-	 * @return the value of name
-	 * 		| result == this.variables.get(name)
-	 * @throws VarriableNotAssigntException 
-	 * 		| if the given name is not found as a key in variables
-	 * 		| ! this.variables.containsKey(name)
+	 * Where the execution of the compiled activity of this Task is.
 	 */
-	public Object getValue(String name) throws VariableNotAssignedException {
-		if (! this.variables.containsKey(name)){
-			throw new VariableNotAssignedException();
-		}else{
-			return this.variables.get(name);
-		}
-	} 
+	private ExecutionFrame frame;
 	
 	/**
-	 * Add a give name and value of a variable to the map
-	 * @param variable
-	 * 		| The name of the variable to add
-	 * @param value
-	 * 		| the value of the variable to add
-	 * @post the tuple (variable, object) is now part of the map of variables
-	 * 		| this.varibles.get(variable) == value
+	 * Return the number of statements of this Task executed so far, over all
+	 * its executions.
 	 */
-	public void addVariable(String variable, Object value){
-		this.variables.put(variable, value);
+	@Basic
+	public long getNbStatementsExecuted() {
+		return this.nbStatementsExecuted;
 	}
 	
+	private long nbStatementsExecuted;
+	
+	/* Variables */
+	
 	/**
-	 * Map with the name (String) of a variable as key and its value (Object) as Value
+	 * Return the value of the variable of the activity of this Task with the
+	 * given name.
+	 * @param name
+	 * 		The name of the variable.
+	 * @throws VariableNotAssignedException
+	 * 		The activity has no variable with the given name, or it has not
+	 * 		been assigned yet.
 	 */
-	private Map<String, Object> variables;
+	public Object getValue(String name) throws VariableNotAssignedException {
+		return this.frame.getValue(name);
+	}
 
 	/**
 	 * Return the activity of this Task.
@@ -171,10 +227,10 @@ public class Task {
 	 * @param  activity
 	 *         The activity to check.
 	 * @return 
-	 *       | result == true
+	 *       | result == (activity != null)
 	*/
 	public static boolean isValidActivity(Statement activity) {
-		return true;
+		return activity != null;
 	}
 	
 	/**
@@ -185,9 +241,12 @@ public class Task {
 	 * @post   The activity of this new Task is equal to
 	 *         the given activity.
 	 *       | new.getActivity() == activity
+	 * @effect The execution of this Task starts over with the given
+	 *         activity, compiled.
+	 *       | this.setActivity(activity, TaskCompiler.compile(activity))
 	 * @throws IllegalArgumentException
 	 *         The given activity is not a valid activity for any
-	 *         Task.
+	 *         Task, or cannot be compiled.
 	 *       | ! isValidActivity(getActivity())
 	 */
 	@Raw
@@ -195,6 +254,34 @@ public class Task {
 			throws IllegalArgumentException {
 		if (! isValidActivity(activity))
 			throw new IllegalArgumentException();
+		this.setActivity(activity, TaskCompiler.compile(activity));
+	}
+	
+	/**
+	 * Set the activity of this Task to the given activity, compiled into the
+	 * given program.
+	 * 
+	 * @param  activity
+	 *         The new activity for this Task.
+	 * @param  program
+	 *         The given activity, compiled.
+	 * @post   The activity of this new Task is equal to
+	 *         the given activity.
+	 *       | new.getActivity() == activity
+	 * @post   The execution of this Task starts over at the start of the
+	 *         given program.
+	 *       | new.frame.getProgram() == program && ! new.taskIsDone()
+	 * @throws IllegalArgumentException
+	 *         The given activity is not a valid activity for any
+	 *         Task, or the given program is null.
+	 *       | ! isValidActivity(getActivity()) || program == null
+	 */
+	@Raw
+	private void setActivity(Statement activity, Program program) 
+			throws IllegalArgumentException {
+		if (! isValidActivity(activity))
+			throw new IllegalArgumentException();
+		this.frame = new ExecutionFrame(program);
 		this.activity = activity;
 	}
 	
@@ -234,6 +321,10 @@ public class Task {
 	 * @post   The Priority of this new Task is equal to
 	 *         the given Priority.
 	 *       | new.getPriority() == priority
+	 * @effect All schedulers of this Task restore the order of their
+	 *         unscheduled tasks.
+	 *       | for each scheduler in getScheulers():
+	 *       |   scheduler.updatePriority(this)
 	 * @throws IllegalArgumentException
 	 *         The given Priority is not a valid Priority for any
 	 *         Task.
@@ -245,6 +336,9 @@ public class Task {
 		if (! isValidPriority(priority))
 			throw new IllegalArgumentException();
 		this.priority = priority;
+		for (Scheduler scheduler : this.schedulers) {
+			scheduler.updatePriority(this);
+		}
 	}
 	
 	/**
@@ -323,6 +417,9 @@ public class Task {
 	 * @effect if the given unit is not null the new task of the give unit is 
 	 * 			set to this task
 	 * 		| if ( unit != null) then unit.setTask(this)
+	 * @effect if the given unit is not null the execution of this task starts
+	 * 			over
+	 * 		| if ( unit != null) then this.frame.reset()
 	 * @throws IllegalArgumentException
 	 *         The given unit is not a valid unit for any
 	 *         Task.
@@ -335,6 +432,7 @@ public class Task {
 			throw new IllegalArgumentException();
 		this.unit = unit;
 		if (unit != null){ 
+			this.frame.reset();
 			unit.setTask(this);
 		}	
 	}
@@ -675,41 +773,6 @@ public class Task {
 		return true;
 	}
 	
-	/**
-	 * Sets the next field of all Break Statements in this Task. When a Break
-	 * is not inside a while loop, it is not altered, and no sign of 
-	 * unwell-formedness is given, although obvious.
-	 * @pre
-	 * 		All Statements in this Task should have had their next and their
-	 * 		linearNext set already (although not perfectly yet as for Breaks).
-	 * 		| this.getStatement().setNext() has been called
-	 * 		| this.getStatement().setLinearNext() has been called
-	 * @post
-	 * 		All Break Statements in this Task that are located within a While
-	 * 		loop will have their next field set to their directly enclosing
-	 * 		While loop.
-	 * 		| foreach (Statement break in allStatementsInThisTask) {
-	 * 		|     if (break instanceof Break && breakHasDirectlyEnclosingWhileLoop) {
-	 * 		|         break.getNextStatement() == break.getNext() == breaksDirectlyEnclosingWhileLoop
-	 * 		|     }
-	 * 		| }
-	 */
-	private void setBreaksNextStatement () {
-		Stack<Statement> stack = new Stack<Statement>();
-		Statement current = this.getActivity();
-		do {
-			if (current instanceof While) {
-				stack.push(current);
-			} else if (current instanceof Break) {
-				current.setNext(stack.isEmpty()?null:stack.peek());
-			}
-			if (!stack.isEmpty() && current.getLinearNext() == stack.peek().getNext()) {
-				stack.pop();
-			}
-			current = current.getLinearNext();
-		} while (current != null);
-	}
-	
 	/* Well-typedness */
 	
 	private boolean isWellTyped () {
@@ -4,12 +4,15 @@ import java.util.*;
 import ogp.framework.util.*;
 
 import java.lang.Math;
+import java.util.concurrent.atomic.AtomicLong;
 
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Immutable;
 import be.kuleuven.cs.som.annotate.Raw;
 import hillbillies.model.BadFSMStateException;
 import hillbillies.model.World.TerrainType;
+import hillbillies.model.pathing.Path;
+import hillbillies.model.pathing.PathFinder;
 
 /**
  * 
@@ -230,8 +233,28 @@ public class Unit extends GameObject{
 		this.setWorld(world);
 		this.setState(State.NOTHING);
 		this.setFaction(this.getWorld().getSmallestFaction());
+		this.setDefaultBehaviorEnabled(enableDefaultBehavior);
 	}
 	
+	/**
+	 * Gives back the identifier of this Unit. Units created later have
+	 * larger identifiers.
+	 */
+	@Basic @Immutable
+	public long getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Variable registering the identifier of this Unit.
+	 */
+	private final long id = nextId.getAndIncrement();
+	
+	/**
+	 * The identifier the next Unit created will get.
+	 */
+	private static final AtomicLong nextId = new AtomicLong();
+	
 	public String getRandomValidName(){
 		return "Willie W"; //TODO
 	}
@@ -360,8 +383,10 @@ public class Unit extends GameObject{
 	 * Advances the time for the Unit by the given time. This includes basically all the Unit's behavior,
 	 * except for defending against an attack, which is instantaneous and outside of the finite state
 	 * machine model, which is used for the Unit's behavior. As said, Unit
-	 * implements an FSM. Every tick advanceTime checks which state Unit is in,
-	 * and the appropriate method is executed.
+	 * implements an FSM. Every tick advanceTime first does what all states
+	 * have in common: a Unit without HP dies, and a Unit that is not falling
+	 * but has lost its support starts falling. Otherwise, the behavior of the
+	 * state the Unit is in is executed.
 	 * @param dt
 	 * 		The time that has passed since the last tick.
 	 */
@@ -372,22 +397,16 @@ public class Unit extends GameObject{
 				throw new IllegalArgumentException("dt went over its maximum of " + getMaxDT() + ": dt = " + dt);
 			}
 			State state = this.getState();
-			if(state == State.NOTHING){
-				doBehaviorNothing(dt);
-			}else if(state == State.MOVING){
-				doBehaviorMoving(dt);
-			}else if(state == State.RESTING_INIT){
-				doBehaviorRestingInit(dt);
-			}else if(state == State.RESTING_HP){
-				doBehaviorRestingHP(dt);
-			}else if(state == State.RESTING_STAMINA){
-				doBehaviorRestingStamina(dt);
-			}else if(state == State.WORKING){
-				doBehaviorWorking(dt);
-			}else if(state == State.ATTACKING){
-				doBehaviorAttacking(dt);
-			}else if (state == State.FALLING) {
-				doBehaviorFalling(dt);
+			if (this.getHP() == getMinHP()) {
+				this.terminate();
+			} else if (state != State.FALLING && !this.aroundSolid()) {
+				if (state == State.MOVING) {
+					this.UltimateTarget = null;
+					this.setPath(null);
+				}
+				this.transitionToFalling();
+			} else {
+				stateBehaviors.get(state).advance(this, dt);
 			}
 
 			if(this.getDefaultBehaviorRestingCountdown() <= 0){
@@ -398,6 +417,38 @@ public class Unit extends GameObject{
 		}
 	}
 	
+	/**
+	 * The behavior of a Unit in one state of its FSM, apart from what
+	 * advanceTime does for all states.
+	 */
+	private interface StateBehavior {
+		
+		/**
+		 * Advances the given Unit, which is in the state of this
+		 * StateBehavior, alive and, unless falling, supported.
+		 * @param unit
+		 * 		The Unit to advance.
+		 * @param dt
+		 * 		The time that has passed since the last tick.
+		 */
+		void advance(Unit unit, double dt);
+	}
+	
+	/**
+	 * The behavior of each state of the FSM of Units.
+	 */
+	private static final EnumMap<State, StateBehavior> stateBehaviors = new EnumMap<State, StateBehavior>(State.class);
+	static {
+		stateBehaviors.put(State.NOTHING, Unit::doBehaviorNothing);
+		stateBehaviors.put(State.MOVING, Unit::doBehaviorMoving);
+		stateBehaviors.put(State.RESTING_INIT, Unit::doBehaviorRestingInit);
+		stateBehaviors.put(State.RESTING_HP, Unit::doBehaviorRestingHP);
+		stateBehaviors.put(State.RESTING_STAMINA, Unit::doBehaviorRestingStamina);
+		stateBehaviors.put(State.WORKING, Unit::doBehaviorWorking);
+		stateBehaviors.put(State.ATTACKING, Unit::doBehaviorAttacking);
+		stateBehaviors.put(State.FALLING, Unit::doBehaviorFalling);
+	}
+	
 	/**
 	 * Determines the magnitude of the velocity ("speed" in English I think)
 	 * @return
@@ -479,6 +530,7 @@ public class Unit extends GameObject{
 				throw new IllegalArgumentException("One of the coordinates is out of bounds.");
 			}
 			immediateTarget = destination.toPosition();
+			this.wakeUp();
 		}
 	}
 	
@@ -511,53 +563,287 @@ public class Unit extends GameObject{
 		if(!this.getWorld().withinBounds(destination)){
 			throw new IllegalArgumentException("destination out of bounds.");
 		}
-		Queue<PathTuple> Path = new LinkedList<PathTuple>();
-		Path = calculatePath(destination);
-		if (PathTuple.Contains(this.getPosition().toCoordinate(), Path)){
-			Coordinate immediateTarget = PathTuple.getSmallestAdjacentWeight(this.getPosition().toCoordinate(), Path, this.getWorld());
-			this.immediateTarget = immediateTarget.toPosition();
+		// Only search a path when there is one, instead of flooding the whole
+		// region around this Unit to find out there is none.
+		if (!this.isReachable(destination)){
+			return;
+		}
+		int[] cubes = this.findPath(this.getPosition().toCoordinate(), destination);
+		if (cubes != null && cubes.length > 0){
+			this.setPath(new Path(this.getWorld(), cubes));
+			this.immediateTarget = this.path.next().toPosition();
 			this.UltimateTarget = destination;
+			this.wakeUp();
 		}
 	}
 	
 	/**
-	 * Method is part of moveTo
-	 * @param destination
+	 * Computes a path from the given start cube to the given destination,
+	 * using the path prepared by prepareAdvanceTime if it was prepared for
+	 * the same cubes and the terrain has not changed since.
+	 * @return
+	 * 		| result == this.getWorld().getPathFinder().findPath(start, destination)
+	 */
+	private int[] findPath(Coordinate start, Coordinate destination) {
+		World world = this.getWorld();
+		int startIndex = world.getIndex(start.getX(), start.getY(), start.getZ());
+		int destinationIndex = world.getIndex(destination.getX(), destination.getY(), destination.getZ());
+		boolean prepared = this.hasPreparedPath && this.preparedStart == startIndex &&
+				this.preparedDestination == destinationIndex &&
+				this.preparedTerrainVersion == world.getTerrainVersion();
+		this.hasPreparedPath = false;
+		if (prepared) {
+			return this.preparedPath;
+		}
+		return world.getPathFinder().findPath(startIndex, destinationIndex);
+	}
+	
+	/**
+	 * Tells whether prepareAdvanceTime has a path to search for this Unit.
+	 */
+	boolean needsPreparation() {
+		return this.getPreparationStart() >= 0;
+	}
+	
+	/**
+	 * Does the part of the next advanceTime of this Unit that only reads the
+	 * World: if this Unit will have to search a new path, either to set off
+	 * towards its ultimate target or once it reaches its immediate target,
+	 * search it now with the given PathFinder. The World calls this for many
+	 * Units at once on different threads, each with its own PathFinder,
+	 * while nothing changes the World.
+	 * @param pathFinder
+	 * 		The PathFinder to search with.
+	 * @post
+	 * 		The result of advanceTime is the same as without calling this.
+	 */
+	void prepareAdvanceTime(PathFinder pathFinder) {
+		int start = this.getPreparationStart();
+		if (start < 0) {
+			return;
+		}
+		World world = this.getWorld();
+		this.preparedPath = pathFinder.findPath(start, this.getUltimateTargetIndex());
+		this.preparedStart = start;
+		this.preparedDestination = this.getUltimateTargetIndex();
+		this.preparedTerrainVersion = world.getTerrainVersion();
+		this.hasPreparedPath = true;
+	}
+	
+	/**
+	 * Gives back the index of the cube from which this Unit will search its
+	 * next path, or -1 if it will not search one or has already prepared it.
+	 */
+	private int getPreparationStart() {
+		if (this.UltimateTarget == null) {
+			return -1;
+		}
+		Position from;
+		if (this.getState() == State.MOVING && !this.canFollowPath()) {
+			from = this.immediateTarget != null ? this.immediateTarget : this.getPosition();
+		} else if (this.getState() == State.NOTHING && this.immediateTarget == null) {
+			// Setting off towards the ultimate target, see doBehaviorNothing.
+			from = this.getPosition();
+		} else {
+			return -1;
+		}
+		World world = this.getWorld();
+		if (!world.withinBounds(from)) {
+			return -1;
+		}
+		int start = world.getIndex((int) from.getX(), (int) from.getY(), (int) from.getZ());
+		if (this.hasPreparedPath && this.preparedStart == start &&
+				this.preparedDestination == this.getUltimateTargetIndex() &&
+				this.preparedTerrainVersion == world.getTerrainVersion()) {
+			return -1;
+		}
+		return start;
+	}
+	
+	/**
+	 * Gives back the index of the cube of the ultimate target of this Unit.
+	 */
+	private int getUltimateTargetIndex() {
+		return this.getWorld().getIndex(this.UltimateTarget.getX(), this.UltimateTarget.getY(),
+				this.UltimateTarget.getZ());
+	}
+	
+	/**
+	 * The path prepared by prepareAdvanceTime, the cubes it was searched
+	 * between, and the terrain version of the World it was searched in.
+	 */
+	private boolean hasPreparedPath;
+	private int[] preparedPath;
+	private int preparedStart;
+	private int preparedDestination;
+	private long preparedTerrainVersion;
+	
+	/**
+	 * Tells whether this Unit can take the next step towards its ultimate
+	 * target from the path it computed before, without searching again.
 	 * @return
+	 * 		| result == (path != null && path.isValid() && path.hasNext())
 	 */
-	private Queue<PathTuple> calculatePath(Coordinate destination){
-		Queue<PathTuple> Path = new LinkedList<PathTuple>();
-		while(! this.getPosition().toCoordinate().equals(destination)){
-			Path.add(new PathTuple(destination, 0));
-			while(! PathTuple.Contains(this.getPosition().toCoordinate(), Path) && PathTuple.hasNext(Path)){
-				PathTuple next = PathTuple.getNext(Path);
-				search(next, Path);
-				next.hasBeenChecked = true;
+	private boolean canFollowPath() {
+		return this.path != null && this.path.isValid() && this.path.hasNext();
+	}
+	
+	/**
+	 * Gives back how long this Unit can go without advancing: the time until
+	 * the first of its countdowns runs out, if all this Unit does until then
+	 * is counting down. The World does not advance this Unit during that
+	 * time, unless something wakes it up before.
+	 * @return
+	 * 		Zero if this Unit has to advance during the next tick, for instance
+	 * 		because it is moving, falling or about to change its state.
+	 * 		| if (getState() == State.MOVING || getState() == State.FALLING
+	 * 		|		|| !aroundSolid() || getHP() == getMinHP()) then
+	 * 		|	result == 0
+	 */
+	double getSleepTime() {
+		if (this.isTerminated() || this.getWorld() == null ||
+				this.getHP() == getMinHP() || this.getDefaultBehaviorRestingCountdown() <= 0) {
+			return 0;
+		}
+		double countdown;
+		switch (this.getState()) {
+		case NOTHING:
+			if (this.immediateTarget != null || this.hasUltimateTarget() || this.shouldRest ||
+					this.shouldWork || this.shouldAttack || this.getDefaultBehaviorEnabled()) {
+				return 0;
+			}
+			countdown = Double.POSITIVE_INFINITY;
+			break;
+		case RESTING_INIT:
+			countdown = this.restingInitialCountdown;
+			break;
+		case RESTING_HP:
+			if (this.shouldWork || this.shouldAttack || this.getHP() == this.getMaxHP()) {
+				return 0;
 			}
+			countdown = this.restingHPCountdown;
 			break;
+		case RESTING_STAMINA:
+			if (this.shouldWork || this.shouldAttack || this.getHP() != this.getMaxHP() ||
+					this.getStamina() == this.getMaxStamina()) {
+				return 0;
+			}
+			countdown = this.restingStaminaCountdown;
+			break;
+		case WORKING:
+			if (this.shouldRest || this.shouldAttack) {
+				return 0;
+			}
+			countdown = this.workingCountdown;
+			break;
+		case ATTACKING:
+			countdown = this.attackingCountdown;
+			break;
+		default:
+			return 0;
 		}
-		return Path;
+		if (countdown <= 0 || !this.aroundSolid()) {
+			return 0;
+		}
+		return Math.min(countdown, this.getDefaultBehaviorRestingCountdown());
 	}
 	
 	/**
-	 * The search function as defined in the pdf
-	 * @param next
-	 * @param Path
-	 * @effect Every neighboring cube of next that is pasable and aroundSolid
-	 * 		is added as w PathTuple in Path weight one higher then the weight 
-	 * 		of next. 
+	 * Tells whether the World of this Unit has put it to sleep.
 	 */
-	private void search(PathTuple next, Queue<PathTuple> Path) {
-		List<Coordinate> neighbors = new LinkedList<Coordinate>();
-		for (Coordinate neighbor: this.getWorld().getNeighbors(next.getCube())){
-			if(! (PathTuple.Contains(neighbor, Path) && PathTuple.getPathTuple(neighbor, Path).getWeight() <= next.getWeight())){
-				neighbors.add(neighbor);
-			}
+	boolean isAsleep() {
+		return !Double.isNaN(this.sleepingSince);
+	}
+	
+	/**
+	 * Registers that the World of this Unit puts it to sleep at the given
+	 * simulation time.
+	 * @return
+	 * 		A number that is different for every time this Unit falls asleep.
+	 */
+	long fallAsleep(double time) {
+		this.sleepingSince = time;
+		return ++this.nbSleeps;
+	}
+	
+	/**
+	 * Gives back the number fallAsleep returned when this Unit last fell
+	 * asleep.
+	 */
+	long getNbSleeps() {
+		return this.nbSleeps;
+	}
+	
+	/**
+	 * Wakes this Unit up at the given simulation time, counting down all its
+	 * countdowns by the time it slept, as advancing would have done.
+	 * @post
+	 * 		| !new.isAsleep()
+	 */
+	void awaken(double time) {
+		double elapsed = time - this.sleepingSince;
+		this.sleepingSince = Double.NaN;
+		switch (this.getState()) {
+		case RESTING_INIT:
+			this.restingInitialCountdown -= elapsed;
+			break;
+		case RESTING_HP:
+			this.restingHPCountdown -= elapsed;
+			break;
+		case RESTING_STAMINA:
+			this.restingStaminaCountdown -= elapsed;
+			break;
+		case WORKING:
+			this.workingCountdown -= elapsed;
+			break;
+		case ATTACKING:
+			this.attackingCountdown -= elapsed;
+			break;
+		default:
+			break;
 		}
-		for (Coordinate neighbor: neighbors){
-			if (this.getWorld().isPassableCube(neighbor) && this.getWorld().isAroundSolid(neighbor)){
-				Path.add(new PathTuple(neighbor, next.getWeight() + 1));
-			}
+		this.setDefaultBehaviorRestingCountdown(this.getDefaultBehaviorRestingCountdown() - elapsed);
+	}
+	
+	/**
+	 * Asks the World of this Unit to wake it up, because something happened
+	 * that it has to react to during the next tick.
+	 */
+	private void wakeUp() {
+		if (this.isAsleep() && this.getWorld() != null) {
+			this.getWorld().wakeUp(this);
+		}
+	}
+	
+	/**
+	 * The simulation time at which this Unit fell asleep, or NaN if it is
+	 * awake, and the number of times it fell asleep.
+	 */
+	private double sleepingSince = Double.NaN;
+	private long nbSleeps;
+	
+	/**
+	 * Replaces the path this Unit follows by the given one, and keeps the
+	 * PathIndex of its World up to date, so that terrain changes touching
+	 * the part of the path still ahead invalidate it and the next step
+	 * searches a new one.
+	 * @param path
+	 * 		The new path, or null.
+	 * @post
+	 * 		| new.path == path
+	 * @effect
+	 * 		| if (getWorld() != null) then
+	 * 		|	getWorld().getPathIndex().remove(this.path) &&
+	 * 		|	if (path != null) then getWorld().getPathIndex().add(path)
+	 */
+	private void setPath(Path path) {
+		World world = this.getWorld();
+		if (world != null && this.path != null) {
+			world.getPathIndex().remove(this.path);
+		}
+		this.path = path;
+		if (world != null && path != null) {
+			world.getPathIndex().add(path);
 		}
 	}
 
@@ -566,14 +852,14 @@ public class Unit extends GameObject{
 	 * @param destination
 	 * 		| the cube to check
 	 * @return true iff the cube is reachable for this unit 
+	 * 		| result == this.getWorld().getReachabilityIndex().isReachable(
+	 * 		|		this.getPosition().toCoordinate(), destination)
 	 */
 	public boolean isReachable(Coordinate destination){
 		if(!this.getWorld().withinBounds(destination)){
 			return false;
 		}
-		Queue<PathTuple> Path = new LinkedList<PathTuple>();
-		Path = calculatePath(destination);
-		return PathTuple.Contains(this.getPosition().toCoordinate(), Path);
+		return this.getWorld().getReachabilityIndex().isReachable(this.getPosition().toCoordinate(), destination);
 	}
 	
 	/* Sprinting */
@@ -696,6 +982,7 @@ public class Unit extends GameObject{
 			this.pointAt(victim);
 			this.shouldAttack = true;
 			this.setVictim(victim);
+			this.wakeUp();
 		}
 	}
 	
@@ -738,6 +1025,7 @@ public class Unit extends GameObject{
 		}
 		
 		this.transitionToNothing();
+		this.wakeUp();
 	}
 	
 	/**
@@ -756,17 +1044,8 @@ public class Unit extends GameObject{
 	 * 		A HashSet of all Units in range of another Faction.
 	 */
 	private Set<Unit> getEnemiesInRange() {
-		Set<Unit> enemies = new HashSet<Unit>();
 		Coordinate coordinate = this.getWorld().cubeCoordinates(this.getPosition()); 
-		for (Coordinate neighbor : this.getWorld().getNeighbors(coordinate)) {
-			Set<GameObject> gameObjects = this.getWorld().listGameObjectsInCube(neighbor);
-			for (GameObject gameObject : gameObjects) {
-				if (gameObject instanceof Unit) {
-					enemies.add((Unit) gameObject);
-				}
-			}
-		}
-		return enemies;
+		return this.getWorld().listUnitsAround(coordinate);
 	}
 	
 	
@@ -784,6 +1063,7 @@ public class Unit extends GameObject{
 			throw new BadFSMStateException("Can not go to resting from this state");
 		}else{
 			this.shouldRest = true;
+			this.wakeUp();
 		}
 	}
 	
@@ -819,6 +1099,7 @@ public class Unit extends GameObject{
 		else{
 			this.workCube = workCube;
 			this.shouldWork = true;
+			this.wakeUp();
 		}
 	}
 	
@@ -837,6 +1118,18 @@ public class Unit extends GameObject{
 		return this.getState() == State.WORKING;
 	}
 
+	/**
+	 * Check whether this unit can be given the next action of its task. A
+	 * unit that is about to rest, work or attack cannot, since that order
+	 * would replace the action or be replaced by it.
+	 * @return true iff this unit has a task and no order pending
+	 * 		| result == this.hasTask() && !this.shouldRest && !this.shouldWork
+	 * 		|	&& !this.shouldAttack
+	 */
+	boolean canExecuteTask(){
+		return this.hasTask() && !this.shouldRest && !this.shouldWork && !this.shouldAttack;
+	}
+
 	/**
 	 * check whether this unit has a task
 	 * @return true if and only if the task of this unit is not null
@@ -862,10 +1155,10 @@ public class Unit extends GameObject{
 	 *         The Task to check.
 	 * @return true iff the given task has this unit as its unit or if the given
 	 * 		 task is null 
-	 *       | result == (task.getUnit() == this) || task == null
+	 *       | result == (task == null) || (task.getUnit() == this)
 	*/
 	public boolean cabHaveAsTask(Task task) {
-		return task.getUnit() == this || task == null;
+		return task == null || task.getUnit() == this;
 	}
 	
 	/**
@@ -1068,6 +1361,7 @@ public class Unit extends GameObject{
 		else{
 			this.weight = getMaxWeight();
 		}
+		this.wakeUp();
 	}
 
 	
@@ -1224,6 +1518,7 @@ public class Unit extends GameObject{
 		else{
 			this.toughness = getMaxToughness();
 		}
+		this.wakeUp();
 	}
 	
 	/**
@@ -1426,6 +1721,7 @@ public class Unit extends GameObject{
 	public void setHP(int HP){
 		assert isValidHP(HP);
 		this.HP = HP;
+		this.wakeUp();
 	}
 	
 	
@@ -1483,6 +1779,7 @@ public class Unit extends GameObject{
 	public void setStamina(int stamina){
 		assert isValidStamina( stamina );
 		this.stamina = stamina;
+		this.wakeUp();
 	}
 	
 	
@@ -1579,6 +1876,8 @@ public class Unit extends GameObject{
 			throw new IllegalArgumentException("Given World is invalid: " + world.toString());
 		}
 		World oldWorld = this.getWorld();
+		// A path only leads through the old World
+		this.setPath(null);
 		// Remove reference to old World ... 
 		this.world = null;
 		// ... so that it will accept the disconnection
@@ -1913,7 +2212,7 @@ public class Unit extends GameObject{
 	 *       this.getPosition().toCoordinate().isAdjacentTo(immediateTarget.toCoordinate());
 	 */
 	public boolean canHaveAsTarget(Position immediateTarget) {
-		return this.canHaveAsPosition( immediateTarget ) && this.getPosition().toCoordinate().isAdjacentTo(immediateTarget.toCoordinate());
+		return this.canHaveAsPosition( immediateTarget ) && this.getPosition().isInCubeAdjacentTo(immediateTarget);
 	}
 
 	/**
@@ -1963,6 +2262,7 @@ public class Unit extends GameObject{
 			throw new IllegalArgumentException("Invalid defaultBehaviorEnabled given: " + defaultBehaviorEnabled);
 		}
 		this.defaultBehaviorEnabled = defaultBehaviorEnabled;
+		this.wakeUp();
 	}
 
 	/**
@@ -2193,9 +2493,10 @@ public class Unit extends GameObject{
 	 *	|		|| VectorUtils.between(immediateTarget.getZ(), previousPosition.getZ(), this.getPosition().getZ())
 	 */
 	private boolean reachedImmediateTarget() {
-		return (Utils.between(immediateTarget.getX(), previousPosition.getX(), this.getPosition().getX())
-				|| Utils.between(immediateTarget.getY(), previousPosition.getY(), this.getPosition().getY())
-				|| Utils.between(immediateTarget.getZ(), previousPosition.getZ(), this.getPosition().getZ()));
+		Position position = this.getPosition();
+		return (Utils.between(immediateTarget.getX(), previousPosition.getX(), position.getX())
+				|| Utils.between(immediateTarget.getY(), previousPosition.getY(), position.getY())
+				|| Utils.between(immediateTarget.getZ(), previousPosition.getZ(), position.getZ()));
 	}
 	
 	/**
@@ -2206,7 +2507,7 @@ public class Unit extends GameObject{
 	 * 			| result == this.getPosition().toCoordinate().isAdjacentTo(victim.getPosition().toCoordinate())
 	 */
 	private boolean inRangeForAttack(Unit victim){
-		return this.getPosition().toCoordinate().isAdjacentTo(victim.getPosition().toCoordinate());
+		return this.getPosition().isInCubeAdjacentTo(victim.getPosition());
 	}
 	
 	/**
@@ -2345,11 +2646,7 @@ public class Unit extends GameObject{
 	 * 		The passed time since last update.
 	 */
 	private void doBehaviorNothing(double dt) {
-		if (this.getHP() == getMinHP()) {
-			this.terminate();
-		} else if (!this.aroundSolid()) {
-			this.transitionToFalling();
-		}else if(immediateTarget != null){
+		if(immediateTarget != null){
 			this.setState(State.MOVING);
 			this.setFlagsLow();
 		}else if(this.hasUltimateTarget()){
@@ -2358,8 +2655,13 @@ public class Unit extends GameObject{
 			} catch (BadFSMStateException e) {
 				// There is nothing to be done.
 			}
-			this.setState(State.MOVING);
-			this.setFlagsLow();
+			if (this.immediateTarget != null) {
+				this.setState(State.MOVING);
+				this.setFlagsLow();
+			} else {
+				// There is no path (any more), or the Unit is already there.
+				this.UltimateTarget = null;
+			}
 			}else if(this.shouldRest){
 				this.transitionToRestingInit();
 			}else if(this.shouldWork){
@@ -2368,16 +2670,22 @@ public class Unit extends GameObject{
 				this.transitionToAttacking();
 			}else if(this.getDefaultBehaviorEnabled()){
 				if (this.hasTask()){
-					this.getTask().execute((int) dt / 1000);
+					this.getWorld().requestTaskExecution(this);
 				}else if(! this.hasTask() && (this.getFaction().getScheduler().getNbTasks() > 0)){
 					this.getFaction().getScheduler().setTaskToBeScheduled(this);
-					this.getTask().execute((int)dt / 1000);
+					if (this.hasTask()) {
+						this.getWorld().requestTaskExecution(this);
+					}
 				}else{
 				int result = Utils.randomInt(0, 4);
 				if(result == 0){
-					try {
-						this.moveTo(this.getWorld().getRandomCoordinate());
-					} catch (BadFSMStateException e) {}
+					// Only pick the destination now. The path to it is
+					// searched in the next tick, which the World starts by
+					// searching the paths of all Units at once.
+					Coordinate destination = this.getWorld().getRandomCoordinate();
+					if (this.isReachable(destination)) {
+						this.UltimateTarget = destination;
+					}
 				}
 				}
 			}
@@ -2389,12 +2697,7 @@ public class Unit extends GameObject{
 	 * 		The passed time since last update.
 	 */
 	private void doBehaviorMoving(double dt) {
-		if (this.getHP() == Unit.getMinHP()) {
-			this.terminate();
-		} else if (!this.aroundSolid()) {
-			this.UltimateTarget = null;
-			this.transitionToFalling();
-		} else if(reachedImmediateTarget()){
+		if(reachedImmediateTarget()){
 			if(this.hasUltimateTarget()){
 				try{
 					this.setPosition(immediateTarget);
@@ -2403,14 +2706,19 @@ public class Unit extends GameObject{
 					
 				}
 				if (!this.getPosition().toCoordinate().equals(this.getUltimateTarget())) {
-					try {
-						this.moveTo(this.getUltimateTarget());
-					} catch (IllegalArgumentException | BadFSMStateException e) {
+					if (this.canFollowPath()) {
+						this.immediateTarget = this.path.next().toPosition();
+					} else {
+						try {
+							this.moveTo(this.getUltimateTarget());
+						} catch (IllegalArgumentException | BadFSMStateException e) {
 
+						}
 					}
 				} else {
 					this.immediateTarget = null;
 					this.UltimateTarget = null;
+					this.setPath(null);
 					this.transitionToNothing();
 				}
 			}else{
@@ -2420,7 +2728,7 @@ public class Unit extends GameObject{
 				this.increaseXP(1);
 				immediateTarget = null;
 				if(this.hasTask()){
-					this.getTask().execute((int) dt / 1000);
+					this.getWorld().requestTaskExecution(this);
 				}else{
 					this.transitionToNothing();
 				}
@@ -2434,15 +2742,17 @@ public class Unit extends GameObject{
 			
 			double velocity = this.determineVelocity();
 			Position position = this.getPosition();
-			VectorD deltaPosition = Position.subtract(immediateTarget, position);
-			deltaPosition = Position.multiply(Position.normalize(deltaPosition), velocity * dt);
+			MutableVectorD deltaPosition = this.deltaPosition.setToDifference(immediateTarget, position);
+			deltaPosition.scaleTo(velocity * dt);
 			
 			this.setOrientation(Math.atan2(deltaPosition.getY(), deltaPosition.getX()));
 			
+			Position newPosition = deltaPosition.addTo(position);
 			try{
-				this.setPosition(Position.add(position, deltaPosition));
+				this.setPosition(newPosition);
 			}catch(IllegalArgumentException e){
-				this.position = Position.add(position, deltaPosition);
+				this.position = newPosition;
+				this.getWorld().updateCubeOf(this);
 			}
 			
 			if(this.sprinting){
@@ -2492,11 +2802,7 @@ public class Unit extends GameObject{
 	 * 		The passed time 
 	 */
 	private void doBehaviorRestingInit(double dt) {
-		if (this.getHP() == getMinHP()) {
-			this.terminate();
-		} else if (!this.aroundSolid()) {
-			this.transitionToFalling();
-		} else if (this.restingInitialCountdown > 0){
+		if (this.restingInitialCountdown > 0){
 			this.restingInitialCountdown -= dt;
 		}else{
 			this.transitionToRestingHP();
@@ -2510,11 +2816,7 @@ public class Unit extends GameObject{
 	 * 		The passed time 
 	 */
 	private void doBehaviorRestingHP(double dt) {
-		if (this.getHP() == getMinHP()) {
-			this.terminate();
-		} else if (!this.aroundSolid()) {
-			this.transitionToFalling();
-		} else if (this.shouldWork){
+		if (this.shouldWork){
 			this.transitionToWorking( );
 		}else if (this.shouldAttack){
 			this.transitionToAttacking();
@@ -2536,11 +2838,7 @@ public class Unit extends GameObject{
 	 * 		The passed time 
 	 */
 	private void doBehaviorRestingStamina(double dt) {
-		if (this.getHP() == getMinHP()) {
-			this.terminate();
-		} else if (!this.aroundSolid()) {
-			this.transitionToFalling();
-		} else if (this.shouldWork){
+		if (this.shouldWork){
 			this.transitionToWorking();
 		}else if (this.shouldAttack){
 			this.transitionToAttacking();
@@ -2563,11 +2861,7 @@ public class Unit extends GameObject{
 	 * 		The passed time 
 	 */
 	private void doBehaviorWorking(double dt) {
-		if (this.getHP() == getMinHP()) {
-			this.terminate();
-		} else if (!this.aroundSolid()) {
-			this.transitionToFalling();
-		} else if (this.shouldRest){
+		if (this.shouldRest){
 			this.transitionToRestingInit();
 		}else if (this.shouldAttack){
 			this.transitionToAttacking();
@@ -2610,14 +2904,10 @@ public class Unit extends GameObject{
 	 * gameCube. If the gameCube is null the result is also null.
 	 */
 	private Item getItemAtWorkCube(){
-		if (this.workCube == null){
+		if (this.workCube == null || !this.getWorld().withinBounds(this.workCube)){
 			return null;
 		}
-		for (Item item: this.getWorld().getItems()){
-			if (item.getPosition().toCoordinate().equals(this.workCube)){
-				return item;
-			}
-		}return null;
+		return this.getWorld().getAnyItemInCube(this.workCube);
 	}
 	
 	/**
@@ -2626,11 +2916,7 @@ public class Unit extends GameObject{
 	 * 		The passed time 
 	 */
 	private void doBehaviorAttacking(double dt) {
-		if (this.getHP() == getMinHP()) {
-			this.terminate();
-		} else if (!this.aroundSolid()) {
-			this.transitionToFalling();
-		} else if (this.attackingCountdown > 0){
+		if (this.attackingCountdown > 0){
 			this.attackingCountdown -= dt;
 		}else if (this.inRangeForAttack(this.getVictim())){
 			try{
@@ -2660,9 +2946,7 @@ public class Unit extends GameObject{
 	 * 		| 	this.doFalling();
 	 */
 	private void doBehaviorFalling(double dt){
-		if (this.getHP() == getMinHP()) {
-			this.terminate();
-		} else if (this.aboveSolid()) {
+		if (this.aboveSolid()) {
 			this.inflictFallingDamage();
 			this.transitionToNothing();
 		} else {
@@ -2758,18 +3042,25 @@ public class Unit extends GameObject{
 	 * 		| VectorD.add(this.getPosition(), VectorD.multiply(getFallingVelocity(), dt))
 	 */
 	private void doFalling(double dt) {
-		VectorD velocity = getFallingVelocity();
-		VectorD deltaPosition = VectorD.multiply(velocity, dt);
-		this.setPosition(Position.add(this.getPosition(), deltaPosition));
+		Position position = this.getPosition();
+		this.setPosition(new Position(position.getX() + getFallingVelocity().getX() * dt,
+				position.getY() + getFallingVelocity().getY() * dt,
+				position.getZ() + getFallingVelocity().getZ() * dt));
 	}
 	
 	/**
 	 * Gives back the velocity with which a Unit falls.
 	 */
-	private VectorD getFallingVelocity() {
-		return new VectorD(0, 0, -3);
+	@Immutable
+	private static VectorD getFallingVelocity() {
+		return fallingVelocity;
 	}
 	
+	/**
+	 * The velocity with which a Unit falls.
+	 */
+	private static final VectorD fallingVelocity = new VectorD(0, 0, -3);
+	
 	/**
 	 * Inflicts falling damage on this Unit based on how far it has fallen.
 	 * @post
@@ -2782,7 +3073,7 @@ public class Unit extends GameObject{
 	 * 		| 	this.setHP(0);
 	 */
 	private void inflictFallingDamage() {
-		double distanceFallen = Position.subtract(this.fallingStartingPoint, this.getPosition()).getZ();
+		double distanceFallen = this.fallingStartingPoint.getZ() - this.getPosition().getZ();
 		int damage = ((int) (distanceFallen)) * 10;
 		int hp = this.getHP() - damage;
 		if (isValidHP(hp)) {
@@ -2804,7 +3095,7 @@ public class Unit extends GameObject{
 	 * 		| result == 0.2d;
 	 */
 	@Basic
-	private static double getMaxDT() {
+	public static double getMaxDT() {
 		return maxDT;
 	}
 	
@@ -2940,6 +3231,12 @@ public class Unit extends GameObject{
 	 */
 	private Position immediateTarget;
 	
+	/**
+	 * The route towards the ultimate target, whose cursor is just past the
+	 * immediate target, or null if none was computed.
+	 */
+	private Path path;
+	
 	/**
 	 * The time it will take before the next whole point of stamina is subtracted from the Unit's stamina gauge
 	 */
@@ -2985,6 +3282,11 @@ public class Unit extends GameObject{
 	 */
 	private Position fallingStartingPoint;
 	
+	/**
+	 * Scratch vector in which this Unit computes how far it moves each tick.
+	 */
+	private final MutableVectorD deltaPosition = new MutableVectorD();
+	
 	private boolean shouldRest;
 	private boolean shouldWork;
 	private boolean shouldAttack;
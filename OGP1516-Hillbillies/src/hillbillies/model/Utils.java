@@ -10,6 +10,16 @@ public class Utils {
 	 */
 	private static Random random = new Random();
 	
+	/**
+	 * Restarts the Random generator used for this game from the given seed,
+	 * so that a game can be replayed exactly.
+	 * @param seed
+	 * 		The seed to start from.
+	 */
+	public static void setRandomSeed(long seed) {
+		random = new Random(seed);
+	}
+	
 	/**
 	 * Checks whether x lies in between y and z. It doesn't matter if y is to
 	 * its left and z to its right or the other way around; both situations
@@ -27,6 +37,21 @@ public class Utils {
 				(z.compareTo(x)<0 && x.compareTo(y)<0));
 	}
 	
+	/**
+	 * Checks whether x lies in between y and z, like between(Comparable,
+	 * Comparable, Comparable) does, without boxing.
+	 * @param x
+	 *        The value that should be in the middle
+	 * @param y
+	 *        One of the ends
+	 * @param z
+	 *        The other end
+	 * @return true iff x is between y and z.
+	 */
+	public static boolean between(double x, double y, double z){
+		return (y < x && x < z) || (z < x && x < y);
+	}
+	
 	/**
 	 * Generates a random integer between lo (inclusive) and hi (exclusive).
 	 * @param lo
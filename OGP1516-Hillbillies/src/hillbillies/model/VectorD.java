@@ -1,43 +1,73 @@
 package hillbillies.model;
 
-import be.kuleuven.cs.som.annotate.Immutable;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A value class to represent vectors of dimension 3 with double components.
+ *
+ * The components are stored as primitive doubles and the hash code is
+ * computed once, so reading components and using VectorDs as hash keys
+ * allocates nothing. Hot loops that would create many intermediate vectors
+ * can use a MutableVectorD instead.
+ */
+@Value
+public class VectorD {
 
-public class VectorD extends Vector3<Double> {
-	
 	/**
 	 * Obvious constructor
 	 * @param x
 	 * @param y
 	 * @param z
 	 */
-	public VectorD (Double x, Double y, Double z) {
-		super(x, y, z);
+	public VectorD(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.hash = (31 * Double.hashCode(x) + Double.hashCode(y)) * 31 + Double.hashCode(z);
 	}
-	
+
 	/**
-	 * Obvious constructor with arguments as doubles
-	 * @param x
-	 * @param y
-	 * @param z
+	 * Constructs a VectorD out of an array of three Doubles
+	 * @param array
+	 * @throws IllegalArgumentException
+	 * 		If the array does not have length 3.
 	 */
-	public VectorD(double x, double y, double z) {
-		super((Double) x, (Double) y, (Double) z);
+	public VectorD(Double[] array) throws IllegalArgumentException {
+		this(checkLength(array)[0], array[1], array[2]);
 	}
 
 	/**
-	 * Constructs a DVector out of an array of three Doubles
+	 * Constructs a VectorD out of an array of three doubles
 	 * @param array
+	 * @throws IllegalArgumentException
+	 * 		If the array does not have length 3.
 	 */
-	public VectorD (Double[] array) {
-		super(array);
+	public VectorD(double[] array) throws IllegalArgumentException {
+		this(checkLength(array)[0], array[1], array[2]);
 	}
-	
+
 	/**
-	 * Constructs a DVector out of an array of three doubles
-	 * @param array
+	 * Returns this VectorD's x component
+	 */
+	@Basic @Immutable
+	public double getX() {
+		return this.x;
+	}
+
+	/**
+	 * Returns this VectorD's y component
+	 */
+	@Basic @Immutable
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Returns this VectorD's z component
 	 */
-	public VectorD(double[] array) {
-		super(wrapDoubleArray(array));
+	@Basic @Immutable
+	public double getZ() {
+		return this.z;
 	}
 
 	/**
@@ -47,26 +77,20 @@ public class VectorD extends Vector3<Double> {
 	 * @return
 	 */
 	public static VectorD add(VectorD vector1, VectorD vector2){
-		 double X = vector1.getX() + vector2.getX();
-		 double Y = vector1.getY() + vector2.getY();
-		 double Z = vector1.getZ() + vector2.getZ();
-		 return new VectorD(X, Y, Z);
+		return new VectorD(vector1.x + vector2.x, vector1.y + vector2.y, vector1.z + vector2.z);
 	}
-	
+
 	/**
-	 * Function calculating the result you get when you multiply a vector with 
+	 * Function calculating the result you get when you multiply a vector with
 	 * a given number
 	 * @param vector
 	 * @param x
 	 * @return
 	 */
 	public static VectorD multiply(VectorD vector, double x){
-		double X = vector.getX() * x;
-		double Y = vector.getY() * x;
-		double Z = vector.getZ() * x;
-		return new VectorD(X, Y, Z);
+		return new VectorD(vector.x * x, vector.y * x, vector.z * x);
 	}
-	
+
 	/**
 	 * Subtract a vector from an other vector
 	 * @param vector1
@@ -74,27 +98,15 @@ public class VectorD extends Vector3<Double> {
 	 * @return
 	 */
 	public static VectorD subtract(VectorD vector1, VectorD vector2){
-		return VectorD.add(vector2, invert(vector2));
+		return new VectorD(vector1.x - vector2.x, vector1.y - vector2.y, vector1.z - vector2.z);
 	}
-	
-	/**
-	 * Invert a given vector
-	 * @param vector
-	 * @return
-	 */
-	private static VectorD invert(VectorD vector) {
-		return VectorD.multiply(vector, -1);
-	}
-	
+
 	/**
 	 * return a position with the same properties of this vectorD
 	 * @return
 	 */
 	public Position toPosition(){
-		double X = this.getX();
-		double Y = this.getY();
-		double Z = this.getZ();
-		return new Position(X, Y, Z);
+		return new Position(this.x, this.y, this.z);
 	}
 
 	public static VectorD ZERO = new VectorD(0d, 0d, 0d);
@@ -111,51 +123,44 @@ public class VectorD extends Vector3<Double> {
 	 * 		The normalized version of the vector
 	 */
 	public static VectorD normalize(VectorD vector) {
-		
-		double magnitude = Math.sqrt(vector.getX()*vector.getX() + vector.getY()*vector.getY() + vector.getZ()*vector.getZ());
-		
-		return new VectorD(vector.getX()/magnitude, vector.getY()/magnitude, vector.getZ()/magnitude);
+		double magnitude = Math.sqrt(vector.x*vector.x + vector.y*vector.y + vector.z*vector.z);
+		return new VectorD(vector.x/magnitude, vector.y/magnitude, vector.z/magnitude);
 	}
-	
+
 	/**
 	 * Tells whether the prime object is between first and second given VectorD
-	 * (or the other way around: the order of first and second doesn't matter) 
+	 * (or the other way around: the order of first and second doesn't matter)
 	 * @param first
 	 * @param second
 	 * @return
 	 * 		Whether the prime object is in between the other two.
 	 */
 	public boolean between(VectorD first, VectorD second) {
-		return (Utils.between(this.getX(), first.getX(), second.getX())
-				|| Utils.between(this.getY(), first.getY(), second.getY())
-				|| Utils.between(this.getZ(), first.getZ(), second.getZ()));
+		return (Utils.between(this.x, first.x, second.x)
+				|| Utils.between(this.y, first.y, second.y)
+				|| Utils.between(this.z, first.z, second.z));
 	}
-	
+
 	/**
-	 * Private helper method to transform an array of doubles into an array of Doubles
-	 * @param array
+	 * Returns an array of three Doubles, representing this VectorD.
 	 * @return
-	 * 		The exact same array, with all elements cast to Doubles.
+	 * 		The array
 	 */
-	private static Double[] wrapDoubleArray(double[] array) {
-		Double[] result = new Double[array.length];
-		for(int i=0; i<array.length; i++) {
-			result[i] = (Double) array[i];
-		}
-		return result;
+	@Immutable
+	public Double[] toArray() {
+		return new Double[] {this.x, this.y, this.z};
 	}
 
 	/**
-	 * Returns an array of three doubles, representing this Position.
+	 * Returns an array of three doubles, representing this VectorD.
 	 * @return
-	 * 		The array 
+	 * 		The array
 	 */
 	@Immutable
-	public Double[] toArray() {
-		// Type cast will always be possible
-		return new Double[] {this.getX(), this.getY(), this.getZ()};
+	public double[] toDoubleArray() {
+		return new double[] {this.x, this.y, this.z};
 	}
-	
+
 	/**
 	 * Returns the Euclidean distance between this VectorD and another one.
 	 * @param other
@@ -164,8 +169,73 @@ public class VectorD extends Vector3<Double> {
 	 * 		The Euclidean distance between the two
 	 */
 	public double distance (VectorD other) {
-		return (this.getX() - other.getX()) * (this.getX() - other.getX()) + 
-				(this.getY() - other.getY()) * (this.getY() - other.getY()) + 
-				(this.getZ() - other.getZ()) * (this.getZ() - other.getZ());
+		double dx = this.x - other.x;
+		double dy = this.y - other.y;
+		double dz = this.z - other.z;
+		return Math.sqrt(dx*dx + dy*dy + dz*dz);
+	}
+
+	/**
+	 * Tells whether the prime and given object are to be considered equal.
+	 *
+	 * @return
+	 * 		True iff the given object is effective, of the same type,
+	 * 		and has equal x, y, and z components.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (other == null || this.getClass() != other.getClass()) {
+			return false;
+		}
+		VectorD otherVector = (VectorD) other;
+		return Double.compare(this.x, otherVector.x) == 0
+				&& Double.compare(this.y, otherVector.y) == 0
+				&& Double.compare(this.z, otherVector.z) == 0;
+	}
+
+	/**
+	 * Returns a hash code of this, computed when this VectorD was constructed.
+	 */
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	/**
+	 * Returns a human-readable representation of this
+	 *
+	 * @return
+	 * 		The x, y, and z components concatenated.
+	 */
+	@Override
+	public String toString() {
+		return "Position(" + this.x + ", " + this.y + ", " + this.z + ")";
 	}
+
+	/**
+	 * Gives back the given array if it has length 3.
+	 * @throws IllegalArgumentException
+	 * 		If the given array does not have length 3.
+	 */
+	private static double[] checkLength(double[] array) throws IllegalArgumentException {
+		if (array.length != 3) {
+			throw new IllegalArgumentException("Not the right array length (3): " + array.length);
+		}
+		return array;
+	}
+
+	/**
+	 * Gives back the given array if it has length 3.
+	 * @throws IllegalArgumentException
+	 * 		If the given array does not have length 3.
+	 */
+	private static Double[] checkLength(Double[] array) throws IllegalArgumentException {
+		if (array.length != 3) {
+			throw new IllegalArgumentException("Not the right array length (3): " + array.length);
+		}
+		return array;
+	}
+
+	private final double x, y, z;
+	private final int hash;
 }
@@ -1,71 +1,157 @@
 package hillbillies.model;
 
-import be.kuleuven.cs.som.annotate.Immutable;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A value class to represent vectors of dimension 3 with int components.
+ *
+ * The components are stored as primitive ints and the hash code is
+ * computed once, so reading components and using VectorIs as hash keys
+ * allocates nothing.
+ */
+@Value
+public class VectorI {
 
-public class VectorI extends Vector3<Integer>{
-	
 	/**
 	 * Obvious constructor
 	 * @param x
 	 * @param y
 	 * @param z
 	 */
-	public VectorI(Integer x, Integer y, Integer z) {
-		super(x, y, z);
-	}
-	
-	/**
-	 * Obvious constructor with arguments as ints
-	 * @param x
-	 * @param y
-	 * @param z
-	 */
 	public VectorI(int x, int y, int z) {
-		super((Integer) x, (Integer) y, (Integer) z);
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.hash = (31 * x + y) * 31 + z;
 	}
 
 	/**
 	 * Constructs a VectorI out of an array of three Integers
+	 * @throws IllegalArgumentException
+	 * 		If the array does not have length 3.
 	 */
-	public VectorI(Integer[] array) {
-		super(array);
+	public VectorI(Integer[] array) throws IllegalArgumentException {
+		this(checkLength(array)[0], array[1], array[2]);
 	}
 
 	/**
 	 * Constructs a VectorI out of an array of three ints
+	 * @throws IllegalArgumentException
+	 * 		If the array does not have length 3.
 	 */
-	public VectorI(int[] array) {
-		super(wrapIntArray(array));
+	public VectorI(int[] array) throws IllegalArgumentException {
+		this(checkLength(array)[0], array[1], array[2]);
 	}
-	
+
 	public static VectorI ZERO = new VectorI(0, 0, 0);
 	public static VectorI ONE_X = new VectorI(1, 0, 0);
 	public static VectorI ONE_Y = new VectorI(0, 1, 0);
 	public static VectorI ONE_Z = new VectorI(0, 0, 1);
 	public static VectorI ONE = new VectorI(1, 1, 1);
-	
+
 	/**
-	 * Private helper method to transform an array of ints into an array of Integers
-	 * @param array
-	 * @return
-	 * 		The exact same array, with all elements cast to Integers.
+	 * Returns this VectorI's x component
 	 */
-	private static Integer[] wrapIntArray(int[] array) {
-		Integer[] result = new Integer[array.length];
-		for(int i=0; i<array.length; i++) {
-			result[i] = (Integer) array[i];
-		}
-		return result;
+	@Basic @Immutable
+	public int getX() {
+		return this.x;
+	}
+
+	/**
+	 * Returns this VectorI's y component
+	 */
+	@Basic @Immutable
+	public int getY() {
+		return this.y;
 	}
 
 	/**
-	 * Returns an array of three doubles, representing this Position.
+	 * Returns this VectorI's z component
+	 */
+	@Basic @Immutable
+	public int getZ() {
+		return this.z;
+	}
+
+	/**
+	 * Returns an array of three Integers, representing this VectorI.
 	 * @return
-	 * 		The array 
+	 * 		The array
 	 */
 	@Immutable
 	public Integer[] toArray() {
-		// Type cast will always be possible
-		return new Integer[] {this.getX(), this.getY(), this.getZ()};
+		return new Integer[] {this.x, this.y, this.z};
 	}
+
+	/**
+	 * Returns an array of three ints, representing this VectorI.
+	 * @return
+	 * 		The array
+	 */
+	@Immutable
+	public int[] toIntArray() {
+		return new int[] {this.x, this.y, this.z};
+	}
+
+	/**
+	 * Tells whether the prime and given object are to be considered equal.
+	 *
+	 * @return
+	 * 		True iff the given object is effective, of the same type,
+	 * 		and has equal x, y, and z components.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (other == null || this.getClass() != other.getClass()) {
+			return false;
+		}
+		VectorI otherVector = (VectorI) other;
+		return this.x == otherVector.x && this.y == otherVector.y && this.z == otherVector.z;
+	}
+
+	/**
+	 * Returns a hash code of this, computed when this VectorI was constructed.
+	 */
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	/**
+	 * Returns a human-readable representation of this
+	 *
+	 * @return
+	 * 		The x, y, and z components concatenated.
+	 */
+	@Override
+	public String toString() {
+		return "Position(" + this.x + ", " + this.y + ", " + this.z + ")";
+	}
+
+	/**
+	 * Gives back the given array if it has length 3.
+	 * @throws IllegalArgumentException
+	 * 		If the given array does not have length 3.
+	 */
+	private static int[] checkLength(int[] array) throws IllegalArgumentException {
+		if (array.length != 3) {
+			throw new IllegalArgumentException("Not the right array length (3): " + array.length);
+		}
+		return array;
+	}
+
+	/**
+	 * Gives back the given array if it has length 3.
+	 * @throws IllegalArgumentException
+	 * 		If the given array does not have length 3.
+	 */
+	private static Integer[] checkLength(Integer[] array) throws IllegalArgumentException {
+		if (array.length != 3) {
+			throw new IllegalArgumentException("Not the right array length (3): " + array.length);
+		}
+		return array;
+	}
+
+	private final int x, y, z;
+	private final int hash;
 }
@@ -1,15 +1,37 @@
 package hillbillies.model;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Immutable;
+import hillbillies.model.pathing.PathFinder;
+import hillbillies.model.pathing.PathIndex;
+import hillbillies.model.pathing.ReachabilityIndex;
+import hillbillies.part2.internal.map.ByteMap3D;
+import hillbillies.part2.internal.map.GameMap;
 import hillbillies.part2.listener.TerrainChangeListener;
+import hillbillies.util.BorderConnectivity;
 import hillbillies.util.ConnectedToBorder;
+import hillbillies.util.PrimitiveConnectedToBorder;
 import be.kuleuven.cs.som.annotate.Raw;
 
 /**
@@ -17,8 +39,8 @@ import be.kuleuven.cs.som.annotate.Raw;
  * 		| this.hasProperCubes()
  * @Invar Each World must have proper Items.
  *      | this.hasProperItems()
- * @Invar Each World must have a valid cubes (Map).
- * 		| this.canHaveAsCubesMap(this.cubes)
+ * @Invar Each World must have a valid cubes array.
+ * 		| this.canHaveAsCubesArray(this.cubes)
  * @Invar Each World must have proper Units.
  * 		| this.hasProperUnits()
  * @Invar Each World must have proper Factions.
@@ -74,12 +96,22 @@ public class World {
 		 * 		TerrainType exists, null is returned.
 		 */
 		public static TerrainType fromInt(int i) {
+			if (i < 0 || i >= BY_INT.length) {
+				return null;
+			}
+			return BY_INT[i];
+		}
+		
+		/**
+		 * Lookup table from the associated integer number of each
+		 * TerrainType to that TerrainType, so decoding a stored cube is a
+		 * single array load.
+		 */
+		private static final TerrainType[] BY_INT = new TerrainType[values().length];
+		static {
 			for (TerrainType terrainType : values()) {
-				if (terrainType.toInt() == i) {
-					return terrainType;
-				}
+				BY_INT[terrainType.toInt()] = terrainType;
 			}
-			return null;
 		}
 		
 		/**
@@ -105,9 +137,9 @@ public class World {
 	 * 		changes its type.
 	 * @post
 	 * 		For every element of terrainTypes, this.cubes will hold exactly one
-	 * 		entry with a Coordinate corresponding with the location of the
-	 * 		element as key, and a TerrainType corresponding with the value of
-	 * 		the element as value.
+	 * 		byte at the index corresponding with the location of the element,
+	 * 		holding the number of the TerrainType corresponding with the value
+	 * 		of the element.
 	 * @post
 	 * 		this.terrainChangeListener will be equal to the given one.
 	 * @post
@@ -134,53 +166,228 @@ public class World {
 	 */
 	public World(int[][][] terrainTypes, TerrainChangeListener terrainChangeListener)
 			throws IllegalArgumentException {
+		this(terrainTypes, terrainChangeListener, true);
+	}
+	
+	/**
+	 * Initializes a World with given terrainTypes in threedimensional array,
+	 * and terrain change listener for notification purposes, choosing the
+	 * algorithm that keeps track of border connections.
+	 * @param terrainTypes
+	 * 		A threedimensional array holding int values that represent the cube
+	 * 		types of the World that should be initialized.
+	 * @param terrainChangeListener
+	 * 		An object with a method to be called every time a cube in the World
+	 * 		changes its type.
+	 * @param primitiveConnectivity
+	 * 		Whether to use the PrimitiveConnectedToBorder algorithm rather than
+	 * 		the provided ConnectedToBorder one. Both behave the same.
+	 * @effect
+	 * 		The World is initialized as by World(terrainTypes,
+	 * 		terrainChangeListener), using the chosen algorithm.
+	 * @throws IllegalArgumentException
+	 * 		If the input array has any dimension of size 0 is jagged
+	 * @throws IllegalArgumentException
+	 * 		If the given TerrainChangeListener is null.
+	 */
+	public World(int[][][] terrainTypes, TerrainChangeListener terrainChangeListener,
+			boolean primitiveConnectivity) throws IllegalArgumentException {
+		this(intArrayToCubesArray(terrainTypes), terrainTypes.length, terrainTypes[0].length,
+				terrainTypes[0][0].length, terrainChangeListener, primitiveConnectivity);
+	}
+	
+	/**
+	 * Initializes a World with the terrain types of the given map of the
+	 * game, and terrain change listener for notification purposes.
+	 * @param map
+	 * 		The map holding the CubeType of every cube of the World that should
+	 * 		be initialized.
+	 * @param terrainChangeListener
+	 * 		An object with a method to be called every time a cube in the World
+	 * 		changes its type.
+	 * @effect
+	 * 		The World is initialized as by World(terrainTypes,
+	 * 		terrainChangeListener), with the number of the CubeType of every
+	 * 		cube of the given map as its terrain type.
+	 * @throws IllegalArgumentException
+	 * 		If the given map is null, or holds a cube of an unknown type.
+	 * @throws IllegalArgumentException
+	 * 		If the given TerrainChangeListener is null.
+	 */
+	public World(GameMap map, TerrainChangeListener terrainChangeListener)
+			throws IllegalArgumentException {
+		this(checkMap(map).getMap(), terrainChangeListener);
+	}
+	
+	/**
+	 * Initializes a World with the terrain types in the given ByteMap3D, and
+	 * terrain change listener for notification purposes.
+	 * @param map
+	 * 		The map holding the number of the TerrainType of every cube of the
+	 * 		World that should be initialized.
+	 * @param terrainChangeListener
+	 * 		An object with a method to be called every time a cube in the World
+	 * 		changes its type.
+	 * @effect
+	 * 		The World is initialized as by World(terrainTypes,
+	 * 		terrainChangeListener), with the values of the given map as its
+	 * 		terrain types.
+	 * @throws IllegalArgumentException
+	 * 		If the given map is null, or holds a value that is not the number
+	 * 		of a TerrainType.
+	 * @throws IllegalArgumentException
+	 * 		If the given TerrainChangeListener is null.
+	 */
+	public World(ByteMap3D map, TerrainChangeListener terrainChangeListener)
+			throws IllegalArgumentException {
+		this(byteMapToCubesArray(map), map.getNbX(), map.getNbY(), map.getNbZ(),
+				terrainChangeListener, true);
+	}
+	
+	/**
+	 * Initializes a World with the given cubes and dimensions, and terrain
+	 * change listener for notification purposes. The given array is not
+	 * copied but becomes the cubes array of this World, so a large map is
+	 * never held in memory twice; it must not be changed afterwards.
+	 * @param cubes
+	 * 		A byte array holding the number of the TerrainType of every cube of
+	 * 		the World that should be initialized, at the index
+	 * 		x + y*nbX + z*nbX*nbY, as read by a VoxelMapReader.
+	 * @param nbX
+	 * 		The size of the World in the x direction.
+	 * @param nbY
+	 * 		The size of the World in the y direction.
+	 * @param nbZ
+	 * 		The size of the World in the z direction.
+	 * @param terrainChangeListener
+	 * 		An object with a method to be called every time a cube in the World
+	 * 		changes its type.
+	 * @effect
+	 * 		The World is initialized as by World(terrainTypes,
+	 * 		terrainChangeListener), with the element of the given array at
+	 * 		index x + y*nbX + z*nbX*nbY as terrain type of the cube at (x, y, z).
+	 * @throws IllegalArgumentException
+	 * 		If any of the given sizes is not positive, if the length of the
+	 * 		given array is not their product, or if any of its elements is not
+	 * 		the number of a TerrainType.
+	 * @throws IllegalArgumentException
+	 * 		If the given TerrainChangeListener is null.
+	 */
+	public World(byte[] cubes, int nbX, int nbY, int nbZ, TerrainChangeListener terrainChangeListener)
+			throws IllegalArgumentException {
+		this(checkCubesArray(cubes, nbX, nbY, nbZ), nbX, nbY, nbZ, terrainChangeListener, true);
+	}
+	
+	/**
+	 * Initializes a World with the given cubes, holding the number of the
+	 * TerrainType of every cube at the index x + y*nbX + z*nbX*nbY, and
+	 * terrain change listener for notification purposes. The given array
+	 * becomes the cubes array of this World; it has already been checked.
+	 */
+	private World(byte[] cubes, int nbX, int nbY, int nbZ, TerrainChangeListener terrainChangeListener,
+			boolean primitiveConnectivity) throws IllegalArgumentException {
 		if (terrainChangeListener == null) {
 			throw new IllegalArgumentException("Terrain Change Listener is null");
 		}
 		// Initialize terrain change listener of this World
 		this.terrainChangeListener = terrainChangeListener;
 		
-		// Initialize the cubes map for this World
-		this.cubes = intArrayToCubesMap(terrainTypes);
+		// Initialize the cubes array for this World
+		this.cubes = cubes;
 		
 		// Initialize the dimensions of this World
 		this.minXCoordinate = 0;
-		this.maxXCoordinate = terrainTypes.length;
+		this.maxXCoordinate = nbX;
 		this.minYCoordinate = 0;
-		this.maxYCoordinate = terrainTypes[0].length;
+		this.maxYCoordinate = nbY;
 		this.minZCoordinate = 0;
-		this.maxZCoordinate = terrainTypes[0][0].length;
+		this.maxZCoordinate = nbZ;
+		
+		// Initialize the neighbour tables of this World
+		this.neighborOffsets = new int[NB_NEIGHBORS];
+		for (int neighbor=0; neighbor<NB_NEIGHBORS; neighbor++) {
+			this.neighborOffsets[neighbor] = NEIGHBOR_DX[neighbor] +
+					this.maxXCoordinate * (NEIGHBOR_DY[neighbor] + this.maxYCoordinate * NEIGHBOR_DZ[neighbor]);
+		}
+		this.borderMasks = new byte[this.cubes.length];
+		for (int z=0; z<this.maxZCoordinate; z++) {
+			for (int y=0; y<this.maxYCoordinate; y++) {
+				for (int x=0; x<this.maxXCoordinate; x++) {
+					this.borderMasks[getIndex(x, y, z)] = (byte) (
+							borderBits(x, this.maxXCoordinate) |
+							borderBits(y, this.maxYCoordinate) << 2 |
+							borderBits(z, this.maxZCoordinate) << 4);
+				}
+			}
+		}
+		
+		// Find out which cubes are supported
+		this.aroundSolidCubes = new BitSet(this.cubes.length);
+		this.aboveSolidCubes = new BitSet(this.cubes.length);
+		this.initializeSupport();
 		
 		// Initialize the Units Set of this World
-		this.units = new HashSet<Unit>();
+		this.units = new LinkedHashSet<Unit>();
 		
 		// Initialize the Items Set of this World
-		this.items = new HashSet<Item>();
+		this.items = new LinkedHashSet<Item>();
+		
+		// Initialize the SpatialHash of Units and Items of this World
+		this.spatialHash = new SpatialHash(this.getMaxXCoordinate(),
+				this.getMaxYCoordinate(), this.getMaxZCoordinate());
+		this.boulderHash = new SpatialHash(this.getMaxXCoordinate(),
+				this.getMaxYCoordinate(), this.getMaxZCoordinate());
+		this.logHash = new SpatialHash(this.getMaxXCoordinate(),
+				this.getMaxYCoordinate(), this.getMaxZCoordinate());
+		
+		// Mark the workshops of this World
+		this.workshopHash = new SpatialHash(this.getMaxXCoordinate(),
+				this.getMaxYCoordinate(), this.getMaxZCoordinate());
+		for (int index=0; index<this.cubes.length; index++) {
+			if (this.cubes[index] == TerrainType.WORKSHOP.toInt()) {
+				this.workshopHash.mark(index);
+			}
+		}
 		
 		// Initialize the Factions Set of this World
-		this.factions = new HashSet<Faction>();
+		this.factions = new LinkedHashSet<Faction>();
 		for (int i=0; i<5; i++){
 			factions.add(new Faction());
 		}
 		
 		// Initialize the ConnectedToBorder object to keep track of
 		// border connections.
-		this.connectedToBorder = new ConnectedToBorder(
-				this.getMaxXCoordinate(),
-				this.getMaxYCoordinate(),
-				this.getMaxZCoordinate()
-				);
-		// Using this iteration is sufficient because the cubes map always has
-		// no more than exactly one entry per cube in the World. That is in
-		// fact a representation invariant upon World.cubes, and I am proud of
-		// that.
-		for (Coordinate coordinate : this.cubes.keySet()) {
-			if (this.isPassableCube(coordinate)) {
-				this.connectedToBorder.changeSolidToPassable(
-						coordinate.getX(), 
-						coordinate.getY(),
-						coordinate.getZ()
-						);
+		if (primitiveConnectivity) {
+			// Find all connections at once, rather than telling the
+			// algorithm about every passable cube one at a time.
+			BitSet passable = new BitSet(this.cubes.length);
+			for (int index=0; index<this.cubes.length; index++) {
+				if (this.isPassable(index)) {
+					passable.set(index);
+				}
+			}
+			this.connectedToBorder = new PrimitiveConnectedToBorder(
+					this.getMaxXCoordinate(),
+					this.getMaxYCoordinate(),
+					this.getMaxZCoordinate(),
+					passable
+					);
+		} else {
+			this.connectedToBorder = BorderConnectivity.of(new ConnectedToBorder(
+					this.getMaxXCoordinate(),
+					this.getMaxYCoordinate(),
+					this.getMaxZCoordinate()
+					));
+			// The cubes array holds exactly one byte per cube in the World, so
+			// walking it in index order visits every cube exactly once.
+			for (int z=0; z<this.getMaxZCoordinate(); z++) {
+				for (int y=0; y<this.getMaxYCoordinate(); y++) {
+					for (int x=0; x<this.getMaxXCoordinate(); x++) {
+						if (this.isPassable(x, y, z)) {
+							this.connectedToBorder.changeSolidToPassable(x, y, z);
+						}
+					}
+				}
 			}
 		}
 	}
@@ -194,10 +401,11 @@ public class World {
 	 * 		cubes is effective
 	 * 		| cubes != null
 	 * @Invar
-	 * 		From the constructor onwards, cubes contains no more than exactly
-	 * 		one entry per cube in the World.
+	 * 		From the constructor onwards, cubes holds exactly one byte per cube
+	 * 		in the World, namely the number of its TerrainType, at the index
+	 * 		x + y*nbX + z*nbX*nbY.
 	 */
-	private Map<Coordinate, TerrainType> cubes;
+	private final byte[] cubes;
 	
 	/**
 	 * Tells whether this World has proper cubes.
@@ -205,11 +413,11 @@ public class World {
 	 * 		True iff this World has proper cubes.
 	 */
 	public boolean hasProperCubes() {
-		for (Coordinate cube : cubes.keySet()) {
-			if (!canHaveAsCoordinate(cube)) {
-				return false;
-			}
-			if (!isValidTerrainType(cubes.get(cube))) {
+		if (!canHaveAsCubesArray(this.cubes)) {
+			return false;
+		}
+		for (byte cube : this.cubes) {
+			if (!isValidTerrainType(TerrainType.fromInt(cube))) {
 				return false;
 			}
 		}
@@ -235,34 +443,21 @@ public class World {
 	 * 		True iff the given position's coordinate is valid.
 	 */
 	public boolean isValidPosition(Position position) {
-		return canHaveAsCoordinate(position.toCoordinate());
+		return withinBounds(position);
 	}
 	
 	/**
-	 * Tells whether the given Map<Coordinate, TerrainType> is a valid one to
-	 * hold the cubes map of this world. 
-	 * @param map
+	 * Tells whether the given byte array is a valid one to hold the cubes of
+	 * this world. 
+	 * @param array
 	 * @return
-	 * 		True iff the size of the map is exactly the product of the sizes of
-	 * 		the game world in the three dimensions, AND if for every valid
-	 * 		coordinate in the game world an entry in the map can be found.
-	 * 		Through the pigeon hole principle, I think, this should mean every
-	 * 		valid coordinate has exactly one map entry. 
-	 */
-	public boolean canHaveAsCubesMap(Map<Coordinate, TerrainType> map) {
-		if (map.size() != (this.getMaxXCoordinate()+1)*(this.getMaxYCoordinate()+1)*(this.getMaxZCoordinate()+1)) {
-			return false;
-		}
-		for (int x=0; x<this.getMaxXCoordinate(); x++) {
-			for (int y=0; y<this.getMaxYCoordinate(); y++) {
-				for (int z=0; z<this.getMaxZCoordinate(); z++) {
-					if (map.get(new Coordinate(x, y, z)) == null) {
-						return false;
-					}
-				}
-			}
-		}
-		return true;
+	 * 		True iff the array is effective and its length is exactly the
+	 * 		product of the sizes of the game world in the three dimensions, so
+	 * 		every valid coordinate has exactly one element.
+	 */
+	public boolean canHaveAsCubesArray(byte[] array) {
+		return array != null && array.length ==
+				this.getMaxXCoordinate()*this.getMaxYCoordinate()*this.getMaxZCoordinate();
 	}
 	
 	/**
@@ -277,17 +472,22 @@ public class World {
 	}
 	
 	/**
-	 * Turns a threedimensional array of ints into a Map<Coordinate, TerrainType>.
+	 * Turns a threedimensional array of ints into a flat byte array holding
+	 * the number of the TerrainType of every cube, at the index
+	 * x + y*nbX + z*nbX*nbY.
 	 * @param array
 	 * 		The array to transform.
 	 * @return
-	 * 		The Map.
+	 * 		The byte array.
 	 * @throws IllegalArgumentException
 	 * 		If any of the given array's sizes is 0 in a dimension.
 	 * @throws IllegalArgumentException
 	 * 		If the given array is jagged in any of its dimensions.
+	 * @throws IllegalArgumentException
+	 * 		If any of the given array's elements is not the number of a
+	 * 		TerrainType.
 	 */
-	private Map<Coordinate, TerrainType> intArrayToCubesMap(int[][][] array) 
+	private static byte[] intArrayToCubesArray(int[][][] array) 
 			throws IllegalArgumentException {
 		if (array.length == 0) {
 			throw new IllegalArgumentException("X size of input array is 0");
@@ -298,22 +498,28 @@ public class World {
 		if (array[0][0].length == 0) {
 			throw new IllegalArgumentException("Z size of input array is 0");
 		}
+		int nbX = array.length;
+		int nbY = array[0].length;
+		int nbZ = array[0][0].length;
 		
-		Map<Coordinate, TerrainType> result = new HashMap<Coordinate, TerrainType>();
+		byte[] result = new byte[nbX * nbY * nbZ];
 		
 		// Within every deeper loop we check if the array has the same length
 		// there as before. If false somewhere, the array is jagged, and
 		// therefore invalid to us.
-		for (int x=0; x<array.length; x++) {
-			for (int y=0; y<array[x].length; y++) {
-				if (array[x].length != array[0].length) {
-					throw new IllegalArgumentException("Input array is jagged.");
+		for (int x=0; x<nbX; x++) {
+			if (array[x].length != nbY) {
+				throw new IllegalArgumentException("Input array is jagged.");
+			}
+			for (int y=0; y<nbY; y++) {
+				if (array[x][y].length != nbZ) {
+					throw new IllegalArgumentException("Input array is jagged");
 				}
-				for (int z=0; z<array[x][y].length; z++) {
-					if (array[x][y].length != array[0][0].length) {
-						throw new IllegalArgumentException("Input array is jagged");
+				for (int z=0; z<nbZ; z++) {
+					if (!isValidTerrainType(TerrainType.fromInt(array[x][y][z]))) {
+						throw new IllegalArgumentException("Unknown terrain type: " + array[x][y][z]);
 					}
-					result.put(new Coordinate(x, y, z), TerrainType.fromInt(array[x][y][z]));
+					result[x + y*nbX + z*nbX*nbY] = (byte) array[x][y][z];
 				}
 			}
 		}
@@ -322,26 +528,304 @@ public class World {
 	}
 	
 	/**
-	 * Turns a Map<Coordinate, TerrainType> into a threedimensional array of ints.
-	 * There is no need to make any checks whether the map is correctly filled,
-	 * since the map is initialized properly, and never loses its shape.
+	 * Copies the values of the given ByteMap3D into a flat byte array
+	 * holding the number of the TerrainType of every cube, at the index
+	 * x + y*nbX + z*nbX*nbY.
 	 * @param map
-	 * 		The Map to transform.
+	 * 		The map to copy.
+	 * @return
+	 * 		The byte array.
+	 * @throws IllegalArgumentException
+	 * 		If the given map is null, or has a size of 0 in any dimension.
+	 * @throws IllegalArgumentException
+	 * 		If any of the values of the given map is not the number of a
+	 * 		TerrainType.
+	 */
+	private static byte[] byteMapToCubesArray(ByteMap3D map) throws IllegalArgumentException {
+		if (map == null) {
+			throw new IllegalArgumentException("Map is null");
+		}
+		int nbX = map.getNbX();
+		int nbY = map.getNbY();
+		int nbZ = map.getNbZ();
+		if (nbX <= 0 || nbY <= 0 || nbZ <= 0) {
+			throw new IllegalArgumentException("Map has a size of 0 in some dimension");
+		}
+		byte[] result = new byte[nbX * nbY * nbZ];
+		int index = 0;
+		for (int z=0; z<nbZ; z++) {
+			for (int y=0; y<nbY; y++) {
+				for (int x=0; x<nbX; x++) {
+					byte value = map.getValue(x, y, z);
+					if (!isValidTerrainType(TerrainType.fromInt(value))) {
+						throw new IllegalArgumentException("Unknown terrain type: " + value);
+					}
+					result[index++] = value;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Gives back the given byte array if it can hold the cubes of a World of
+	 * the given sizes.
+	 * @throws IllegalArgumentException
+	 * 		If any of the given sizes is not positive, if the length of the
+	 * 		given array is not their product, or if any of its elements is not
+	 * 		the number of a TerrainType.
+	 */
+	private static byte[] checkCubesArray(byte[] cubes, int nbX, int nbY, int nbZ)
+			throws IllegalArgumentException {
+		if (nbX <= 0 || nbY <= 0 || nbZ <= 0) {
+			throw new IllegalArgumentException("Size of 0 in some dimension");
+		}
+		if (cubes == null || cubes.length != (long) nbX * nbY * nbZ) {
+			throw new IllegalArgumentException("Cubes array does not match the sizes");
+		}
+		for (byte cube : cubes) {
+			if (!isValidTerrainType(TerrainType.fromInt(cube))) {
+				throw new IllegalArgumentException("Unknown terrain type: " + cube);
+			}
+		}
+		return cubes;
+	}
+	
+	/**
+	 * Gives back the given GameMap if it is effective.
+	 * @throws IllegalArgumentException
+	 * 		If the given map is null.
+	 */
+	private static GameMap checkMap(GameMap map) throws IllegalArgumentException {
+		if (map == null) {
+			throw new IllegalArgumentException("Map is null");
+		}
+		return map;
+	}
+	
+	/**
+	 * Turns the cubes of this World into a threedimensional array of ints.
+	 * There is no need to make any checks whether the array is correctly
+	 * filled, since it is initialized properly, and never loses its shape.
 	 * @return
 	 * 		The array.
 	 */
-	private int[][][] cubesMapToIntArray(Map<Coordinate, TerrainType> map) {
+	private int[][][] cubesArrayToIntArray() {
 		int[][][] result = new int[getMaxXCoordinate()][getMaxYCoordinate()][getMaxZCoordinate()];
 		for (int x=0; x<this.getMaxXCoordinate(); x++) {
 			for (int y=0; y<this.getMaxYCoordinate(); y++) {
 				for (int z=0; z<this.getMaxZCoordinate(); z++) {
-					result[x][y][z] = map.get(new Coordinate(x, y, z)).toInt();
+					result[x][y][z] = this.cubes[this.getIndex(x, y, z)];
 				}
 			}
 		}
 		return result;
 	}
 	
+	/**
+	 * Gives back the index in the cubes array of the cube with the given
+	 * coordinates. The given coordinates are not checked.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 * 		| result == x + y*getMaxXCoordinate() + z*getMaxXCoordinate()*getMaxYCoordinate()
+	 */
+	public int getIndex(int x, int y, int z) {
+		return x + this.maxXCoordinate * (y + this.maxYCoordinate * z);
+	}
+	
+	/**
+	 * Gives back the coordinate of the cube with the given index in the cubes
+	 * array. The given index is not checked.
+	 * @param index
+	 * @return
+	 * 		The Coordinate whose index is the given index.
+	 * 		| getIndex(result.getX(), result.getY(), result.getZ()) == index
+	 */
+	public Coordinate getCoordinate(int index) {
+		int nbX = this.getMaxXCoordinate();
+		int nbY = this.getMaxYCoordinate();
+		return new Coordinate(index % nbX, (index / nbX) % nbY, index / (nbX * nbY));
+	}
+	
+	/* NEIGHBOURS */
+	
+	/**
+	 * The number of neighbours a cube has when it is not at the border.
+	 */
+	public static final int NB_NEIGHBORS = 26;
+	
+	/**
+	 * The number of neighbours of a cube sharing a face with it, when it is
+	 * not at the border. These are neighbours 0 up to 5 of that cube.
+	 */
+	public static final int NB_DIRECT_NEIGHBORS = 6;
+	
+	/**
+	 * The offsets of the neighbours of a cube along each axis. The first six
+	 * are the directly adjacent ones: -x, +x, -y, +y, -z, +z.
+	 */
+	private static final int[] NEIGHBOR_DX = new int[NB_NEIGHBORS];
+	private static final int[] NEIGHBOR_DY = new int[NB_NEIGHBORS];
+	private static final int[] NEIGHBOR_DZ = new int[NB_NEIGHBORS];
+	
+	/**
+	 * For each neighbour, the border bits of the cubes that do not have it:
+	 * 1 and 2 for the low and high x border, 4 and 8 for y, 16 and 32 for z.
+	 */
+	private static final int[] NEIGHBOR_MASKS = new int[NB_NEIGHBORS];
+	
+	/**
+	 * For each neighbour, the number of coordinates it differs in.
+	 */
+	private static final int[] NEIGHBOR_CHANGES = new int[NB_NEIGHBORS];
+	
+	static {
+		int[][] direct = {{-1,0,0}, {1,0,0}, {0,-1,0}, {0,1,0}, {0,0,-1}, {0,0,1}};
+		int neighbor = 0;
+		for (int[] offset : direct) {
+			setNeighborOffset(neighbor++, offset[0], offset[1], offset[2]);
+		}
+		for (int dz=-1; dz<=1; dz++) {
+			for (int dy=-1; dy<=1; dy++) {
+				for (int dx=-1; dx<=1; dx++) {
+					if (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) > 1) {
+						setNeighborOffset(neighbor++, dx, dy, dz);
+					}
+				}
+			}
+		}
+	}
+	
+	private static void setNeighborOffset(int neighbor, int dx, int dy, int dz) {
+		NEIGHBOR_DX[neighbor] = dx;
+		NEIGHBOR_DY[neighbor] = dy;
+		NEIGHBOR_DZ[neighbor] = dz;
+		NEIGHBOR_MASKS[neighbor] = offsetBits(dx) | offsetBits(dy) << 2 | offsetBits(dz) << 4;
+		NEIGHBOR_CHANGES[neighbor] = Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
+	}
+	
+	/**
+	 * Gives back the border bits forbidding a step with the given offset.
+	 */
+	private static int offsetBits(int offset) {
+		return offset < 0 ? 1 : offset > 0 ? 2 : 0;
+	}
+	
+	/**
+	 * Gives back the border bits of a cube with the given coordinate, along
+	 * an axis with the given number of cubes.
+	 */
+	private static int borderBits(int coordinate, int size) {
+		return (coordinate == 0 ? 1 : 0) | (coordinate == size - 1 ? 2 : 0);
+	}
+	
+	/**
+	 * Gives back the number of coordinates in which the given neighbour of a
+	 * cube differs from that cube.
+	 * @param neighbor
+	 * 		The number of the neighbour, from 0 up to NB_NEIGHBORS.
+	 * @return
+	 * 		1 for the direct neighbours, 2 or 3 for the diagonal ones.
+	 */
+	public static int getNbChangedCoordinates(int neighbor) {
+		return NEIGHBOR_CHANGES[neighbor];
+	}
+	
+	/**
+	 * Gives back the index of the given neighbour of the cube with the given
+	 * index. The given index is not checked.
+	 * @param index
+	 * 		The index of the cube.
+	 * @param neighbor
+	 * 		The number of the neighbour, from 0 up to NB_NEIGHBORS. Numbers
+	 * 		below NB_DIRECT_NEIGHBORS are the neighbours sharing a face.
+	 * @return
+	 * 		The index of the neighbour, or -1 if it lies outside this World.
+	 */
+	public int getNeighbor(int index, int neighbor) {
+		if ((this.borderMasks[index] & NEIGHBOR_MASKS[neighbor]) != 0) {
+			return -1;
+		}
+		return index + this.neighborOffsets[neighbor];
+	}
+	
+	/**
+	 * Performs the given action for the index of every neighbour of the cube
+	 * with the given index that lies within this World.
+	 * @param index
+	 * 		The index of the cube.
+	 * @param action
+	 * 		The action to perform.
+	 */
+	public void forEachNeighbor(int index, IntConsumer action) {
+		forEachNeighbor(index, NB_NEIGHBORS, action);
+	}
+	
+	/**
+	 * Performs the given action for the index of every neighbour sharing a
+	 * face with the cube with the given index that lies within this World.
+	 * @param index
+	 * 		The index of the cube.
+	 * @param action
+	 * 		The action to perform.
+	 */
+	public void forEachDirectNeighbor(int index, IntConsumer action) {
+		forEachNeighbor(index, NB_DIRECT_NEIGHBORS, action);
+	}
+	
+	private void forEachNeighbor(int index, int nbNeighbors, IntConsumer action) {
+		int mask = this.borderMasks[index];
+		for (int neighbor=0; neighbor<nbNeighbors; neighbor++) {
+			if ((mask & NEIGHBOR_MASKS[neighbor]) == 0) {
+				action.accept(index + this.neighborOffsets[neighbor]);
+			}
+		}
+	}
+	
+	/**
+	 * Tells whether any neighbour of the cube with the given index that lies
+	 * within this World satisfies the given predicate.
+	 * @param index
+	 * 		The index of the cube.
+	 * @param predicate
+	 * 		The predicate to test the indices of the neighbours with.
+	 * @return
+	 * 		True iff the predicate holds for the index of at least one
+	 * 		neighbour; the remaining neighbours are not tested then.
+	 */
+	public boolean anyNeighbor(int index, IntPredicate predicate) {
+		int mask = this.borderMasks[index];
+		for (int neighbor=0; neighbor<NB_NEIGHBORS; neighbor++) {
+			if ((mask & NEIGHBOR_MASKS[neighbor]) == 0 &&
+					predicate.test(index + this.neighborOffsets[neighbor])) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * The difference in index between a cube and each of its neighbours.
+	 */
+	private final int[] neighborOffsets;
+	
+	/**
+	 * The border bits of every cube, by index.
+	 */
+	private final byte[] borderMasks;
+	
+	/**
+	 * Gives back the number of cubes in this World, which is also the
+	 * number of valid cube indices.
+	 * @return
+	 * 		| result == getMaxXCoordinate()*getMaxYCoordinate()*getMaxZCoordinate()
+	 */
+	public int getNbCubes() {
+		return this.cubes.length;
+	}
+	
 	/**
 	 * Return the maximum x coordinate of this World
 	 * @return the maximum x coordinate anything can have
@@ -465,12 +949,22 @@ public class World {
 	 * 		true iff the cube is within the game bounds
 	 */
 	public boolean withinBounds(Coordinate coordinate) {
-		return (((Comparable)coordinate.getX()).compareTo((Comparable)getMinXCoordinate()) >= 0 && 
-				((Comparable)coordinate.getX()).compareTo((Comparable)getMaxXCoordinate()) < 0 &&
-				((Comparable)coordinate.getY()).compareTo((Comparable)getMinYCoordinate()) >= 0 && 
-				((Comparable)coordinate.getY()).compareTo((Comparable)getMaxYCoordinate()) < 0 &&
-				((Comparable)coordinate.getZ()).compareTo((Comparable)getMinZCoordinate()) >= 0 && 
-				((Comparable)coordinate.getZ()).compareTo((Comparable)getMaxZCoordinate()) < 0);
+		return withinBounds(coordinate.getX(), coordinate.getY(), coordinate.getZ());
+	}
+	
+	/**
+	 * Tells whether the cube with the given coordinates is within the World
+	 * bounds
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 * 		true iff the cube is within the game bounds
+	 */
+	public boolean withinBounds(int x, int y, int z) {
+		return x >= getMinXCoordinate() && x < getMaxXCoordinate() &&
+				y >= getMinYCoordinate() && y < getMaxYCoordinate() &&
+				z >= getMinZCoordinate() && z < getMaxZCoordinate();
 	}
 	
 	/**
@@ -481,7 +975,7 @@ public class World {
 	 * 		true iff the position occupies a cube that is within the game bounds
 	 */
 	public boolean withinBounds(Position position) {
-		return withinBounds(position.toCoordinate());
+		return withinBounds((int) position.getX(), (int) position.getY(), (int) position.getZ());
 	}
 	
 	/**
@@ -534,8 +1028,17 @@ public class World {
 		if (!canHaveAsCoordinate(coordinate)) {
 			throw new IllegalArgumentException("Coordinate is not valid: " + coordinate.toString());
 		}
-		Set<Coordinate> neighbors = coordinate.getNeighbors();
-		neighbors.removeIf(neighbor -> !withinBounds(neighbor));
+		Set<Coordinate> neighbors = new HashSet<Coordinate>(36);
+		int x = coordinate.getX(), y = coordinate.getY(), z = coordinate.getZ();
+		for (int dz=-1; dz<=1; dz++) {
+			for (int dy=-1; dy<=1; dy++) {
+				for (int dx=-1; dx<=1; dx++) {
+					if ((dx != 0 || dy != 0 || dz != 0) && withinBounds(x+dx, y+dy, z+dz)) {
+						neighbors.add(new Coordinate(x+dx, y+dy, z+dz));
+					}
+				}
+			}
+		}
 		return neighbors;
 	}
 	
@@ -553,7 +1056,36 @@ public class World {
 		if (!canHaveAsCoordinate(coordinate)) {
 			throw new IllegalArgumentException("Coordinate is not valid: " + coordinate.toString());
 		}
-		return cubes.get(coordinate).isPassable();
+		return isPassable(coordinate.getX(), coordinate.getY(), coordinate.getZ());
+	}
+	
+	/**
+	 * Tells whether the cube with the given coordinates is of a passable
+	 * terrain type.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 * 		True iff the cube with the given coordinates has a TerrainType
+	 * 		that isPassable().
+	 * @throws IllegalArgumentException
+	 * 		If the given coordinates are not within bounds.
+	 */
+	public boolean isPassable(int x, int y, int z) throws IllegalArgumentException {
+		return getCubeAt(x, y, z).isPassable();
+	}
+	
+	/**
+	 * Tells whether the cube with the given index is of a passable terrain
+	 * type. The index is not checked.
+	 * @param index
+	 * 		The index of the cube, as given by getIndex.
+	 * @return
+	 * 		True iff the cube with the given index has a TerrainType that
+	 * 		isPassable().
+	 */
+	public boolean isPassable(int index) {
+		return TerrainType.fromInt(this.cubes[index]).isPassable();
 	}
 	
 	/**
@@ -571,16 +1103,34 @@ public class World {
 		if (!canHaveAsCoordinate(coordinate)) {
 			throw new IllegalArgumentException("Given coordinate is not valid: " + coordinate.toString());
 		}
-		// Being above the ground counts too
-		if (coordinate.getZ() == this.getMinZCoordinate()) {
-			return true;
-		}
-		for (Coordinate neighbor : this.getNeighbors(coordinate)) {
-			if (!this.isPassableCube(neighbor)) {
-				return true;
-			}
-		}
-		return false;
+		return isAroundSolid(coordinate.getX(), coordinate.getY(), coordinate.getZ());
+	}
+	
+	/**
+	 * Tells whether the cube with the given coordinates has a neighbor which
+	 * is solid, or is just located on the ground of the World. The given
+	 * coordinates are not checked.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 * 		True iff the cube with the given coordinates is located on the
+	 * 		ground of this World, or located next to a solid cube.
+	 */
+	public boolean isAroundSolid(int x, int y, int z) {
+		return this.aroundSolidCubes.get(getIndex(x, y, z));
+	}
+	
+	/**
+	 * Tells whether the cube with the given index has a neighbor which is
+	 * solid, or is just located on the ground of the World. The given index
+	 * is not checked.
+	 * @param index
+	 * @return
+	 * 		| result == isAroundSolid(getCoordinate(index))
+	 */
+	public boolean isAroundSolid(int index) {
+		return this.aroundSolidCubes.get(index);
 	}
 	
 	/**
@@ -598,16 +1148,115 @@ public class World {
 		if (!canHaveAsCoordinate(coordinate)) {
 			throw new IllegalArgumentException("Given coordinate is not valid: " + coordinate.toString());
 		}
-		// Being above the ground counts too
-		if (coordinate.getZ() == this.getMinZCoordinate()) {
+		return isAboveSolid(coordinate.getX(), coordinate.getY(), coordinate.getZ());
+	}
+	
+	/**
+	 * Tells whether the cube with the given coordinates is located above a
+	 * solid one, or directly above the ground of the World. The given
+	 * coordinates are not checked.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 * 		True iff the cube with the given coordinates is located on the
+	 * 		ground of this World, or located directly above a solid cube.
+	 */
+	public boolean isAboveSolid(int x, int y, int z) {
+		return this.aboveSolidCubes.get(getIndex(x, y, z));
+	}
+	
+	/**
+	 * Tells whether the cube with the given index is located above a solid
+	 * one, or directly above the ground of the World. The given index is not
+	 * checked.
+	 * @param index
+	 * @return
+	 * 		| result == isAboveSolid(getCoordinate(index))
+	 */
+	public boolean isAboveSolid(int index) {
+		return this.aboveSolidCubes.get(index);
+	}
+	
+	/**
+	 * Fills in which cubes of this World are around or above a solid cube,
+	 * by marking the neighbors of every solid cube, and the bottom layer.
+	 */
+	private void initializeSupport() {
+		int nbXY = this.getMaxXCoordinate() * this.getMaxYCoordinate();
+		this.aroundSolidCubes.set(0, nbXY);
+		this.aboveSolidCubes.set(0, nbXY);
+		for (int index=0; index<this.cubes.length; index++) {
+			if (!this.isPassable(index)) {
+				for (int neighbor=0; neighbor<NB_NEIGHBORS; neighbor++) {
+					int other = getNeighbor(index, neighbor);
+					if (other >= 0) {
+						this.aroundSolidCubes.set(other);
+					}
+				}
+				if (index + nbXY < this.cubes.length) {
+					this.aboveSolidCubes.set(index + nbXY);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Brings up to date which cubes are around or above a solid cube, after
+	 * the cube with the given index changed from passable to solid or back.
+	 * Only the cubes next to it can have changed.
+	 */
+	private void updateSupport(int index) {
+		int nbXY = this.getMaxXCoordinate() * this.getMaxYCoordinate();
+		boolean solid = !this.isPassable(index);
+		for (int neighbor=0; neighbor<NB_NEIGHBORS; neighbor++) {
+			int other = getNeighbor(index, neighbor);
+			if (other >= 0) {
+				this.aroundSolidCubes.set(other, solid || this.computeAroundSolid(other));
+			}
+		}
+		if (index + nbXY < this.cubes.length) {
+			this.aboveSolidCubes.set(index + nbXY, solid);
+		}
+	}
+	
+	/**
+	 * Makes the resting Items in the cube above the one with the given index
+	 * advance again, since they may have lost their support.
+	 */
+	private void activateItemsAbove(int index) {
+		int above = index + this.getMaxXCoordinate() * this.getMaxYCoordinate();
+		if (above < this.cubes.length) {
+			this.spatialHash.collectInCube(above, Item.class, this.activeItems);
+		}
+	}
+	
+	/**
+	 * Tells whether the cube with the given index is on the ground of this
+	 * World or has a solid neighbor, by looking at the terrain.
+	 */
+	private boolean computeAroundSolid(int index) {
+		// Being above the ground counts too
+		if (index < this.getMaxXCoordinate() * this.getMaxYCoordinate()) {
 			return true;
 		}
-		if (!this.isPassableCube(new Coordinate(coordinate.getX(), coordinate.getY(), coordinate.getZ() - 1))) {
-			return true; 
+		for (int neighbor=0; neighbor<NB_NEIGHBORS; neighbor++) {
+			int other = getNeighbor(index, neighbor);
+			if (other >= 0 && !this.isPassable(other)) {
+				return true;
+			}
 		}
 		return false;
 	}
 	
+	/**
+	 * The cubes of this World that are on its ground or next to a solid
+	 * cube, and the cubes that are on its ground or directly above a solid
+	 * cube, by index.
+	 */
+	private final BitSet aroundSolidCubes;
+	private final BitSet aboveSolidCubes;
+	
 	/**
 	 * Gives back the terrain type of the cube at the given coordinate.
 	 * @param coordinate
@@ -619,7 +1268,22 @@ public class World {
 		if (!canHaveAsCoordinate(coordinate)) {
 			throw new IllegalArgumentException("Given cube coordinate is not valid: " + coordinate.toString());
 		}
-		return this.cubes.get(coordinate);
+		return getCubeAt(coordinate.getX(), coordinate.getY(), coordinate.getZ());
+	}
+	
+	/**
+	 * Gives back the terrain type of the cube with the given coordinates.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @throws IllegalArgumentException
+	 * 		If the given coordinates are not within bounds.
+	 */
+	public TerrainType getCubeAt(int x, int y, int z) throws IllegalArgumentException {
+		if (!withinBounds(x, y, z)) {
+			throw new IllegalArgumentException("Given cube coordinates are not valid: (" + x + ", " + y + ", " + z + ")");
+		}
+		return TerrainType.fromInt(this.cubes[getIndex(x, y, z)]);
 	}
 	
 	/**
@@ -642,32 +1306,181 @@ public class World {
 		if (!canHaveAsCoordinate(coordinate)) {
 			throw new IllegalArgumentException("Given cube coordinate is not valid: " + coordinate.toString());
 		}
+		setCubeAt(coordinate.getX(), coordinate.getY(), coordinate.getZ(), terrainType);
+	}
+	
+	/**
+	 * Sets the cube with the given coordinates to a given terrain type
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param terrainType
+	 * 		The terrain type to set it to
+	 * @effect
+	 * 		When changing from passable to solid or vice versa, this is
+	 * 		communicated to the connectedToBorder object.
+	 * @effect
+	 * 		Every solid cube that is no longer connected to the border
+	 * 		because of this change caves in.
+	 * 		| caveIn(connectedToBorder.changeSolidToPassable(x, y, z))
+	 * @effect
+	 * 		The GUI is notified of every cube that changed, once all of them
+	 * 		have changed.
+	 * @throws IllegalArgumentException
+	 * 		If the given cube coordinates are not within bounds
+	 * @throws IllegalArgumentException
+	 * 		If the given terrain type is not valid
+	 */
+	public void setCubeAt(int x, int y, int z, TerrainType terrainType)
+			throws IllegalArgumentException {
+		if (!withinBounds(x, y, z)) {
+			throw new IllegalArgumentException("Given cube coordinates are not valid: (" + x + ", " + y + ", " + z + ")");
+		}
 		if (!isValidTerrainType(terrainType)) {
-			throw new IllegalArgumentException("Given terrain type is not valid: " + terrainType.toString());
+			throw new IllegalArgumentException("Given terrain type is not valid: " + terrainType);
 		}
-		
+		List<int[]> disconnected = this.changeCube(x, y, z, terrainType);
+		if (!disconnected.isEmpty()) {
+			this.caveIn(disconnected);
+		}
+		this.flushTerrainNotifications();
+	}
+	
+	/**
+	 * Sets the cube with the given coordinates to a given terrain type and
+	 * updates everything that depends on the terrain, except for the GUI,
+	 * which is only notified when flushing.
+	 * @return
+	 * 		The coordinates of the solid cubes that are no longer connected to
+	 * 		the border because of this change.
+	 */
+	private List<int[]> changeCube(int x, int y, int z, TerrainType terrainType) {
 		// And update the ConnectedToBorder object
-		if (terrainType.isPassable() && !this.isPassableCube(coordinate)) {
-			this.connectedToBorder.changeSolidToPassable(
-					coordinate.getX(),
-					coordinate.getY(),
-					coordinate.getZ()
-					);
-		} else if (!terrainType.isPassable() && this.isPassableCube(coordinate)) {
-			this.connectedToBorder.changePassableToSolid(
-					coordinate.getX(),
-					coordinate.getY(),
-					coordinate.getZ()
-					);
+		List<int[]> disconnected = Collections.emptyList();
+		boolean wasPassable = this.isPassable(x, y, z);
+		if (terrainType.isPassable() && !wasPassable) {
+			disconnected = this.connectedToBorder.changeSolidToPassable(x, y, z);
+		} else if (!terrainType.isPassable() && wasPassable) {
+			this.connectedToBorder.changePassableToSolid(x, y, z);
+		}
+		
+		int index = getIndex(x, y, z);
+		this.cubes[index] = (byte) terrainType.toInt();
+		this.terrainVersion++;
+		if (terrainType.isPassable() != wasPassable) {
+			this.updateSupport(index);
+			this.activateItemsAbove(index);
+		}
+		if (terrainType == TerrainType.WORKSHOP) {
+			this.workshopHash.mark(index);
+		} else {
+			this.workshopHash.unmark(index);
+		}
+		
+		if (this.reachabilityIndex != null) {
+			this.reachabilityIndex.onTerrainChanged(x, y, z);
+		}
+		
+		// Units walking past this cube may have to find another way
+		if (this.pathIndex != null) {
+			this.pathIndex.onTerrainChanged(x, y, z);
 		}
 		
-		this.cubes.remove(coordinate);
-		this.cubes.put(coordinate, terrainType);
+		// Sleeping Units next to this cube may have lost their support
+		if (this.awakeUnits.size() < this.units.size()) {
+			this.spatialHash.collectInCube(index, Unit.class, this.unitsToWake);
+			this.spatialHash.collectAround(index, Unit.class, this.unitsToWake);
+			for (Unit unit : this.unitsToWake) {
+				this.wakeUp(unit);
+			}
+			this.unitsToWake.clear();
+		}
 
-		// Don't forget to inform the GUI
-		this.terrainChangeListener.notifyTerrainChanged(coordinate.getX(), coordinate.getY(), coordinate.getZ());
+		// Don't forget to inform the GUI, once everything has settled
+		if (!this.pendingNotifications.get(index)) {
+			this.pendingNotifications.set(index);
+			this.nbPendingNotifications++;
+		}
+		return disconnected;
+	}
+	
+	/**
+	 * Lets the given solid cubes, which are no longer connected to the
+	 * border, cave in. Cubes that lose their connection because of that cave
+	 * in as well, until the terrain is stable again.
+	 * @param disconnected
+	 * 		The coordinates of the cubes to cave in, as given by the
+	 * 		connectedToBorder object.
+	 * @effect
+	 * 		Every given cube that is still solid, and every cube that gets
+	 * 		disconnected while caving in, becomes air.
+	 * @effect
+	 * 		Once all terrain has changed, each caved in cube drops debris.
+	 * 		| for each cube that caved in:
+	 * 		|	dropDebris(cube, old terrain type of cube)
+	 */
+	private void caveIn(List<int[]> disconnected) {
+		Deque<int[]> queue = new ArrayDeque<int[]>(disconnected);
+		BitSet seen = new BitSet();
+		int[] caved = new int[queue.size()];
+		byte[] cavedTypes = new byte[queue.size()];
+		int nbCaved = 0;
+		while (!queue.isEmpty()) {
+			int[] cube = queue.poll();
+			int index = getIndex(cube[0], cube[1], cube[2]);
+			if (seen.get(index) || this.isPassable(index)) {
+				continue;
+			}
+			seen.set(index);
+			if (nbCaved == caved.length) {
+				caved = Arrays.copyOf(caved, 2 * nbCaved);
+				cavedTypes = Arrays.copyOf(cavedTypes, 2 * nbCaved);
+			}
+			caved[nbCaved] = index;
+			cavedTypes[nbCaved] = this.cubes[index];
+			nbCaved++;
+			queue.addAll(this.changeCube(cube[0], cube[1], cube[2], TerrainType.AIR));
+		}
+		// Only drop debris now, so no Item is created in terrain that is
+		// about to change.
+		for (int i = 0; i < nbCaved; i++) {
+			this.dropDebris(this.getCoordinate(caved[i]), TerrainType.fromInt(cavedTypes[i]));
+		}
 	}
 	
+	/**
+	 * Notifies the GUI of every cube that changed since the last flush, and
+	 * forgets about them.
+	 * @effect
+	 * 		| for each pending cube:
+	 * 		|	terrainChangeListener.notifyTerrainChanged(cube.getX(), cube.getY(), cube.getZ())
+	 */
+	private void flushTerrainNotifications() {
+		if (this.nbPendingNotifications == 0 || this.terrainNotificationsDeferred) {
+			return;
+		}
+		int nbX = this.getMaxXCoordinate();
+		int nbY = this.getMaxYCoordinate();
+		for (int index = this.pendingNotifications.nextSetBit(0); index >= 0;
+				index = this.pendingNotifications.nextSetBit(index + 1)) {
+			this.terrainChangeListener.notifyTerrainChanged(index % nbX, (index / nbX) % nbY, index / (nbX * nbY));
+		}
+		this.pendingNotifications.clear();
+		this.nbPendingNotifications = 0;
+	}
+	
+	/**
+	 * The cubes that changed since the GUI was last notified.
+	 */
+	private final BitSet pendingNotifications = new BitSet();
+	private int nbPendingNotifications;
+	
+	/**
+	 * Whether the GUI is only to be notified once the current fastForward
+	 * is done.
+	 */
+	private boolean terrainNotificationsDeferred;
+	
 	/**
 	 * Digs out the cube at the given coordinate, if it is diggable. Throws an
 	 * exception if it is not diggable.
@@ -682,6 +1495,21 @@ public class World {
 		}
 		TerrainType terrainType = this.getCubeAt(coordinate);
 		this.setCubeAt(coordinate, TerrainType.AIR);
+		this.dropDebris(coordinate, terrainType);
+	}
+	
+	/**
+	 * Possibly drops an Item in the cube at the given coordinate, which was
+	 * of the given terrain type before it was removed.
+	 * @param coordinate
+	 * 		The coordinate of the removed cube.
+	 * @param terrainType
+	 * 		The terrain type the cube had.
+	 * @effect
+	 * 		A ROCK cube drops a Boulder with the boulder drop chance, a TREE
+	 * 		cube drops a Log with the log drop chance.
+	 */
+	private void dropDebris(Coordinate coordinate, TerrainType terrainType) {
 		switch (terrainType) {
 		case ROCK:
 			if (Utils.randomBoolean(getBoulderDropChance())) {
@@ -693,9 +1521,68 @@ public class World {
 				createLog(cubeCenter(coordinate));
 			}
 			break;
+		default:
+			break;
+		}
+	}
+	
+	/**
+	 * Gives back the PathFinder that searches paths through this World. It
+	 * is created on first use and reused afterwards, so its search buffers
+	 * are only allocated once.
+	 * @return
+	 * 		A PathFinder whose World is this World.
+	 * 		| result.getWorld() == this
+	 */
+	public PathFinder getPathFinder() {
+		if (this.pathFinder == null) {
+			this.pathFinder = new PathFinder(this);
 		}
+		return this.pathFinder;
 	}
 	
+	/**
+	 * Variable referencing the PathFinder of this World, if already created.
+	 */
+	private PathFinder pathFinder;
+	
+	/**
+	 * Gives back the index of the walkable regions of this World. It is
+	 * created on first use and kept up to date by setCubeAt afterwards.
+	 * @return
+	 * 		A ReachabilityIndex whose World is this World.
+	 * 		| result.getWorld() == this
+	 */
+	public ReachabilityIndex getReachabilityIndex() {
+		if (this.reachabilityIndex == null) {
+			this.reachabilityIndex = new ReachabilityIndex(this);
+		}
+		return this.reachabilityIndex;
+	}
+	
+	/**
+	 * Variable referencing the ReachabilityIndex of this World, if already
+	 * created.
+	 */
+	private ReachabilityIndex reachabilityIndex;
+	
+	/**
+	 * Gives back the index of the Paths being followed by the Units of this
+	 * World. It is created on first use and invalidates the Paths that
+	 * setCubeAt touches afterwards.
+	 */
+	public PathIndex getPathIndex() {
+		if (this.pathIndex == null) {
+			this.pathIndex = new PathIndex(this);
+		}
+		return this.pathIndex;
+	}
+	
+	/**
+	 * Variable referencing the PathIndex of this World, if already created.
+	 */
+	private PathIndex pathIndex;
+	
 	/**
 	 * Gives back all GameObjects that are currently present in the cube with
 	 * the given coordinate, if any.
@@ -711,42 +1598,201 @@ public class World {
 			throw new IllegalArgumentException("Given coordinate is invalid: " + coordinate.toString());
 		}
 		Set<GameObject> result = new HashSet<GameObject>();
-		for (Unit unit : this.units) {
-			if (this.cubeCoordinates(unit.getPosition()).equals(coordinate)) {
-				result.add(unit);
-			}
+		this.spatialHash.collectInCube(getIndex(coordinate.getX(), coordinate.getY(), coordinate.getZ()), GameObject.class, result);
+		return result;
+	}
+
+	/**
+	 * Gives back all Units that are currently present in the cube with the
+	 * given coordinate, if any.
+	 * @param coordinate
+	 * 		The Coordinate of the cube to list the Units of.
+	 * @return
+	 * 		A new (Hash)Set of all Units of this World with Positions located
+	 * 		within the cube which corresponds to the given Coordinate.
+	 * @throws IllegalArgumentException
+	 * 		If the given Coordinate is not a valid coordinate for this World.
+	 */
+	public Set<Unit> listUnitsInCube(Coordinate coordinate) throws IllegalArgumentException {
+		if (!canHaveAsCoordinate(coordinate)) {
+			throw new IllegalArgumentException("Given coordinate is invalid: " + coordinate.toString());
 		}
-		for (Item item : this.items) {
-			if (this.cubeCoordinates(item.getPosition()).equals(coordinate)) {
-				result.add(item);
-			}
+		Set<Unit> result = new HashSet<Unit>();
+		this.spatialHash.collectInCube(getIndex(coordinate.getX(), coordinate.getY(), coordinate.getZ()), Unit.class, result);
+		return result;
+	}
+
+	/**
+	 * Gives back all Units that are currently present in the cubes next to
+	 * the cube with the given coordinate, not counting that cube itself.
+	 * @param coordinate
+	 * 		The Coordinate of the cube to look around.
+	 * @return
+	 * 		A new (Hash)Set of all Units of this World with Positions located
+	 * 		within one of the 26 cubes neighbouring the given Coordinate.
+	 * @throws IllegalArgumentException
+	 * 		If the given Coordinate is not a valid coordinate for this World.
+	 */
+	public Set<Unit> listUnitsAround(Coordinate coordinate) throws IllegalArgumentException {
+		if (!canHaveAsCoordinate(coordinate)) {
+			throw new IllegalArgumentException("Given coordinate is invalid: " + coordinate.toString());
 		}
+		Set<Unit> result = new HashSet<Unit>();
+		this.spatialHash.collectAround(getIndex(coordinate.getX(), coordinate.getY(), coordinate.getZ()), Unit.class, result);
 		return result;
 	}
 
 	/**
-	 * To be called whenever the cubes Map changes.
-	 * @effect
-	 * 		
+	 * Gives back any one of the Items that are currently present in the cube
+	 * with the given coordinate.
+	 * @param coordinate
+	 * 		The Coordinate of the cube to look in.
+	 * @return
+	 * 		An Item of this World with a Position located within the cube
+	 * 		which corresponds to the given Coordinate, or null if there is none.
+	 * @throws IllegalArgumentException
+	 * 		If the given Coordinate is not a valid coordinate for this World.
 	 */
-	private void onCubesMapChanged() {
-		boolean changedCubesMap = false;
-		for (Coordinate coordinate : this.cubes.keySet()) {
-			if (!this.isSolidConnectedToBorder(coordinate)) {
-				try {
-					this.digOutCube(coordinate);
-					changedCubesMap = true;
-				} catch(IllegalArgumentException e) {
-					// Cube turns out to be air already or something similar.
-				}
+	public Item getAnyItemInCube(Coordinate coordinate) throws IllegalArgumentException {
+		if (!canHaveAsCoordinate(coordinate)) {
+			throw new IllegalArgumentException("Given coordinate is invalid: " + coordinate.toString());
+		}
+		return this.spatialHash.findInCube(getIndex(coordinate.getX(), coordinate.getY(), coordinate.getZ()), Item.class);
+	}
+
+	/**
+	 * Files the given GameObject under the cube of its current Position in
+	 * the SpatialHash of this World. GameObjects call this every time their
+	 * Position changes; GameObjects that do not belong to this World, or
+	 * that have no Position yet, are ignored.
+	 * @param gameObject
+	 * 		The GameObject whose Position may have changed.
+	 */
+	void updateCubeOf(GameObject gameObject) {
+		if (!this.units.contains(gameObject) && !this.items.contains(gameObject)) {
+			return;
+		}
+		Position position = gameObject.getPosition();
+		if (position == null || !withinBounds(position)) {
+			return;
+		}
+		int cube = getIndex((int) position.getX(), (int) position.getY(),
+				(int) position.getZ());
+		int oldCube = gameObject.getCubeIndex();
+		if (cube == oldCube) {
+			return;
+		}
+		SpatialHash typeHash = getTypeHash(gameObject);
+		if (oldCube < 0) {
+			this.spatialHash.insert(gameObject, cube);
+			if (typeHash != null) {
+				typeHash.insert(gameObject, cube);
+			}
+		} else {
+			this.spatialHash.move(gameObject, oldCube, cube);
+			if (typeHash != null) {
+				typeHash.move(gameObject, oldCube, cube);
 			}
 		}
-		if (changedCubesMap) {
-			// We changed the cubes map's contents
-			this.onCubesMapChanged();
+		gameObject.setCubeIndex(cube);
+		if (gameObject instanceof Item) {
+			// An Item may no longer be resting in its new cube
+			this.activeItems.add((Item) gameObject);
 		}
 	}
-	
+
+	/**
+	 * Removes the given GameObject from the SpatialHash of this World, if it
+	 * is filed there.
+	 * @param gameObject
+	 * 		The GameObject to remove.
+	 */
+	private void unfile(GameObject gameObject) {
+		if (gameObject.getCubeIndex() >= 0) {
+			this.spatialHash.remove(gameObject, gameObject.getCubeIndex());
+			SpatialHash typeHash = getTypeHash(gameObject);
+			if (typeHash != null) {
+				typeHash.remove(gameObject, gameObject.getCubeIndex());
+			}
+			gameObject.setCubeIndex(-1);
+		}
+	}
+
+	/**
+	 * Gives back the SpatialHash that files the GameObjects of the same type
+	 * as the given GameObject, or null if that type has none.
+	 */
+	private SpatialHash getTypeHash(GameObject gameObject) {
+		if (gameObject instanceof Boulder) {
+			return this.boulderHash;
+		} else if (gameObject instanceof Log) {
+			return this.logHash;
+		}
+		return null;
+	}
+
+	/**
+	 * Gives back the Boulder closest to the given Unit that it can reach.
+	 * @param unit
+	 * 		The Unit to look for a Boulder for.
+	 * @return
+	 * 		The Boulder of this World whose Position is closest to the
+	 * 		Position of the given Unit among those in a cube the Unit can
+	 * 		reach, or null if there is none.
+	 */
+	public Boulder findNearestBoulder(Unit unit) {
+		return this.boulderHash.findNearest(unit.getPosition(), Boulder.class,
+				boulder -> unit.isReachable(boulder.getPosition().toCoordinate()));
+	}
+
+	/**
+	 * Gives back the Log closest to the given Unit that it can reach.
+	 * @param unit
+	 * 		The Unit to look for a Log for.
+	 * @return
+	 * 		The Log of this World whose Position is closest to the Position
+	 * 		of the given Unit among those in a cube the Unit can reach, or
+	 * 		null if there is none.
+	 */
+	public Log findNearestLog(Unit unit) {
+		return this.logHash.findNearest(unit.getPosition(), Log.class,
+				log -> unit.isReachable(log.getPosition().toCoordinate()));
+	}
+
+	/**
+	 * Gives back the workshop closest to the given Unit that it can reach.
+	 * @param unit
+	 * 		The Unit to look for a workshop for.
+	 * @return
+	 * 		The Coordinate of the WORKSHOP cube of this World whose centre is
+	 * 		closest to the Position of the given Unit among those the Unit
+	 * 		can reach, or null if there is none.
+	 */
+	public Coordinate findNearestWorkshop(Unit unit) {
+		int index = this.workshopHash.findNearestMarked(unit.getPosition(),
+				cube -> unit.isReachable(getCoordinate(cube)));
+		return index < 0 ? null : getCoordinate(index);
+	}
+
+	/**
+	 * Variable referencing the SpatialHash that files the Units and Items of
+	 * this World by the cube they are in.
+	 */
+	private final SpatialHash spatialHash;
+
+	/**
+	 * Variables referencing the SpatialHashes that file the Boulders and the
+	 * Logs of this World only.
+	 */
+	private final SpatialHash boulderHash;
+	private final SpatialHash logHash;
+
+	/**
+	 * Variable referencing the SpatialHash that marks the WORKSHOP cubes of
+	 * this World.
+	 */
+	private final SpatialHash workshopHash;
+
 	/**
 	 * Tells whether the cube at the given coordinate is both solid and
 	 * (in)directly connected to the border of this World.
@@ -839,6 +1885,8 @@ public class World {
 	public void addUnit(@Raw Unit unit) {
 		assert (unit != null) && (unit.getWorld() == this) && (this.getNbUnits() < this.getMaxUnits());
 		units.add(unit);
+		awakeUnits.add(unit);
+		updateCubeOf(unit);
 	}
 
 	/**
@@ -859,6 +1907,11 @@ public class World {
 	public void removeUnit(Unit unit) {
 		assert this.hasAsUnit(unit) && (unit.getWorld() == null);
 		units.remove(unit);
+		awakeUnits.remove(unit);
+		if (unit.isAsleep()) {
+			unit.awaken(this.getSimulationTime());
+		}
+		unfile(unit);
 	}
 
 	/**
@@ -872,6 +1925,8 @@ public class World {
 	 *       | for each unit in units:
 	 *       |   ( (unit != null) &&
 	 *       |     (! unit.isTerminated()) )
+	 * @Invar  The referenced set iterates its Units in the order they were
+	 *         added, which is the order of their identifiers.
 	 */
 	private final Set<Unit> units;
 	
@@ -1014,6 +2069,8 @@ public class World {
 	public void addItem(@Raw Item item) {
 		assert (item != null) && (item.getWorld() == this);
 		items.add(item);
+		activeItems.add(item);
+		updateCubeOf(item);
 	}
 
 	/**
@@ -1034,6 +2091,8 @@ public class World {
 	public void removeItem(Item item) {
 		assert this.hasAsItem(item) && (item.getWorld() == null);
 		items.remove(item);
+		activeItems.remove(item);
+		unfile(item);
 	}
 
 	/**
@@ -1057,6 +2116,21 @@ public class World {
 	 */
 	private final Set<Item> items;
 	
+	/**
+	 * Gives back the number of Items of this World that are advanced every
+	 * tick, as opposed to resting on solid ground.
+	 */
+	public int getNbActiveItems() {
+		return this.activeItems.size();
+	}
+	
+	/**
+	 * Variable referencing the Items of this World that may be falling. An
+	 * Item that rests on solid ground leaves this set, until it moves to
+	 * another cube or the cube under it is dug out.
+	 */
+	private final Set<Item> activeItems = new LinkedHashSet<Item>();
+	
 	/**
 	 * Gives back all Boulders in this World.
 	 * @return
@@ -1128,21 +2202,650 @@ public class World {
 	
 	/* ADVANCE TIME */
 	
+	/**
+	 * Advances the simulation clock of this World by the given time.
+	 * 
+	 * The World always advances in ticks of exactly getFixedTimeStep(). The
+	 * given time is added to the time left over from earlier calls, and as
+	 * many ticks are run as fit in it; the rest is left over for the next
+	 * call. The outcome therefore only depends on the total time advanced,
+	 * and not on how that time was divided over the calls.
+	 * @param dt
+	 * 		The time by which to advance, expressed in seconds.
+	 * @effect
+	 * 		| let n = floor((getLeftoverTime() + dt) / getFixedTimeStep()) in
+	 * 		|	for n times: tick(getFixedTimeStep())
+	 * @post
+	 * 		| new.getSimulationTime() + new.getLeftoverTime() ==
+	 * 		|	getSimulationTime() + getLeftoverTime() + dt
+	 * @post
+	 * 		| new.getLeftoverTime() < getFixedTimeStep()
+	 * @throws IllegalArgumentException
+	 * 		If the given time is negative, infinite or not a number.
+	 */
+	public void advanceTime(double dt) throws IllegalArgumentException {
+		if (!(dt >= 0 && dt < Double.POSITIVE_INFINITY)) {
+			throw new IllegalArgumentException("Time to advance must be finite and not negative: " + dt);
+		}
+		double step = this.getFixedTimeStep();
+		double leftover = this.leftoverTime + dt;
+		// Summing slices such as 0.1 is not exact, so a tick that is short by
+		// less than TIME_EPSILON counts as complete.
+		while (leftover >= step - TIME_EPSILON) {
+			this.tick(step);
+			leftover -= step;
+		}
+		this.leftoverTime = Math.max(0, leftover);
+	}
+	
+	/**
+	 * The time by which the time left over for the next tick may fall short
+	 * of a whole tick and still be run as one, in seconds.
+	 */
+	private static final double TIME_EPSILON = 1e-9;
+	
+	/**
+	 * Advances the simulation clock of this World by the given time as fast
+	 * as possible. Unlike advanceTime, the GUI is not notified of terrain
+	 * changes after every tick, but only once at the end, and only once for
+	 * each changed cube.
+	 * @param seconds
+	 * 		The time by which to advance, expressed in seconds.
+	 * @effect
+	 * 		| advanceTime(seconds)
+	 * @throws IllegalArgumentException
+	 * 		If the given time is negative, infinite or not a number.
+	 */
+	public void fastForward(double seconds) throws IllegalArgumentException {
+		boolean wasDeferred = this.terrainNotificationsDeferred;
+		this.terrainNotificationsDeferred = true;
+		try {
+			this.advanceTime(seconds);
+		} finally {
+			this.terrainNotificationsDeferred = wasDeferred;
+			this.flushTerrainNotifications();
+		}
+	}
+	
+	/**
+	 * Gives back the total time this World has advanced, in seconds.
+	 */
+	@Basic
+	public double getSimulationTime() {
+		return this.simulationTime;
+	}
+	
+	/**
+	 * Variable registering the total time this World has advanced.
+	 */
+	private double simulationTime;
+	
+	/**
+	 * Gives back the time that was given to advanceTime, but was too short
+	 * to make another tick, in seconds. The next call to advanceTime
+	 * starts with it.
+	 */
+	@Basic
+	public double getLeftoverTime() {
+		return this.leftoverTime;
+	}
+	
+	/**
+	 * Variable registering the time that is left over for the next tick.
+	 */
+	private double leftoverTime;
+	
+	/**
+	 * Gives back the time this World advances in a single tick.
+	 */
+	@Basic
+	public double getFixedTimeStep() {
+		return this.fixedTimeStep;
+	}
+	
+	/**
+	 * Tells whether the given time step is valid for any World.
+	 * @param step
+	 * 		The time step to check.
+	 * @return
+	 * 		| result == (step > 0 && step <= getMaxTimeStep())
+	 */
+	public static boolean isValidFixedTimeStep(double step) {
+		return step > 0 && step <= getMaxTimeStep();
+	}
+	
+	/**
+	 * Sets the time this World advances in a single tick.
+	 * @param step
+	 * 		The new time step, in seconds.
+	 * @post
+	 * 		| new.getFixedTimeStep() == step
+	 * @throws IllegalArgumentException
+	 * 		| !isValidFixedTimeStep(step)
+	 */
+	public void setFixedTimeStep(double step) throws IllegalArgumentException {
+		if (!isValidFixedTimeStep(step)) {
+			throw new IllegalArgumentException("Invalid time step: " + step);
+		}
+		this.fixedTimeStep = step;
+	}
+	
+	/**
+	 * Gives back the longest time step any GameObject can advance by at once.
+	 * @return
+	 * 		| result == min(Unit.getMaxDT(), Item.getMaxDT())
+	 */
+	public static double getMaxTimeStep() {
+		return Math.min(Unit.getMaxDT(), Item.getMaxDT());
+	}
+	
+	/**
+	 * Variable registering the time this World advances in a single tick.
+	 * By default the World makes 50 ticks per second, so that the GUI, which
+	 * advances the World every frame, still sees it move smoothly.
+	 */
+	private double fixedTimeStep = 0.02;
+	
 	/**
 	 * Invokes the advanceTime method on all GameObjects in this World. That is
 	 * (all Units) ∪ (all Items).
+	 * 
+	 * Units advance in the order of their identifiers, and Items in the order
+	 * they were added, so with the same random seed the same inputs always
+	 * give the same outcome. If the tick parallelism is more than 1, each
+	 * tick starts with a phase in which the Units that will search a path
+	 * search it in parallel against the unchanging World (see
+	 * prepareUnits), after which they advance one by one as in the serial
+	 * mode. A Unit only uses what it prepared if nothing changed the terrain
+	 * in the mean time, so both modes give the same outcome.
+	 * 
+	 * Units that are only counting down (resting, working, attacking, or
+	 * idle without default behaviour) are put to sleep until their first
+	 * countdown runs out, and cost nothing until then. Anything that changes
+	 * what such a Unit has to do wakes it up before: new orders, being
+	 * attacked, or a change of the terrain next to it. In the same way, Items
+	 * resting on solid ground are only advanced again once they move or the
+	 * cube under them is dug out.
+	 * 
+	 * The Tasks of the Units that are ready for their next statements are
+	 * executed after all Units have advanced, within the statement budget
+	 * of the tick (see executeTasks).
 	 * @param dt
-	 * 		The time by which to advance, expressed in seconds.
+	 * 		The time by which to advance, expressed in seconds. Should not be
+	 * 		more than getMaxTimeStep().
 	 */
-	public void advanceTime(double dt) {
-		for (Unit unit : this.units) {
+	private void tick(double dt) {
+		this.wakeDueUnits();
+		if (this.tickPool != null) {
+			this.prepareUnits();
+		}
+		// Units may die, fall asleep or wake up others while advancing, so
+		// look up the next awake Unit each time.
+		double end = this.getSimulationTime() + dt;
+		this.tickEnd = end;
+		Unit unit = this.awakeUnits.isEmpty() ? null : this.awakeUnits.first();
+		while (unit != null) {
+			this.tickCursor = unit.getId();
 			unit.advanceTime(dt);
+			if (this.awakeUnits.contains(unit)) {
+				double sleepTime = unit.getSleepTime();
+				if (sleepTime > dt) {
+					this.putToSleep(unit, end, sleepTime);
+				}
+			}
+			unit = this.awakeUnits.higher(unit);
 		}
-		for (Item item : this.items) {
-			item.advanceTime(dt);
+		this.tickCursor = Long.MAX_VALUE;
+		this.executeTasks();
+		for (Item item : new ArrayList<Item>(this.activeItems)) {
+			if (this.hasAsItem(item)) {
+				item.advanceTime(dt);
+				if (item.isAtRest()) {
+					this.activeItems.remove(item);
+				}
+			}
+		}
+		this.tickCursor = Long.MIN_VALUE;
+		this.simulationTime = end;
+		this.nbTicks++;
+	}
+	
+	/**
+	 * Lets the awake Units that will search a path in this tick search it
+	 * now, spread over the threads of the tick pool. Units setting off
+	 * towards a new destination search the most, since default behavior
+	 * picks its destinations a tick before setting off. If fewer than two
+	 * Units have to search, they are left to do so while advancing, since
+	 * handing one search to the pool costs more than it saves.
+	 */
+	private void prepareUnits() {
+		List<Unit> units = this.unitsToPrepare;
+		for (Unit unit : this.awakeUnits) {
+			if (unit.needsPreparation()) {
+				units.add(unit);
+			}
+		}
+		if (units.size() > 1) {
+			// Each worker takes the next Unit until none are left, so a few
+			// long searches do not hold up the others.
+			AtomicInteger next = new AtomicInteger();
+			List<Callable<Void>> workers = new ArrayList<Callable<Void>>();
+			for (int i = 0; i < Math.min(this.getTickParallelism(), units.size()); i++) {
+				workers.add(() -> {
+					PathFinder pathFinder = this.getTickPathFinder();
+					for (int j = next.getAndIncrement(); j < units.size(); j = next.getAndIncrement()) {
+						units.get(j).prepareAdvanceTime(pathFinder);
+					}
+					return null;
+				});
+			}
+			for (Future<Void> worker : this.tickPool.invokeAll(workers)) {
+				try {
+					worker.get();
+				} catch (InterruptedException | ExecutionException e) {
+					throw new IllegalStateException("Preparing the Units failed", e);
+				}
+			}
+		}
+		units.clear();
+	}
+	
+	/**
+	 * The Units to prepare in the current tick.
+	 */
+	private final List<Unit> unitsToPrepare = new ArrayList<Unit>();
+	
+	/**
+	 * Gives back the number of ticks this World has advanced.
+	 */
+	@Basic
+	public long getNbTicks() {
+		return this.nbTicks;
+	}
+	
+	/**
+	 * Variable registering the number of ticks this World has advanced.
+	 */
+	private long nbTicks;
+	
+	/**
+	 * Stops advancing the given Unit until the given time has passed, or
+	 * until something wakes it up before.
+	 * @param unit
+	 * 		The Unit to put to sleep, which has to be awake.
+	 * @param time
+	 * 		The simulation time at which the Unit falls asleep.
+	 * @param sleepTime
+	 * 		The time the Unit can sleep, as given by getSleepTime.
+	 */
+	private void putToSleep(Unit unit, double time, double sleepTime) {
+		this.awakeUnits.remove(unit);
+		long sleep = unit.fallAsleep(time);
+		if (sleepTime < Double.POSITIVE_INFINITY) {
+			this.wakeUps.add(new WakeUp(time + sleepTime, unit, sleep));
 		}
 	}
 	
+	/**
+	 * Wakes up all Units of which the sleep has run out at the current
+	 * simulation time. Wake-ups of Units that have been woken up before, or
+	 * that have left this World, are ignored.
+	 */
+	private void wakeDueUnits() {
+		double now = this.getSimulationTime() + WAKE_UP_MARGIN;
+		while (!this.wakeUps.isEmpty() && this.wakeUps.peek().time <= now) {
+			WakeUp wakeUp = this.wakeUps.poll();
+			if (wakeUp.unit.getWorld() == this && wakeUp.unit.isAsleep() &&
+					wakeUp.unit.getNbSleeps() == wakeUp.sleep) {
+				this.wakeUp(wakeUp.unit);
+			}
+		}
+	}
+	
+	/**
+	 * Makes the given Unit advance again, if it is asleep. If this happens
+	 * during a tick, the Unit takes part in the rest of that tick, unless
+	 * the tick is already past it, in which case it sleeps until the end of
+	 * the tick, as if it had advanced.
+	 * @param unit
+	 * 		The Unit to wake up.
+	 */
+	void wakeUp(Unit unit) {
+		if (unit.isAsleep() && this.hasAsUnit(unit)) {
+			unit.awaken(unit.getId() < this.tickCursor ? this.tickEnd : this.getSimulationTime());
+			this.awakeUnits.add(unit);
+		}
+	}
+	
+	/**
+	 * The identifier of the Unit advancing in the current tick, Long.MAX_VALUE
+	 * once all Units have advanced, and Long.MIN_VALUE outside of a tick; and
+	 * the simulation time at the end of the current tick.
+	 */
+	private long tickCursor = Long.MIN_VALUE;
+	private double tickEnd;
+	
+	/**
+	 * Gives back the number of Units of this World that are advanced every
+	 * tick, as opposed to sleeping until one of their countdowns runs out.
+	 */
+	public int getNbAwakeUnits() {
+		return this.awakeUnits.size();
+	}
+	
+	/**
+	 * The Units of this World that are not asleep, in the order of their
+	 * identifiers.
+	 */
+	private final TreeSet<Unit> awakeUnits = new TreeSet<Unit>(
+			(unit1, unit2) -> Long.compare(unit1.getId(), unit2.getId()));
+	
+	/**
+	 * The times at which sleeping Units have to wake up, earliest first, and
+	 * for equal times in the order of the identifiers of the Units.
+	 */
+	private final PriorityQueue<WakeUp> wakeUps = new PriorityQueue<WakeUp>();
+	
+	/**
+	 * Buffer collecting the Units to wake up around a changed cube.
+	 */
+	private final List<Unit> unitsToWake = new ArrayList<Unit>();
+	
+	/**
+	 * How much earlier than planned a Unit may wake up, so that rounding
+	 * errors in the simulation time do not make it wake up a tick late.
+	 */
+	private static final double WAKE_UP_MARGIN = 1e-9;
+	
+	/**
+	 * A planned wake-up of a Unit, which is only valid as long as the Unit
+	 * has not woken up and fallen asleep again since.
+	 */
+	private static class WakeUp implements Comparable<WakeUp> {
+		
+		private WakeUp(double time, Unit unit, long sleep) {
+			this.time = time;
+			this.unit = unit;
+			this.sleep = sleep;
+		}
+		
+		@Override
+		public int compareTo(WakeUp other) {
+			int result = Double.compare(this.time, other.time);
+			return result != 0 ? result : Long.compare(this.unit.getId(), other.unit.getId());
+		}
+		
+		private final double time;
+		private final Unit unit;
+		private final long sleep;
+	}
+	
+	/**
+	 * Gives back the number of threads this World uses to prepare the Units
+	 * for each tick.
+	 */
+	@Basic
+	public int getTickParallelism() {
+		return this.tickPool == null ? 1 : this.tickPool.getParallelism();
+	}
+	
+	/**
+	 * Sets the number of threads this World uses to prepare the Units for
+	 * each tick.
+	 * @param parallelism
+	 * 		The number of threads; 1 to advance time serially.
+	 * @post
+	 * 		| new.getTickParallelism() == parallelism
+	 * @throws IllegalArgumentException
+	 * 		If the given parallelism is less than 1.
+	 */
+	public void setTickParallelism(int parallelism) throws IllegalArgumentException {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+		}
+		if (parallelism == getTickParallelism()) {
+			return;
+		}
+		if (this.tickPool != null) {
+			// Its threads give up their PathFinders as they terminate.
+			this.tickPool.shutdown();
+		}
+		this.tickPool = parallelism == 1 ? null :
+			new ForkJoinPool(parallelism, pool -> new TickThread(pool), null, false);
+	}
+	
+	/**
+	 * Variable referencing the pool preparing the Units for each tick, or
+	 * null when time advances serially.
+	 */
+	private ForkJoinPool tickPool;
+	
+	/**
+	 * A thread of the tick pool. Each has its own PathFinder, since a
+	 * PathFinder can only run one search at a time, which lives exactly as
+	 * long as the thread: the pool may stop idle threads and start new ones,
+	 * and is replaced as a whole when the parallelism changes.
+	 */
+	private class TickThread extends ForkJoinWorkerThread {
+		
+		private TickThread(ForkJoinPool pool) {
+			super(pool);
+			synchronized (tickPathFinders) {
+				tickPathFinders.add(this.pathFinder);
+			}
+		}
+		
+		@Override
+		protected void onTermination(Throwable exception) {
+			synchronized (tickPathFinders) {
+				tickPathFinders.remove(this.pathFinder);
+				nbRetiredPathSearches += this.pathFinder.getNbSearches();
+			}
+			super.onTermination(exception);
+		}
+		
+		private final PathFinder pathFinder = new PathFinder(World.this);
+	}
+	
+	/**
+	 * Gives back the PathFinder the current thread can prepare Units with:
+	 * its own if it is a thread of the tick pool, or the PathFinder of this
+	 * World for the thread advancing time, which may run workers itself
+	 * while it waits for the pool.
+	 */
+	private PathFinder getTickPathFinder() {
+		Thread thread = Thread.currentThread();
+		if (thread instanceof TickThread) {
+			return ((TickThread) thread).pathFinder;
+		}
+		return this.getPathFinder();
+	}
+	
+	/**
+	 * The PathFinders of the live threads of the tick pool, and the number
+	 * of searches run by those of threads that have terminated. Both are
+	 * guarded by the list.
+	 */
+	private final List<PathFinder> tickPathFinders = new ArrayList<PathFinder>();
+	private long nbRetiredPathSearches;
+	
+	/**
+	 * Gives back the number of PathFinders of live threads of the tick pool.
+	 */
+	int getNbTickPathFinders() {
+		synchronized (this.tickPathFinders) {
+			return this.tickPathFinders.size();
+		}
+	}
+	
+	/**
+	 * Gives back the number of path searches run for this World, both by
+	 * its own PathFinder and by the threads preparing Units.
+	 */
+	public long getNbPathSearches() {
+		long result = this.pathFinder == null ? 0 : this.pathFinder.getNbSearches();
+		synchronized (this.tickPathFinders) {
+			result += this.nbRetiredPathSearches;
+			for (PathFinder pathFinder : this.tickPathFinders) {
+				result += pathFinder.getNbSearches();
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Asks this World to execute the Task of the given Unit in the current
+	 * tick. The Task is executed after all Units have advanced, sharing the
+	 * statement budget of the tick with the Tasks of the other Units asking.
+	 * @param unit
+	 * 		The Unit of which to execute the Task.
+	 */
+	void requestTaskExecution(Unit unit) {
+		if (this.taskRequests.isEmpty() || this.taskRequests.get(this.taskRequests.size() - 1) != unit) {
+			this.taskRequests.add(unit);
+		}
+	}
+	
+	/**
+	 * Executes the Tasks of all Units that asked for it in this tick.
+	 * 
+	 * The budget of the tick (the number of statements per tick, plus what
+	 * was left over in earlier ticks) is handed out in rounds: every round,
+	 * each Task still running gets an equal share. A Task leaves once it
+	 * ends, fails or gives its Unit something to do. Units that were given
+	 * other orders after asking, such as resting, are skipped: they ask
+	 * again once they are idle. The rounds start with
+	 * the Unit after the one that was served last, so when the budget runs
+	 * out, the Units that were not served go first in the next tick.
+	 */
+	private void executeTasks() {
+		long start = System.nanoTime();
+		long budget = this.getTaskStatementsPerTick() + this.taskBudgetLeft;
+		int first = 0;
+		while (first < this.taskRequests.size() && this.taskRequests.get(first).getId() <= this.lastTaskUnitId) {
+			first++;
+		}
+		Deque<Unit> queue = new ArrayDeque<Unit>(this.taskRequests.size());
+		queue.addAll(this.taskRequests.subList(first, this.taskRequests.size()));
+		queue.addAll(this.taskRequests.subList(0, first));
+		this.taskRequests.clear();
+		long executed = 0;
+		while (budget > 0 && !queue.isEmpty()) {
+			long share = Math.max(1, budget / queue.size());
+			for (int i = queue.size(); i > 0 && budget > 0; i--) {
+				Unit unit = queue.poll();
+				Task task = unit.getTask();
+				if (unit.isTerminated() || !unit.canExecuteTask()) {
+					continue;
+				}
+				int slice = (int) Math.min(share, budget);
+				int nbStatements = task.execute(slice);
+				budget -= nbStatements;
+				executed += nbStatements;
+				this.lastTaskUnitId = unit.getId();
+				if (nbStatements == slice && unit.getTask() == task && !task.isWaitingForUnit()) {
+					queue.add(unit);
+				}
+			}
+		}
+		this.taskBudgetLeft = Math.min(budget, this.getTaskStatementsPerTick());
+		this.nbTaskStatementsLastTick = executed;
+		this.taskExecutionTimeLastTick = System.nanoTime() - start;
+	}
+	
+	/**
+	 * Gives back the number of statements of Tasks this World executes in
+	 * each tick, shared by all Units with a Task.
+	 */
+	@Basic
+	public int getTaskStatementsPerTick() {
+		return this.taskStatementsPerTick;
+	}
+	
+	/**
+	 * Sets the number of statements of Tasks this World executes in each
+	 * tick.
+	 * @param nbStatements
+	 * 		The new number of statements.
+	 * @post
+	 * 		| new.getTaskStatementsPerTick() == nbStatements
+	 * @throws IllegalArgumentException
+	 * 		If the given number is less than 1.
+	 */
+	public void setTaskStatementsPerTick(int nbStatements) throws IllegalArgumentException {
+		if (nbStatements < 1) {
+			throw new IllegalArgumentException("Must execute at least 1 statement per tick: " + nbStatements);
+		}
+		this.taskStatementsPerTick = nbStatements;
+	}
+	
+	/**
+	 * Variable registering the number of statements of Tasks this World
+	 * executes in each tick.
+	 */
+	private int taskStatementsPerTick = 1000;
+	
+	/**
+	 * Gives back the number of statements left over from earlier ticks,
+	 * which the next tick may execute on top of its own budget. At most one
+	 * tick's worth is kept.
+	 */
+	@Basic
+	public long getTaskBudgetLeft() {
+		return this.taskBudgetLeft;
+	}
+	
+	private long taskBudgetLeft;
+	
+	/**
+	 * Gives back the number of statements of Tasks executed in the last
+	 * tick.
+	 */
+	@Basic
+	public long getNbTaskStatementsLastTick() {
+		return this.nbTaskStatementsLastTick;
+	}
+	
+	private long nbTaskStatementsLastTick;
+	
+	/**
+	 * Gives back the time executing Tasks took in the last tick, in
+	 * nanoseconds.
+	 */
+	@Basic
+	public long getTaskExecutionTimeLastTick() {
+		return this.taskExecutionTimeLastTick;
+	}
+	
+	private long taskExecutionTimeLastTick;
+	
+	/**
+	 * The Units that asked to execute their Task in the current tick, in the
+	 * order they asked.
+	 */
+	private final List<Unit> taskRequests = new ArrayList<Unit>();
+	
+	/**
+	 * The identifier of the last Unit of which a Task was executed.
+	 */
+	private long lastTaskUnitId = Long.MIN_VALUE;
+	
+	/**
+	 * Gives back the number of times the terrain of this World has changed.
+	 * Anything computed from the terrain at the same version is still up to
+	 * date.
+	 */
+	@Basic
+	public long getTerrainVersion() {
+		return this.terrainVersion;
+	}
+	
+	/**
+	 * Variable registering the number of times the terrain of this World has
+	 * changed.
+	 */
+	private long terrainVersion;
+	
 	
 	/* FACTIONS */
 
@@ -1262,7 +2965,7 @@ public class World {
 	private final int maxZCoordinate;
 	private final int minZCoordinate;
 	private final TerrainChangeListener terrainChangeListener;
-	private final ConnectedToBorder connectedToBorder;
+	private final BorderConnectivity connectedToBorder;
 	private final double boulderDropChance = 0.25d;
 	private final double logDropChance = 0.25d;
 
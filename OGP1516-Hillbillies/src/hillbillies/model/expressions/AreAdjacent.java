@@ -3,8 +3,6 @@ package hillbillies.model.expressions;
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 import hillbillies.model.Coordinate;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class AreAdjacent extends Expression<Boolean>{
 
@@ -119,11 +117,6 @@ public class AreAdjacent extends Expression<Boolean>{
 	
 	/* Methods */
 	
-	@Override
-	public Boolean evaluate() throws WrongTypeException, IllegalArgumentException, VariableNotAssignedException {
-		return this.getTask().getUnit().getWorld().areAdjacentCubes(this.first.evaluate(), this.second.evaluate());
-	}
-
 	@Override
 	public boolean isWellTyped() {
 		return this.first.isWellTyped() && this.second.isWellTyped();
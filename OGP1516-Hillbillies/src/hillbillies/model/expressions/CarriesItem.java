@@ -2,8 +2,6 @@ package hillbillies.model.expressions;
 
 import hillbillies.model.expressions.*;
 import hillbillies.model.Unit;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class CarriesItem extends Expression<Boolean> {
 	
@@ -11,10 +9,6 @@ public class CarriesItem extends Expression<Boolean> {
 		this.setUnit(unit);
 	}
 	
-	public Boolean evaluate() throws WrongTypeException, VariableNotAssignedException {
-		return this.getUnit().evaluate().hasItem();
-	}
-	
 	public static boolean isValidUnit(Expression<Unit> unit){
 		return true;
 	} 
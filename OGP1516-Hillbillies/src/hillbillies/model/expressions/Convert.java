@@ -1,7 +1,5 @@
 package hillbillies.model.expressions;
 
-import hillbillies.model.WrongTypeException;
-
 public class Convert<T> extends Expression<T> {
 
 	public final Expression<?> expression;
@@ -25,15 +23,6 @@ public class Convert<T> extends Expression<T> {
 		this.clazz = clazz;
 	}
 
-	@Override
-	public T evaluate () throws WrongTypeException {
-	    try {
-	        return this.clazz.cast(expression);
-	    } catch(ClassCastException e) {
-	    	throw new WrongTypeException(e);
-	    }
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		// TODO I'm not even sure if this works
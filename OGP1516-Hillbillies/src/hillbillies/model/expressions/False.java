@@ -4,11 +4,6 @@ import hillbillies.model.expressions.*;
 
 public class False extends Expression<Boolean>{
 
-	@Override
-	public Boolean evaluate() {
-		return false;
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
@@ -5,25 +5,6 @@ import hillbillies.model.Unit;
 
 public class Friend extends Expression<Unit> {
 
-	@Override
-	public Unit evaluate() {
-		return
-				this
-				.getTask()
-				.getUnit()
-				.getFaction()
-				.getAllUnits()
-				.stream()
-				.filter(
-						(Unit u)
-						-> u != this.getTask().getUnit()
-						)
-
-				.filter((f) -> this.getTask().getUnit().isReachable(f.getPosition().toCoordinate()))
-				.findAny()
-				.get();
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
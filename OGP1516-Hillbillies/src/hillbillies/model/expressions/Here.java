@@ -6,11 +6,6 @@ import hillbillies.model.Coordinate;
 
 public class Here extends Expression<Coordinate> {
 	
-	@Override
-	public Coordinate evaluate() {
-		return this.getTask().getUnit().getPosition().toCoordinate();
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
@@ -1,8 +1,6 @@
 package hillbillies.model.expressions;
 
 import hillbillies.model.Unit;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class IsAlive extends Expression<Boolean> {
 	
@@ -10,10 +8,6 @@ public class IsAlive extends Expression<Boolean> {
 		this.setUnit(unit);
 	}
 	
-	public Boolean evaluate() throws WrongTypeException, VariableNotAssignedException {
-		return !this.getUnit().evaluate().isTerminated();
-	}
-	
 	public static boolean isValidUnit(Expression<Unit> unit){
 		return true;
 	} 
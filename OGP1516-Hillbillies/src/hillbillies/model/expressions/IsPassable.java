@@ -2,9 +2,6 @@ package hillbillies.model.expressions;
 
 import hillbillies.model.expressions.*;
 import hillbillies.model.Coordinate;
-import hillbillies.model.Position;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class IsPassable extends Expression<Boolean> {
 	
@@ -12,10 +9,6 @@ public class IsPassable extends Expression<Boolean> {
 		this.setPosition(position);
 	}
 	
-	public Boolean evaluate() throws IllegalArgumentException, WrongTypeException, VariableNotAssignedException{
-		return this.getTask().getScheduler().getFaction().getRandomUnit().getWorld().isPassableCube((Coordinate) position.evaluate());
-	}
-	
 	public void setPosition(Expression<Coordinate> position){
 		if (! this.isValidPosition(position)){
 			throw new IllegalArgumentException();
@@ -4,7 +4,6 @@ import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 import hillbillies.model.expressions.*;
 import hillbillies.model.Coordinate;
-import hillbillies.model.Position;
 
 public class Literal extends Expression<Coordinate> {
 	
@@ -47,7 +46,7 @@ public class Literal extends Expression<Coordinate> {
 	 *       | result == true	
 	*/
 	public static boolean isValidX(int X) {
-		return false;
+		return true;
 	}
 	
 	/**
@@ -88,7 +87,7 @@ public class Literal extends Expression<Coordinate> {
 	 *       | result == true	
 	*/
 	public static boolean isValidY(int X) {
-		return false;
+		return true;
 	}
 	
 	/**
@@ -133,7 +132,7 @@ public class Literal extends Expression<Coordinate> {
 	 *       | result == true	
 	*/
 	public static boolean isValidZ(int X) {
-		return false;
+		return true;
 	}
 	
 	/**
@@ -158,13 +157,6 @@ public class Literal extends Expression<Coordinate> {
 	 */
 	private int Z;
 	
-	/* Evaluate */
-	
-	@Override
-	public Coordinate evaluate() {
-		return new Coordinate(this.getX(), this.getY(), this.getZ());
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
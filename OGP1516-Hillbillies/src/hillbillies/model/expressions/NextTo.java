@@ -5,8 +5,6 @@ import be.kuleuven.cs.som.annotate.Raw;
 import hillbillies.model.Coordinate;
 import hillbillies.model.expressions.*;
 import hillbillies.model.Position;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class NextTo extends Expression<Coordinate>{
 		
@@ -69,12 +67,6 @@ public class NextTo extends Expression<Coordinate>{
 	 */
 	private Expression<Coordinate> position;
 
-	@Override
-	public Coordinate evaluate() throws IllegalArgumentException, WrongTypeException, VariableNotAssignedException{
-		return this.getTask().getUnit().getWorld().getNeighbors(this.getPosition().evaluate()).stream()
-		.filter((Coordinate c) -> this.getTask().getUnit().isReachable(c)).findAny().get();
-	}
-
 	@Override
 	public boolean isWellTyped () {
 		return this.getPosition().isWellTyped();
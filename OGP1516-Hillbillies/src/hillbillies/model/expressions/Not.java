@@ -1,7 +1,5 @@
 package hillbillies.model.expressions;
 
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 import hillbillies.model.expressions.*;
 
 public class Not extends Expression<Boolean>{
@@ -20,11 +18,6 @@ public class Not extends Expression<Boolean>{
 	
 	private Expression<Boolean> expression;
 	
-	@Override
-	public Boolean evaluate() throws WrongTypeException, VariableNotAssignedException {
-		return ! this.getExpression().evaluate();
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return this.getExpression().isWellTyped();
@@ -1,7 +1,5 @@
 package hillbillies.model.expressions;
 
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 import hillbillies.model.expressions.*;
 
 public class Or extends Expression<Boolean>{
@@ -31,11 +29,6 @@ public class Or extends Expression<Boolean>{
 
 	private Expression<Boolean> secondExpression;
 
-	@Override
-	public Boolean evaluate() throws WrongTypeException, VariableNotAssignedException {
-		return this.getFirstExpression().evaluate() || this.getSecondExpression().evaluate();
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return this.getFirstExpression().isWellTyped() && this.getSecondExpression().isWellTyped();
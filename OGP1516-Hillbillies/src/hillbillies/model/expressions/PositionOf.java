@@ -4,8 +4,6 @@ import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 import hillbillies.model.Coordinate;
 import hillbillies.model.Unit;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class PositionOf extends Expression<Coordinate>{
 
@@ -68,11 +66,6 @@ public class PositionOf extends Expression<Coordinate>{
 	 */
 	private Expression<Unit> unit;
 		
-	@Override
-	public Coordinate evaluate() throws WrongTypeException, VariableNotAssignedException {
-		return this.getUnit().evaluate().getPosition().toCoordinate();
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return this.getUnit().isWellTyped();
@@ -5,11 +5,6 @@ import hillbillies.model.Unit;
 
 public class This extends Expression<Unit> {
 
-	@Override
-	public Unit evaluate() {
-		return this.getTask().getUnit();
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
@@ -4,11 +4,6 @@ import hillbillies.model.expressions.*;
 
 public class True extends Expression<Boolean>{
 
-	@Override
-	public Boolean evaluate() {
-		return true;
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
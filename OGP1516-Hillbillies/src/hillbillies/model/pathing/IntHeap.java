@@ -0,0 +1,115 @@
+package hillbillies.model.pathing;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of int values ordered by int keys, stored in two
+ * parallel primitive arrays so that pushing and popping never boxes or
+ * allocates (apart from growing the arrays).
+ *
+ * Ties between equal keys are broken in favour of the smallest value, which
+ * keeps the order in which elements are popped deterministic.
+ */
+class IntHeap {
+
+	/**
+	 * Initializes an empty IntHeap with the given initial capacity.
+	 * @param capacity
+	 * 		The number of elements the heap can hold before growing.
+	 * @post
+	 * 		| new.isEmpty()
+	 */
+	IntHeap(int capacity) {
+		this.keys = new int[Math.max(capacity, 16)];
+		this.values = new int[this.keys.length];
+		this.size = 0;
+	}
+
+	/**
+	 * Tells whether this heap holds no elements.
+	 */
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Removes all elements from this heap, keeping its arrays.
+	 * @post
+	 * 		| new.isEmpty()
+	 */
+	void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Adds the given value with the given key to this heap.
+	 * @param key
+	 * 		The key by which the value is ordered.
+	 * @param value
+	 * 		The value to add.
+	 */
+	void push(int key, int value) {
+		if (this.size == this.keys.length) {
+			this.keys = Arrays.copyOf(this.keys, this.size * 2);
+			this.values = Arrays.copyOf(this.values, this.size * 2);
+		}
+		int i = this.size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!less(key, value, this.keys[parent], this.values[parent])) {
+				break;
+			}
+			this.keys[i] = this.keys[parent];
+			this.values[i] = this.values[parent];
+			i = parent;
+		}
+		this.keys[i] = key;
+		this.values[i] = value;
+	}
+
+	/**
+	 * Removes the smallest element of this heap and gives back its value.
+	 * @throws NoSuchElementException
+	 * 		| isEmpty()
+	 */
+	int pop() throws NoSuchElementException {
+		if (isEmpty()) {
+			throw new NoSuchElementException("Heap is empty");
+		}
+		int result = this.values[0];
+		int size = --this.size;
+		int key = this.keys[size];
+		int value = this.values[size];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && less(this.keys[child + 1], this.values[child + 1], this.keys[child], this.values[child])) {
+				child++;
+			}
+			if (!less(this.keys[child], this.values[child], key, value)) {
+				break;
+			}
+			this.keys[i] = this.keys[child];
+			this.values[i] = this.values[child];
+			i = child;
+		}
+		this.keys[i] = key;
+		this.values[i] = value;
+		return result;
+	}
+
+	/**
+	 * Tells whether the element (key1, value1) comes before (key2, value2).
+	 */
+	private static boolean less(int key1, int value1, int key2, int value2) {
+		return key1 < key2 || (key1 == key2 && value1 < value2);
+	}
+
+	private int[] keys;
+	private int[] values;
+	private int size;
+}
@@ -0,0 +1,180 @@
+package hillbillies.model.pathing;
+
+import java.util.NoSuchElementException;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import hillbillies.model.Coordinate;
+import hillbillies.model.World;
+
+/**
+ * A route computed by a PathFinder, walked one cube at a time.
+ *
+ * The route is stored as the voxel indices of its cubes together with a
+ * cursor, so taking a step is just advancing the cursor. A Path stays valid
+ * until a terrain change touches the part of the route that is still ahead,
+ * which is the cube currently being walked into and every cube after it.
+ * Since a cube's walkability depends on its 26 neighbours as well, a change
+ * touches the route iff it is in or next to one of those cubes.
+ *
+ * @Invar The cursor of each Path lies between 0 and its length.
+ * 		| 0 <= getCursor() && getCursor() <= getLength()
+ */
+public class Path {
+
+	/**
+	 * Initializes a valid Path over the given cubes of the given World.
+	 * @param world
+	 * 		The World the cubes belong to.
+	 * @param cubes
+	 * 		The indices of the cubes of the route, in order, excluding the
+	 * 		cube the route starts from.
+	 * @post
+	 * 		| new.getCursor() == 0 && new.isValid()
+	 * @throws IllegalArgumentException
+	 * 		If the given World or cubes are null.
+	 */
+	public Path(World world, int[] cubes) throws IllegalArgumentException {
+		if (world == null || cubes == null) {
+			throw new IllegalArgumentException("World or cubes is null");
+		}
+		this.world = world;
+		this.cubes = cubes;
+		this.cursor = 0;
+		this.valid = true;
+		int nbX = world.getMaxXCoordinate();
+		int nbXY = nbX * world.getMaxYCoordinate();
+		int[] box = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+				Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+		for (int cube : cubes) {
+			include(box, cube % nbX, (cube % nbXY) / nbX, cube / nbXY);
+		}
+		this.bounds = box;
+	}
+
+	/**
+	 * Gives back the number of cubes on this Path.
+	 */
+	@Basic
+	public int getLength() {
+		return this.cubes.length;
+	}
+
+	/**
+	 * Gives back the index of the cube at the given position of this Path.
+	 */
+	int getCubeAt(int position) {
+		return this.cubes[position];
+	}
+
+	/**
+	 * Gives back the number of cubes of this Path that have been handed out.
+	 */
+	@Basic
+	public int getCursor() {
+		return this.cursor;
+	}
+
+	/**
+	 * Tells whether this Path has cubes left to hand out.
+	 * @return
+	 * 		| result == (getCursor() < getLength())
+	 */
+	public boolean hasNext() {
+		return this.cursor < this.cubes.length;
+	}
+
+	/**
+	 * Gives back the next cube of this Path and moves the cursor past it.
+	 * @return
+	 * 		The coordinate of the cube at the cursor.
+	 * @post
+	 * 		| new.getCursor() == getCursor() + 1
+	 * @throws NoSuchElementException
+	 * 		| !hasNext()
+	 */
+	public Coordinate next() throws NoSuchElementException {
+		if (!hasNext()) {
+			throw new NoSuchElementException("End of path reached");
+		}
+		return this.world.getCoordinate(this.cubes[this.cursor++]);
+	}
+
+	/**
+	 * Gives back the last cube of this Path, or null if it has no cubes.
+	 */
+	public Coordinate getDestination() {
+		if (this.cubes.length == 0) {
+			return null;
+		}
+		return this.world.getCoordinate(this.cubes[this.cubes.length - 1]);
+	}
+
+	/**
+	 * Tells whether this Path can still be followed.
+	 */
+	@Basic
+	public boolean isValid() {
+		return this.valid;
+	}
+
+	/**
+	 * Marks this Path as no longer followable.
+	 * @post
+	 * 		| !new.isValid()
+	 */
+	public void invalidate() {
+		this.valid = false;
+	}
+
+	/**
+	 * Tells whether a change of the cube with the given coordinates can
+	 * affect the part of this Path that is still ahead.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 * 		True iff the given cube is in or next to the cube at the cursor
+	 * 		minus one, or any cube after it.
+	 */
+	public boolean touches(int x, int y, int z) {
+		int[] box = this.bounds;
+		if (x < box[0] - 1 || y < box[1] - 1 || z < box[2] - 1 ||
+				x > box[3] + 1 || y > box[4] + 1 || z > box[5] + 1) {
+			return false;
+		}
+		int nbX = this.world.getMaxXCoordinate();
+		int nbXY = nbX * this.world.getMaxYCoordinate();
+		for (int i = Math.max(this.cursor - 1, 0); i < this.cubes.length; i++) {
+			int cube = this.cubes[i];
+			if (Math.abs(cube % nbX - x) <= 1 && Math.abs((cube % nbXY) / nbX - y) <= 1 &&
+					Math.abs(cube / nbXY - z) <= 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Widens the given bounding box {minX, minY, minZ, maxX, maxY, maxZ} to
+	 * include the given cube.
+	 */
+	private static void include(int[] box, int x, int y, int z) {
+		box[0] = Math.min(box[0], x);
+		box[1] = Math.min(box[1], y);
+		box[2] = Math.min(box[2], z);
+		box[3] = Math.max(box[3], x);
+		box[4] = Math.max(box[4], y);
+		box[5] = Math.max(box[5], z);
+	}
+
+	private final World world;
+	private final int[] cubes;
+	private final int[] bounds;
+	private int cursor;
+	private boolean valid;
+
+	/**
+	 * Whether this Path is in the PathIndex of its World.
+	 */
+	boolean indexed;
+}
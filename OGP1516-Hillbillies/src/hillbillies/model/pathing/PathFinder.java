@@ -0,0 +1,289 @@
+package hillbillies.model.pathing;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import hillbillies.model.Coordinate;
+import hillbillies.model.World;
+
+/**
+ * An A* path finding engine over the cubes of a World.
+ *
+ * A cube can be walked through iff it is passable and it is around solid
+ * terrain (or on the ground of the World), which is the same rule Units
+ * follow when they move. Units move to any of the 26 neighbouring cubes;
+ * steps are weighed 100, 141 or 173 depending on whether they change one,
+ * two or three coordinates, and the remaining distance is estimated with
+ * the matching 3D octile distance, which never overestimates.
+ *
+ * All search buffers are primitive arrays over the voxel index of the World,
+ * allocated once and reused by every search: the open set is a binary heap
+ * of cube indices, the closed set is a BitSet, and the cost and predecessor
+ * arrays are validated with a generation stamp so they never need clearing.
+ * A PathFinder is therefore not thread-safe.
+ *
+ * @Invar The World of each PathFinder is effective.
+ * 		| getWorld() != null
+ */
+public class PathFinder {
+
+	/**
+	 * The cost of a step that changes one coordinate.
+	 */
+	public static final int STRAIGHT_COST = 100;
+
+	/**
+	 * The cost of a step that changes two coordinates, about 100*sqrt(2).
+	 */
+	public static final int DIAGONAL_COST = 141;
+
+	/**
+	 * The cost of a step that changes all three coordinates, about 100*sqrt(3).
+	 */
+	public static final int CUBE_DIAGONAL_COST = 173;
+
+	/**
+	 * The cost of a step, indexed by the number of coordinates it changes.
+	 */
+	private static final int[] STEP_COSTS = {0, STRAIGHT_COST, DIAGONAL_COST, CUBE_DIAGONAL_COST};
+
+	/**
+	 * Initializes a PathFinder for the given World.
+	 * @param world
+	 * 		The World to search paths in.
+	 * @post
+	 * 		| new.getWorld() == world
+	 * @throws IllegalArgumentException
+	 * 		If the given World is null.
+	 */
+	public PathFinder(World world) throws IllegalArgumentException {
+		if (world == null) {
+			throw new IllegalArgumentException("World is null");
+		}
+		this.world = world;
+		this.nbX = world.getMaxXCoordinate();
+		this.nbY = world.getMaxYCoordinate();
+		int nbCubes = world.getNbCubes();
+		this.costs = new int[nbCubes];
+		this.predecessors = new int[nbCubes];
+		this.stamps = new int[nbCubes];
+		this.walkableStamps = new int[nbCubes];
+		this.walkable = new BitSet(nbCubes);
+		this.closed = new BitSet(nbCubes);
+		this.open = new IntHeap(256);
+	}
+
+	/**
+	 * Gives back the World this PathFinder searches paths in.
+	 */
+	@Basic @Immutable
+	public World getWorld() {
+		return this.world;
+	}
+
+	/**
+	 * Gives back the number of path searches this PathFinder has run.
+	 */
+	@Basic
+	public long getNbSearches() {
+		return this.nbSearches;
+	}
+
+	/**
+	 * Computes a shortest path from the given start cube to the given
+	 * destination cube.
+	 * @param start
+	 * 		The cube to start from.
+	 * @param destination
+	 * 		The cube to go to.
+	 * @return
+	 * 		The indices of the cubes to walk through, in order, excluding the
+	 * 		start cube and including the destination. An empty array if the
+	 * 		start is the destination, and null if the destination cannot be
+	 * 		reached.
+	 * @throws IllegalArgumentException
+	 * 		If either cube is not within the bounds of the World.
+	 */
+	public int[] findPath(Coordinate start, Coordinate destination) throws IllegalArgumentException {
+		return findPath(toIndex(start), toIndex(destination));
+	}
+
+	/**
+	 * Computes a shortest path between the cubes with the given indices.
+	 * @param start
+	 * 		The index of the cube to start from.
+	 * @param destination
+	 * 		The index of the cube to go to.
+	 * @return
+	 * 		The indices of the cubes to walk through, in order, excluding the
+	 * 		start cube and including the destination. An empty array if the
+	 * 		start is the destination, and null if the destination cannot be
+	 * 		reached.
+	 */
+	public int[] findPath(int start, int destination) {
+		if (start == destination) {
+			return new int[0];
+		}
+		if (!search(start, destination)) {
+			return null;
+		}
+		int length = 0;
+		for (int cube = destination; cube != start; cube = this.predecessors[cube]) {
+			length++;
+		}
+		int[] result = new int[length];
+		for (int cube = destination; cube != start; cube = this.predecessors[cube]) {
+			result[--length] = cube;
+		}
+		return result;
+	}
+
+	/**
+	 * Tells whether the given destination cube can be reached from the given
+	 * start cube.
+	 * @param start
+	 * 		The cube to start from.
+	 * @param destination
+	 * 		The cube to go to.
+	 * @return
+	 * 		| result == (findPath(start, destination) != null)
+	 * @throws IllegalArgumentException
+	 * 		If either cube is not within the bounds of the World.
+	 */
+	public boolean isReachable(Coordinate start, Coordinate destination) throws IllegalArgumentException {
+		return isReachable(toIndex(start), toIndex(destination));
+	}
+
+	/**
+	 * Tells whether the cube with the given destination index can be reached
+	 * from the cube with the given start index.
+	 * @return
+	 * 		| result == (findPath(start, destination) != null)
+	 */
+	public boolean isReachable(int start, int destination) {
+		return start == destination || search(start, destination);
+	}
+
+	/**
+	 * Gives back an estimate of the cost to walk between the cubes with the
+	 * given indices, which is never higher than the real cost.
+	 * @return
+	 * 		The 3D octile distance between both cubes.
+	 */
+	public int estimate(int from, int to) {
+		int nbXY = this.nbX * this.nbY;
+		int dx = Math.abs(from % this.nbX - to % this.nbX);
+		int dy = Math.abs((from / this.nbX) % this.nbY - (to / this.nbX) % this.nbY);
+		int dz = Math.abs(from / nbXY - to / nbXY);
+		int min = Math.min(dx, Math.min(dy, dz));
+		int max = Math.max(dx, Math.max(dy, dz));
+		int mid = dx + dy + dz - min - max;
+		return CUBE_DIAGONAL_COST * min + DIAGONAL_COST * (mid - min) + STRAIGHT_COST * (max - mid);
+	}
+
+	/**
+	 * Runs A* from the given start to the given destination, filling the
+	 * predecessor array along the way.
+	 * @return
+	 * 		True iff the destination was reached.
+	 */
+	private boolean search(int start, int destination) {
+		this.nbSearches++;
+		nextGeneration();
+		if (!isWalkable(destination)) {
+			return false;
+		}
+		int generation = this.generation;
+		World world = this.world;
+		int[] costs = this.costs;
+		int[] stamps = this.stamps;
+		BitSet closed = this.closed;
+		IntHeap open = this.open;
+		closed.clear();
+		open.clear();
+
+		stamps[start] = generation;
+		costs[start] = 0;
+		this.predecessors[start] = -1;
+		open.push(estimate(start, destination), start);
+		while (!open.isEmpty()) {
+			int current = open.pop();
+			if (closed.get(current)) {
+				// A stale entry, the cube was reached more cheaply before.
+				continue;
+			}
+			if (current == destination) {
+				return true;
+			}
+			closed.set(current);
+			int cost = costs[current];
+			for (int n=0; n<World.NB_NEIGHBORS; n++) {
+				int neighbor = world.getNeighbor(current, n);
+				if (neighbor < 0 || closed.get(neighbor) || !isWalkable(neighbor)) {
+					continue;
+				}
+				int newCost = cost + STEP_COSTS[World.getNbChangedCoordinates(n)];
+				if (stamps[neighbor] != generation || newCost < costs[neighbor]) {
+					stamps[neighbor] = generation;
+					costs[neighbor] = newCost;
+					this.predecessors[neighbor] = current;
+					open.push(newCost + estimate(neighbor, destination), neighbor);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tells whether a Unit can walk through the cube with the given index,
+	 * remembering the answer for the rest of the current search.
+	 */
+	private boolean isWalkable(int index) {
+		if (this.walkableStamps[index] != this.generation) {
+			this.walkableStamps[index] = this.generation;
+			boolean result = this.world.isPassable(index) && this.world.isAroundSolid(index);
+			this.walkable.set(index, result);
+		}
+		return this.walkable.get(index);
+	}
+
+	/**
+	 * Starts a new generation, invalidating all costs and cached walkability
+	 * of the previous search.
+	 */
+	private void nextGeneration() {
+		if (this.generation == Integer.MAX_VALUE) {
+			Arrays.fill(this.stamps, 0);
+			Arrays.fill(this.walkableStamps, 0);
+			this.generation = 0;
+		}
+		this.generation++;
+	}
+
+	/**
+	 * Gives back the index of the given cube in the World.
+	 * @throws IllegalArgumentException
+	 * 		If the cube is not within the bounds of the World.
+	 */
+	private int toIndex(Coordinate cube) throws IllegalArgumentException {
+		if (!this.world.withinBounds(cube)) {
+			throw new IllegalArgumentException("Cube is out of bounds: " + cube);
+		}
+		return this.world.getIndex(cube.getX(), cube.getY(), cube.getZ());
+	}
+
+	private final World world;
+	private final int nbX;
+	private final int nbY;
+	private final int[] costs;
+	private final int[] predecessors;
+	private final int[] stamps;
+	private final int[] walkableStamps;
+	private final BitSet walkable;
+	private final BitSet closed;
+	private final IntHeap open;
+	private int generation;
+	private long nbSearches;
+}
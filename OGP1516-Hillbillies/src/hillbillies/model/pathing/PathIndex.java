@@ -0,0 +1,206 @@
+package hillbillies.model.pathing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import hillbillies.model.SpatialHash;
+import hillbillies.model.World;
+
+/**
+ * An index of the Paths being followed in a World, by the cubes they run
+ * through.
+ *
+ * The World is divided into cells of SpatialHash.CELL_SIZE cubes along each
+ * edge, and every Path is kept in each cell that holds one of its cubes. A
+ * terrain change can only touch a Path with a cube in or next to the changed
+ * cube, and those cubes lie in at most 2 x 2 x 2 cells, so a terrain change
+ * only checks the Paths in those cells rather than the Path of every Unit.
+ *
+ * A Path leaves the index as soon as a terrain change invalidates it.
+ */
+public class PathIndex {
+
+	/**
+	 * The base 2 logarithm of SpatialHash.CELL_SIZE.
+	 */
+	private static final int CELL_SHIFT = Integer.numberOfTrailingZeros(SpatialHash.CELL_SIZE);
+
+	/**
+	 * Initializes an empty PathIndex for the given World.
+	 * @param world
+	 * 		The World whose Paths will be indexed.
+	 * @throws IllegalArgumentException
+	 * 		If the given World is null.
+	 */
+	public PathIndex(World world) throws IllegalArgumentException {
+		if (world == null) {
+			throw new IllegalArgumentException("World is null");
+		}
+		this.nbX = world.getMaxXCoordinate();
+		this.nbY = world.getMaxYCoordinate();
+		this.nbZ = world.getMaxZCoordinate();
+		this.nbCellsX = ((this.nbX - 1) >> CELL_SHIFT) + 1;
+		this.nbCellsY = ((this.nbY - 1) >> CELL_SHIFT) + 1;
+		int nbCellsZ = ((this.nbZ - 1) >> CELL_SHIFT) + 1;
+		this.cells = new Path[this.nbCellsX * this.nbCellsY * nbCellsZ][];
+		this.sizes = new int[this.cells.length];
+	}
+
+	/**
+	 * Gives back the number of Paths in this PathIndex.
+	 */
+	@Basic
+	public int getNbPaths() {
+		return this.nbPaths;
+	}
+
+	/**
+	 * Tells whether the given Path is in this PathIndex.
+	 */
+	public boolean hasAsPath(Path path) {
+		return path != null && path.indexed;
+	}
+
+	/**
+	 * Adds the given Path, if it is valid and not yet in this PathIndex.
+	 * @param path
+	 * 		A Path over the cubes of the World of this PathIndex.
+	 * @post
+	 * 		| new.hasAsPath(path) == (hasAsPath(path) || path.isValid())
+	 * @throws IllegalArgumentException
+	 * 		If the given Path is null.
+	 */
+	public void add(Path path) throws IllegalArgumentException {
+		if (path == null) {
+			throw new IllegalArgumentException("Path is null");
+		}
+		if (path.indexed || !path.isValid()) {
+			return;
+		}
+		int previous = -1;
+		for (int i = 0; i < path.getLength(); i++) {
+			int cell = getCell(path.getCubeAt(i));
+			if (cell == previous) {
+				continue;
+			}
+			previous = cell;
+			Path[] paths = this.cells[cell];
+			int size = this.sizes[cell];
+			if (size > 0 && paths[size - 1] == path) {
+				// The Path has come back to a cell it was already put in.
+				continue;
+			}
+			if (paths == null) {
+				paths = this.cells[cell] = new Path[4];
+			} else if (size == paths.length) {
+				paths = this.cells[cell] = Arrays.copyOf(paths, 2 * size);
+			}
+			paths[size] = path;
+			this.sizes[cell] = size + 1;
+		}
+		path.indexed = true;
+		this.nbPaths++;
+	}
+
+	/**
+	 * Removes the given Path, if it is in this PathIndex.
+	 * @post
+	 * 		| ! new.hasAsPath(path)
+	 */
+	public void remove(Path path) {
+		if (!hasAsPath(path)) {
+			return;
+		}
+		int previous = -1;
+		for (int i = 0; i < path.getLength(); i++) {
+			int cell = getCell(path.getCubeAt(i));
+			if (cell == previous) {
+				continue;
+			}
+			previous = cell;
+			Path[] paths = this.cells[cell];
+			int size = this.sizes[cell];
+			for (int j = 0; j < size; j++) {
+				if (paths[j] == path) {
+					paths[j] = paths[size - 1];
+					paths[size - 1] = null;
+					this.sizes[cell] = size - 1;
+					break;
+				}
+			}
+		}
+		path.indexed = false;
+		this.nbPaths--;
+	}
+
+	/**
+	 * Invalidates every Path in this PathIndex that the change of the cube
+	 * with the given coordinates touches, and removes it.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @effect
+	 * 		| for each path in this PathIndex:
+	 * 		|	if (path.touches(x, y, z))
+	 * 		|		then path.invalidate() && remove(path)
+	 */
+	public void onTerrainChanged(int x, int y, int z) {
+		int minCellX = Math.max(x - 1, 0) >> CELL_SHIFT;
+		int maxCellX = Math.min(x + 1, this.nbX - 1) >> CELL_SHIFT;
+		int minCellY = Math.max(y - 1, 0) >> CELL_SHIFT;
+		int maxCellY = Math.min(y + 1, this.nbY - 1) >> CELL_SHIFT;
+		int minCellZ = Math.max(z - 1, 0) >> CELL_SHIFT;
+		int maxCellZ = Math.min(z + 1, this.nbZ - 1) >> CELL_SHIFT;
+		for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+					int cell = cellX + this.nbCellsX * (cellY + this.nbCellsY * cellZ);
+					Path[] paths = this.cells[cell];
+					for (int i = 0, size = this.sizes[cell]; i < size; i++) {
+						// A Path in several of these cells is only invalidated once.
+						if (paths[i].isValid() && paths[i].touches(x, y, z)) {
+							paths[i].invalidate();
+							this.invalidated.add(paths[i]);
+						}
+					}
+				}
+			}
+		}
+		// Only remove the Paths now, so no cell changes while it is scanned.
+		for (Path path : this.invalidated) {
+			remove(path);
+		}
+		this.invalidated.clear();
+	}
+
+	/**
+	 * Gives back the index of the cell holding the cube with the given index.
+	 */
+	private int getCell(int cube) {
+		int x = cube % this.nbX;
+		int y = (cube / this.nbX) % this.nbY;
+		int z = cube / (this.nbX * this.nbY);
+		return (x >> CELL_SHIFT) + this.nbCellsX * ((y >> CELL_SHIFT) + this.nbCellsY * (z >> CELL_SHIFT));
+	}
+
+	private final int nbX;
+	private final int nbY;
+	private final int nbZ;
+	private final int nbCellsX;
+	private final int nbCellsY;
+
+	/**
+	 * The Paths in each cell, of which only the first sizes[cell] are used.
+	 * Cells that never held a Path have no array.
+	 */
+	private final Path[][] cells;
+	private final int[] sizes;
+	private int nbPaths;
+
+	/**
+	 * The Paths invalidated by the terrain change being handled.
+	 */
+	private final List<Path> invalidated = new ArrayList<Path>();
+}
@@ -0,0 +1,396 @@
+package hillbillies.model.pathing;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import hillbillies.model.Coordinate;
+import hillbillies.model.World;
+
+/**
+ * An index of the walkable regions of a World, which answers whether one
+ * cube can be reached from another without searching a path.
+ *
+ * A cube is walkable iff it is passable and around solid terrain, exactly as
+ * for the PathFinder. Walkable cubes are grouped into connected components
+ * (over all 26 neighbours) with a union-find forest, so two walkable cubes
+ * are reachable from each other iff they have the same root.
+ *
+ * The index is kept up to date incrementally: a terrain change can only
+ * change the walkability of the 27 cubes around it. Cubes that become
+ * walkable get a fresh node and are united with their walkable neighbours,
+ * which handles every merge exactly. Cubes that stop walkable are left in the
+ * forest as dead nodes; as long as the walkable cubes around them are still
+ * connected among themselves, no component can have split. Otherwise the
+ * index is only marked stale and rebuilt on the next query, so a burst of
+ * terrain changes costs at most one rebuild. The index is also marked stale
+ * once there are more than twice as many nodes as walkable cubes, so that
+ * the rebuild drops the dead nodes and the forest does not keep growing.
+ *
+ * @Invar The World of each ReachabilityIndex is effective.
+ * 		| getWorld() != null
+ */
+public class ReachabilityIndex {
+
+	/**
+	 * Initializes a ReachabilityIndex over the current terrain of the given
+	 * World.
+	 * @param world
+	 * 		The World to index.
+	 * @post
+	 * 		| new.getWorld() == world
+	 * @throws IllegalArgumentException
+	 * 		If the given World is null.
+	 */
+	public ReachabilityIndex(World world) throws IllegalArgumentException {
+		if (world == null) {
+			throw new IllegalArgumentException("World is null");
+		}
+		this.world = world;
+		this.nbX = world.getMaxXCoordinate();
+		this.nbY = world.getMaxYCoordinate();
+		int nbCubes = world.getNbCubes();
+		this.walkable = new BitSet(nbCubes);
+		this.nodes = new int[nbCubes];
+		this.parents = new int[Math.max(nbCubes / 4, 16)];
+		this.sizes = new int[this.parents.length];
+		rebuild();
+	}
+
+	/**
+	 * Gives back the World this index describes.
+	 */
+	@Basic @Immutable
+	public World getWorld() {
+		return this.world;
+	}
+
+	/**
+	 * Gives back the number of times this index has been rebuilt from
+	 * scratch, including the initial build.
+	 */
+	@Basic
+	public int getNbRebuilds() {
+		return this.nbRebuilds;
+	}
+
+	/**
+	 * Gives back the number of nodes in the union-find forest of this index,
+	 * including those of cubes that are no longer walkable.
+	 */
+	@Basic
+	public int getNbNodes() {
+		return this.nbNodes;
+	}
+
+	/**
+	 * Gives back the number of walkable cubes in the World of this index.
+	 */
+	@Basic
+	public int getNbWalkable() {
+		return this.nbWalkable;
+	}
+
+	/**
+	 * Tells whether a Unit can walk through the cube with the given index.
+	 * @return
+	 * 		| result == getWorld().isPassable(index) &&
+	 * 		|	getWorld().isAroundSolid(getWorld().getCoordinate(index))
+	 */
+	public boolean isWalkable(int index) {
+		return this.walkable.get(index);
+	}
+
+	/**
+	 * Tells whether the given destination cube can be reached from the given
+	 * start cube.
+	 * @param start
+	 * 		The cube to start from.
+	 * @param destination
+	 * 		The cube to go to.
+	 * @return
+	 * 		| result == getWorld().getPathFinder().isReachable(start, destination)
+	 * @throws IllegalArgumentException
+	 * 		If either cube is not within the bounds of the World.
+	 */
+	public boolean isReachable(Coordinate start, Coordinate destination) throws IllegalArgumentException {
+		if (!this.world.withinBounds(start) || !this.world.withinBounds(destination)) {
+			throw new IllegalArgumentException("Cube is out of bounds: " + start + ", " + destination);
+		}
+		return isReachable(this.world.getIndex(start.getX(), start.getY(), start.getZ()),
+				this.world.getIndex(destination.getX(), destination.getY(), destination.getZ()));
+	}
+
+	/**
+	 * Tells whether the cube with the given destination index can be reached
+	 * from the cube with the given start index.
+	 * @return
+	 * 		True iff both are the same cube, or the destination is walkable and
+	 * 		the start cube is walkable and in the same component, or the start
+	 * 		cube is not walkable but has a walkable neighbour in the same
+	 * 		component as the destination.
+	 */
+	public boolean isReachable(int start, int destination) {
+		if (start == destination) {
+			return true;
+		}
+		if (!isWalkable(destination)) {
+			return false;
+		}
+		if (this.stale) {
+			rebuild();
+		}
+		int root = find(this.nodes[destination]);
+		if (isWalkable(start)) {
+			return find(this.nodes[start]) == root;
+		}
+		// A Unit standing somewhere it could not walk to can still step out
+		// of it into any walkable neighbour.
+		for (int n = 0; n < World.NB_NEIGHBORS; n++) {
+			int neighbor = this.world.getNeighbor(start, n);
+			if (neighbor >= 0 && isWalkable(neighbor) && find(this.nodes[neighbor]) == root) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * To be called whenever the cube with the given coordinates changed its
+	 * terrain type.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @post
+	 * 		The walkability of the cube and its neighbours is updated, and
+	 * 		all components stay correct, possibly by rebuilding later.
+	 */
+	public void onTerrainChanged(int x, int y, int z) {
+		int[] added = new int[27];
+		int nbAdded = 0;
+		int[] removed = new int[27];
+		int nbRemoved = 0;
+		// First update the walkability of all cubes around the changed one,
+		// so that no new cube is united with a neighbour that just died.
+		int changed = this.world.getIndex(x, y, z);
+		for (int n = -1; n < World.NB_NEIGHBORS; n++) {
+			int cube = n < 0 ? changed : this.world.getNeighbor(changed, n);
+			if (cube < 0) {
+				continue;
+			}
+			boolean wasWalkable = isWalkable(cube);
+			boolean nowWalkable = computeWalkable(cube);
+			if (nowWalkable && !wasWalkable) {
+				this.walkable.set(cube);
+				added[nbAdded++] = cube;
+			} else if (wasWalkable && !nowWalkable) {
+				this.walkable.clear(cube);
+				removed[nbRemoved++] = cube;
+			}
+		}
+		this.nbWalkable += nbAdded - nbRemoved;
+		if (this.stale) {
+			return;
+		}
+		if (this.nbNodes + nbAdded > 2 * Math.max(this.nbWalkable, MIN_NODES)) {
+			// Too many dead nodes: compact the forest with the next rebuild.
+			this.stale = true;
+			return;
+		}
+		for (int i = 0; i < nbAdded; i++) {
+			this.nodes[added[i]] = newNode();
+		}
+		for (int i = 0; i < nbAdded; i++) {
+			uniteWithNeighbors(added[i], false);
+		}
+		if (nbRemoved > 0 && !staysConnected(removed, nbRemoved)) {
+			this.stale = true;
+		}
+	}
+
+	/**
+	 * Recomputes all walkability and components from the terrain of the
+	 * World.
+	 */
+	private void rebuild() {
+		this.nbRebuilds++;
+		this.nbNodes = 0;
+		this.nbWalkable = 0;
+		this.walkable.clear();
+		Arrays.fill(this.nodes, -1);
+		for (int cube = 0; cube < this.nodes.length; cube++) {
+			if (computeWalkable(cube)) {
+				this.walkable.set(cube);
+				this.nbWalkable++;
+				this.nodes[cube] = newNode();
+				uniteWithNeighbors(cube, true);
+			}
+		}
+		this.stale = false;
+	}
+
+	/**
+	 * Unites the component of the given walkable cube with those of its
+	 * walkable neighbours, or only those with a lower index if so asked.
+	 */
+	private void uniteWithNeighbors(int cube, boolean onlyLower) {
+		for (int n = 0; n < World.NB_NEIGHBORS; n++) {
+			int neighbor = this.world.getNeighbor(cube, n);
+			if (neighbor >= 0 && (!onlyLower || neighbor < cube) && isWalkable(neighbor)) {
+				union(this.nodes[cube], this.nodes[neighbor]);
+			}
+		}
+	}
+
+	/**
+	 * Tells whether the walkable cubes around the given removed cubes are
+	 * still connected to each other using only cubes around the removed
+	 * ones. If so, every walk through a removed cube can go around it, so no
+	 * component has split.
+	 */
+	private boolean staysConnected(int[] removed, int nbRemoved) {
+		// Collect the walkable cubes around the removed ones.
+		int[] region = new int[27 * nbRemoved];
+		int nbRegion = 0;
+		for (int i = 0; i < nbRemoved; i++) {
+			for (int n = 0; n < World.NB_NEIGHBORS; n++) {
+				int neighbor = this.world.getNeighbor(removed[i], n);
+				if (neighbor >= 0 && isWalkable(neighbor) && indexOf(region, nbRegion, neighbor) < 0) {
+					region[nbRegion++] = neighbor;
+				}
+			}
+		}
+		if (nbRegion <= 1) {
+			return true;
+		}
+		// Flood the region from its first cube, over adjacent region cubes.
+		boolean[] reached = new boolean[nbRegion];
+		int[] queue = new int[nbRegion];
+		int head = 0;
+		int tail = 0;
+		reached[0] = true;
+		queue[tail++] = 0;
+		while (head < tail) {
+			int current = region[queue[head++]];
+			for (int i = 0; i < nbRegion; i++) {
+				if (!reached[i] && areNeighbors(current, region[i])) {
+					reached[i] = true;
+					queue[tail++] = i;
+				}
+			}
+		}
+		return tail == nbRegion;
+	}
+
+	/**
+	 * Tells whether the cubes with the given indices are distinct and
+	 * adjacent.
+	 */
+	private boolean areNeighbors(int cube1, int cube2) {
+		int nbXY = this.nbX * this.nbY;
+		return cube1 != cube2 &&
+				Math.abs(cube1 % this.nbX - cube2 % this.nbX) <= 1 &&
+				Math.abs((cube1 / this.nbX) % this.nbY - (cube2 / this.nbX) % this.nbY) <= 1 &&
+				Math.abs(cube1 / nbXY - cube2 / nbXY) <= 1;
+	}
+
+	/**
+	 * Gives back the position of the given value among the first elements of
+	 * the given array, or -1.
+	 */
+	private static int indexOf(int[] array, int length, int value) {
+		for (int i = 0; i < length; i++) {
+			if (array[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Tells whether the cube with the given index is walkable in the current
+	 * terrain of the World.
+	 */
+	private boolean computeWalkable(int cube) {
+		return this.world.isPassable(cube) && this.world.isAroundSolid(cube);
+	}
+
+	/**
+	 * Creates a new node that is the root of its own component.
+	 */
+	private int newNode() {
+		if (this.nbNodes == this.parents.length) {
+			this.parents = Arrays.copyOf(this.parents, this.nbNodes * 2);
+			this.sizes = Arrays.copyOf(this.sizes, this.nbNodes * 2);
+		}
+		this.parents[this.nbNodes] = this.nbNodes;
+		this.sizes[this.nbNodes] = 1;
+		return this.nbNodes++;
+	}
+
+	/**
+	 * Gives back the root of the given node, halving the path to it.
+	 */
+	private int find(int node) {
+		int[] parents = this.parents;
+		while (parents[node] != node) {
+			parents[node] = parents[parents[node]];
+			node = parents[node];
+		}
+		return node;
+	}
+
+	/**
+	 * Merges the components of both given nodes, hanging the smaller one
+	 * under the larger.
+	 */
+	private void union(int node1, int node2) {
+		int root1 = find(node1);
+		int root2 = find(node2);
+		if (root1 == root2) {
+			return;
+		}
+		if (this.sizes[root1] < this.sizes[root2]) {
+			int swap = root1;
+			root1 = root2;
+			root2 = swap;
+		}
+		this.parents[root2] = root1;
+		this.sizes[root1] += this.sizes[root2];
+	}
+
+	private final World world;
+	private final int nbX;
+	private final int nbY;
+
+	/**
+	 * The walkability of every cube.
+	 */
+	private final BitSet walkable;
+	private int nbWalkable;
+
+	/**
+	 * The node of every walkable cube, meaningless for other cubes.
+	 */
+	private final int[] nodes;
+
+	/**
+	 * The union-find forest over all nodes, including dead ones.
+	 */
+	private int[] parents;
+	private int[] sizes;
+	private int nbNodes;
+
+	/**
+	 * The number of nodes the forest may always grow to, however few cubes
+	 * are walkable, before it is compacted.
+	 */
+	private static final int MIN_NODES = 16;
+
+	/**
+	 * Whether a component may have split since the last rebuild.
+	 */
+	private boolean stale;
+	private int nbRebuilds;
+}
@@ -0,0 +1,140 @@
+package hillbillies.model.programs;
+
+import static hillbillies.model.programs.Program.*;
+
+import java.util.Arrays;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import hillbillies.model.VariableNotAssignedException;
+
+/**
+ * Where one Task is in the execution of its {@link Program}: the address of
+ * the next instruction and the values of its object and primitive
+ * registers.
+ *
+ * The Program itself is never changed by executing it, so all Tasks created
+ * from the same activity share one Program and each only need a frame of
+ * their own. Loops need no stack in the frame: a break is compiled into a
+ * jump to the end of its loop.
+ */
+public final class ExecutionFrame {
+
+	/**
+	 * Initialize this new frame at the start of the given program.
+	 * @param program
+	 * 		The program to execute.
+	 * @post
+	 * 		| new.getProgram() == program && ! new.isFinished()
+	 * @throws IllegalArgumentException
+	 * 		The given program is null.
+	 * 		| program == null
+	 */
+	public ExecutionFrame(Program program) throws IllegalArgumentException {
+		if (program == null)
+			throw new IllegalArgumentException("No program to execute");
+		this.program = program;
+		this.objects = new Object[program.getNbObjectRegisters()];
+		this.primitives = new long[program.getNbPrimitiveRegisters()];
+		Arrays.fill(this.primitives, UNASSIGNED);
+	}
+
+	/**
+	 * Return the program executed in this frame.
+	 */
+	@Basic @Immutable
+	public Program getProgram() {
+		return this.program;
+	}
+
+	private final Program program;
+
+	/**
+	 * Tells whether the program has ended.
+	 */
+	public boolean isFinished() {
+		return (this.program.code[this.pc] & OPCODE) == END;
+	}
+
+	/**
+	 * Return the number of statements executed the last time the program
+	 * was executed in this frame, also if that execution failed.
+	 */
+	@Basic
+	public int getNbExecuted() {
+		return this.nbExecuted;
+	}
+
+	int nbExecuted;
+
+	/**
+	 * Tells whether the last execution in this frame stopped right after an
+	 * action, which the Unit executing the program has yet to carry out.
+	 */
+	@Basic
+	public boolean isWaiting() {
+		return this.waiting;
+	}
+
+	boolean waiting;
+
+	/**
+	 * Go back to the start of the program and forget the values of all
+	 * variables.
+	 * @post
+	 * 		| ! new.isFinished()
+	 */
+	public void reset() {
+		this.pc = 0;
+		this.nbExecuted = 0;
+		this.waiting = false;
+		Arrays.fill(this.objects, null);
+		Arrays.fill(this.primitives, UNASSIGNED);
+	}
+
+	/**
+	 * Return the value of the variable with the given name.
+	 * @param name
+	 * 		The name of the variable.
+	 * @throws VariableNotAssignedException
+	 * 		The program has no variable with the given name, or it has not
+	 * 		been assigned yet.
+	 */
+	public Object getValue(String name) throws VariableNotAssignedException {
+		int register = this.program.getRegister(name);
+		if (register < 0)
+			throw new VariableNotAssignedException();
+		int index = register >> KIND_BITS;
+		switch (register & KIND_MASK) {
+		case BOOLEAN:
+			if (this.primitives[index] == UNASSIGNED)
+				throw new VariableNotAssignedException();
+			return this.primitives[index] != 0;
+		case CUBE:
+			if (this.primitives[index] == UNASSIGNED)
+				throw new VariableNotAssignedException();
+			return unpack(this.primitives[index]);
+		default:
+			if (this.objects[index] == null)
+				throw new VariableNotAssignedException();
+			return this.objects[index];
+		}
+	}
+
+	/**
+	 * The address of the next instruction to execute.
+	 */
+	int pc;
+
+	/**
+	 * The object registers of the program: the values of its Unit
+	 * variables and intermediate results.
+	 */
+	final Object[] objects;
+
+	/**
+	 * The primitive registers of the program: its booleans and packed cubes,
+	 * UNASSIGNED until written.
+	 */
+	final long[] primitives;
+}
@@ -0,0 +1,297 @@
+package hillbillies.model.programs;
+
+import static hillbillies.model.programs.Program.*;
+
+import java.util.NoSuchElementException;
+
+import hillbillies.model.BadFSMStateException;
+import hillbillies.model.Coordinate;
+import hillbillies.model.Faction;
+import hillbillies.model.Task;
+import hillbillies.model.Unit;
+import hillbillies.model.VariableNotAssignedException;
+import hillbillies.model.World;
+import hillbillies.model.WrongTypeException;
+
+/**
+ * Executes compiled activities: runs the {@link Program} of an
+ * {@link ExecutionFrame} from where it stopped, until the program ends, its
+ * Unit has been given something to do, or the number of statements it may
+ * execute has been used up.
+ */
+public final class Interpreter {
+
+	private Interpreter() {
+	}
+
+	/**
+	 * Execute at most the given number of statements of the program of the
+	 * given frame, for the Unit of the given Task.
+	 *
+	 * Execution stops early when the program ends, or right after an action
+	 * (moving, working or attacking): the Unit carries out that action first,
+	 * and the next call resumes after it.
+	 * @param frame
+	 * 		The frame holding the program and where its execution is.
+	 * @param task
+	 * 		The Task whose Unit executes the program.
+	 * @param budget
+	 * 		The maximal number of statements to execute.
+	 * @return The number of statements executed.
+	 * @throws BadFSMStateException
+	 * 		The Unit cannot carry out an action in its current state.
+	 * @throws WrongTypeException
+	 * 		A value does not have the type it is used as.
+	 * @throws VariableNotAssignedException
+	 * 		A variable is read before it is assigned.
+	 * @throws IllegalArgumentException
+	 * 		A cube or Unit used in an expression or action is not valid.
+	 * @throws NoSuchElementException
+	 * 		An expression asks for a log, boulder, workshop, Unit or cube
+	 * 		that cannot be found.
+	 */
+	public static int execute(ExecutionFrame frame, Task task, int budget) throws BadFSMStateException,
+			WrongTypeException, VariableNotAssignedException, IllegalArgumentException, NoSuchElementException {
+		final int[] code = frame.getProgram().code;
+		final Object[] constants = frame.getProgram().constants;
+		final long[] primitiveConstants = frame.getProgram().primitiveConstants;
+		final Object[] o = frame.objects;
+		final long[] p = frame.primitives;
+		final Unit unit = task.getUnit();
+		int pc = frame.pc;
+		int executed = 0;
+		frame.waiting = false;
+		try {
+			while (true) {
+				int opcode = code[pc];
+				if ((opcode & STATEMENT) != 0) {
+					if (executed == budget)
+						return executed;
+					executed++;
+				}
+				int target = code[pc + 1];
+				int a = code[pc + 2];
+				int b = code[pc + 3];
+				pc += WIDTH;
+				switch (opcode & OPCODE) {
+				case END:
+					pc -= WIDTH;
+					return executed;
+				case CONST:
+					o[target] = constants[a];
+					break;
+				case CONST_PRIMITIVE:
+					p[target] = primitiveConstants[a];
+					break;
+				case LOAD:
+					if (o[a] == null)
+						throw new VariableNotAssignedException();
+					o[target] = o[a];
+					break;
+				case LOAD_PRIMITIVE:
+					if (p[a] == UNASSIGNED)
+						throw new VariableNotAssignedException();
+					p[target] = p[a];
+					break;
+				case CAST:
+					if (!((Class<?>) constants[b]).isInstance(o[a]))
+						throw new WrongTypeException(o[a] + " is no " + constants[b]);
+					o[target] = o[a];
+					break;
+				case BOX_BOOLEAN:
+					o[target] = p[a] != 0;
+					break;
+				case BOX_CUBE:
+					o[target] = unpack(p[a]);
+					break;
+				case UNBOX_BOOLEAN:
+					if (!(o[a] instanceof Boolean))
+						throw new WrongTypeException(o[a] + " is no boolean");
+					p[target] = (Boolean) o[a] ? 1 : 0;
+					break;
+				case UNBOX_CUBE:
+					if (!(o[a] instanceof Coordinate))
+						throw new WrongTypeException(o[a] + " is no cube");
+					p[target] = pack((Coordinate) o[a]);
+					break;
+				case JUMP:
+					pc = b;
+					break;
+				case JUMP_IF_FALSE:
+					if (p[a] == 0)
+						pc = b;
+					break;
+				case JUMP_IF_TRUE:
+					if (p[a] != 0)
+						pc = b;
+					break;
+				case NOT:
+					p[target] = p[a] ^ 1;
+					break;
+				case HERE:
+					p[target] = pack((int) unit.getPosition().getX(), (int) unit.getPosition().getY(),
+							(int) unit.getPosition().getZ());
+					break;
+				case THIS:
+					o[target] = unit;
+					break;
+				case SELECTED:
+					if (task.getPosition() == null)
+						throw new NoSuchElementException("No cube selected");
+					p[target] = pack(task.getPosition());
+					break;
+				case LOG:
+					p[target] = pack(findLog(unit));
+					break;
+				case BOULDER:
+					p[target] = pack(findBoulder(unit));
+					break;
+				case WORKSHOP:
+					p[target] = pack(findWorkshop(unit));
+					break;
+				case ANY:
+					o[target] = findUnit(unit, null);
+					break;
+				case FRIEND:
+					o[target] = findUnit(unit, Boolean.TRUE);
+					break;
+				case ENEMY:
+					o[target] = findUnit(unit, Boolean.FALSE);
+					break;
+				case IS_SOLID:
+					p[target] = isPassable(unit.getWorld(), p[a]) ? 0 : 1;
+					break;
+				case IS_PASSABLE:
+					p[target] = isPassable(unit.getWorld(), p[a]) ? 1 : 0;
+					break;
+				case IS_FRIEND:
+					p[target] = ((Unit) o[a]).getFaction() == unit.getFaction() ? 1 : 0;
+					break;
+				case IS_ENEMY:
+					p[target] = ((Unit) o[a]).getFaction() != unit.getFaction() ? 1 : 0;
+					break;
+				case IS_ALIVE:
+					p[target] = ((Unit) o[a]).isTerminated() ? 0 : 1;
+					break;
+				case CARRIES_ITEM:
+					p[target] = ((Unit) o[a]).hasItem() ? 1 : 0;
+					break;
+				case NEXT_TO:
+					p[target] = findNeighbour(unit, p[a]);
+					break;
+				case POSITION_OF:
+					Unit other = (Unit) o[a];
+					p[target] = pack((int) other.getPosition().getX(), (int) other.getPosition().getY(),
+							(int) other.getPosition().getZ());
+					break;
+				case ARE_ADJACENT:
+					p[target] = areAdjacent(unit.getWorld(), p[a], p[b]) ? 1 : 0;
+					break;
+				case PRINT:
+					System.out.println(o[a]);
+					break;
+				case PRINT_BOOLEAN:
+					System.out.println(p[a] != 0);
+					break;
+				case PRINT_CUBE:
+					System.out.println(unpack(p[a]));
+					break;
+				case MOVE_TO:
+					unit.moveTo(unpack(p[a]));
+					frame.waiting = true;
+					return executed;
+				case WORK:
+					unit.work(unpack(p[a]));
+					frame.waiting = true;
+					return executed;
+				case ATTACK:
+					unit.attack((Unit) o[a]);
+					frame.waiting = true;
+					return executed;
+				default:
+					throw new IllegalStateException("Unknown opcode " + opcode + " at " + (pc - WIDTH));
+				}
+			}
+		} finally {
+			frame.pc = pc;
+			frame.nbExecuted = executed;
+		}
+	}
+
+	/* Queries on the World */
+
+	private static Coordinate findLog(Unit unit) throws NoSuchElementException {
+		hillbillies.model.Log log = unit.getWorld().findNearestLog(unit);
+		if (log == null)
+			throw new NoSuchElementException("No reachable log");
+		return log.getPosition().toCoordinate();
+	}
+
+	private static Coordinate findBoulder(Unit unit) throws NoSuchElementException {
+		hillbillies.model.Boulder boulder = unit.getWorld().findNearestBoulder(unit);
+		if (boulder == null)
+			throw new NoSuchElementException("No reachable boulder");
+		return boulder.getPosition().toCoordinate();
+	}
+
+	private static Coordinate findWorkshop(Unit unit) throws NoSuchElementException {
+		Coordinate workshop = unit.getWorld().findNearestWorkshop(unit);
+		if (workshop == null)
+			throw new NoSuchElementException("No reachable workshop");
+		return workshop;
+	}
+
+	/**
+	 * Return a Unit other than the given one that the given Unit can reach.
+	 * @param friend
+	 * 		TRUE to only look for Units of the same Faction, FALSE for Units of
+	 * 		other Factions and null for any Unit.
+	 */
+	private static Unit findUnit(Unit unit, Boolean friend) throws NoSuchElementException {
+		Faction faction = unit.getFaction();
+		for (Unit other : unit.getWorld().listAllUnits()) {
+			if (other != unit && (friend == null || friend == (other.getFaction() == faction))
+					&& unit.isReachable(other.getPosition().toCoordinate())) {
+				return other;
+			}
+		}
+		throw new NoSuchElementException("No reachable unit");
+	}
+
+	/* Queries on packed cubes */
+
+	/**
+	 * Return a cube next to the given packed cube that the given Unit can
+	 * reach, packed as well.
+	 */
+	private static long findNeighbour(Unit unit, long cube) throws IllegalArgumentException, NoSuchElementException {
+		World world = unit.getWorld();
+		int x = getX(cube), y = getY(cube), z = getZ(cube);
+		if (!world.withinBounds(x, y, z))
+			throw new IllegalArgumentException("Not a cube of the world: " + unpack(cube));
+		for (int dz = -1; dz <= 1; dz++) {
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					if ((dx != 0 || dy != 0 || dz != 0) && world.withinBounds(x + dx, y + dy, z + dz)
+							&& unit.isReachable(new Coordinate(x + dx, y + dy, z + dz)))
+						return pack(x + dx, y + dy, z + dz);
+				}
+			}
+		}
+		throw new NoSuchElementException("No reachable cube next to " + unpack(cube));
+	}
+
+	private static boolean isPassable(World world, long cube) throws IllegalArgumentException {
+		return world.isPassable(getX(cube), getY(cube), getZ(cube));
+	}
+
+	private static boolean areAdjacent(World world, long first, long second) throws IllegalArgumentException {
+		if (!world.withinBounds(getX(first), getY(first), getZ(first))
+				|| !world.withinBounds(getX(second), getY(second), getZ(second)))
+			throw new IllegalArgumentException("Not a cube of the world");
+		int dx = Math.abs(getX(first) - getX(second));
+		int dy = Math.abs(getY(first) - getY(second));
+		int dz = Math.abs(getZ(first) - getZ(second));
+		return dx <= 1 && dy <= 1 && dz <= 1 && dx + dy + dz > 0;
+	}
+}
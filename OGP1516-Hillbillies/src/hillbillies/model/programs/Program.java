@@ -0,0 +1,300 @@
+package hillbillies.model.programs;
+
+import java.util.Arrays;
+import java.util.List;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import hillbillies.model.Coordinate;
+
+/**
+ * The activity of a Task, compiled by the {@link TaskCompiler} into a flat
+ * array of instructions that the {@link Interpreter} runs.
+ *
+ * Every instruction takes WIDTH ints of the code array: its opcode, the
+ * register it writes to, and two operands, which are registers, indices in
+ * the constants of this program or addresses of other instructions (the
+ * index of their opcode in the code array).
+ *
+ * All values live in registers, of which there are two files. Booleans and
+ * cubes live unboxed in the primitive registers: a boolean as 0 or 1, a cube
+ * as its three coordinates packed into one long. Units, and values of which
+ * the type is not known when compiling, live in the object registers. Every
+ * variable of the activity has a register of its own, in the file its type
+ * belongs in; the registers after the variables hold intermediate results.
+ *
+ * The opcode of the first instruction of every statement has the STATEMENT
+ * bit set, so the interpreter can count the statements it executes.
+ */
+public final class Program {
+
+	/**
+	 * Initialize this new Program with the given code, constants and
+	 * registers.
+	 * @param code
+	 * 		The instructions of this program, WIDTH ints each.
+	 * @param constants
+	 * 		The objects the instructions of this program refer to.
+	 * @param primitiveConstants
+	 * 		The primitive values the instructions of this program refer to.
+	 * @param variableNames
+	 * 		The names of the variables of this program.
+	 * @param variableRegisters
+	 * 		For every variable, its register, as returned by getRegister.
+	 * @param nbObjectRegisters
+	 * 		The number of object registers this program needs.
+	 * @param nbPrimitiveRegisters
+	 * 		The number of primitive registers this program needs.
+	 */
+	Program(int[] code, Object[] constants, long[] primitiveConstants, List<String> variableNames,
+			int[] variableRegisters, int nbObjectRegisters, int nbPrimitiveRegisters) {
+		this.code = code;
+		this.constants = constants;
+		this.primitiveConstants = primitiveConstants;
+		this.variableNames = variableNames.toArray(new String[variableNames.size()]);
+		this.variableRegisters = variableRegisters;
+		this.nbObjectRegisters = nbObjectRegisters;
+		this.nbPrimitiveRegisters = nbPrimitiveRegisters;
+	}
+
+	/**
+	 * Return the number of instructions of this program.
+	 */
+	@Basic @Immutable
+	public int getLength() {
+		return this.code.length / WIDTH;
+	}
+
+	/**
+	 * Return the number of variables of this program.
+	 */
+	@Basic @Immutable
+	public int getNbVariables() {
+		return this.variableNames.length;
+	}
+
+	/**
+	 * Return the number of object registers this program needs, variables
+	 * included.
+	 */
+	@Basic @Immutable
+	public int getNbObjectRegisters() {
+		return this.nbObjectRegisters;
+	}
+
+	/**
+	 * Return the number of primitive registers this program needs, variables
+	 * included.
+	 */
+	@Basic @Immutable
+	public int getNbPrimitiveRegisters() {
+		return this.nbPrimitiveRegisters;
+	}
+
+	/**
+	 * Return the register of the variable with the given name, or -1 if
+	 * this program has no such variable.
+	 *
+	 * The kind of the register (OBJECT, BOOLEAN or CUBE) is in its lowest
+	 * KIND_BITS bits, its number in the file of that kind in the others.
+	 * @param name
+	 * 		The name of the variable.
+	 */
+	int getRegister(String name) {
+		int index = Arrays.asList(this.variableNames).indexOf(name);
+		return index < 0 ? -1 : this.variableRegisters[index];
+	}
+
+	/**
+	 * The instructions of this program, WIDTH ints each. Never modified.
+	 */
+	final int[] code;
+
+	/**
+	 * The objects the instructions of this program refer to. Never modified.
+	 */
+	final Object[] constants;
+
+	/**
+	 * The primitive values the instructions of this program refer to. Never
+	 * modified.
+	 */
+	final long[] primitiveConstants;
+
+	private final String[] variableNames;
+	private final int[] variableRegisters;
+	private final int nbObjectRegisters;
+	private final int nbPrimitiveRegisters;
+
+	/* Kinds of values */
+
+	/** Values in the object registers. */
+	static final int OBJECT = 0;
+	/** Booleans, as 0 or 1 in the primitive registers. */
+	static final int BOOLEAN = 1;
+	/** Cubes, packed in the primitive registers. */
+	static final int CUBE = 2;
+
+	static final int KIND_BITS = 2;
+	static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+	/* Packed cubes */
+
+	/**
+	 * The number of bits of every coordinate of a packed cube.
+	 */
+	private static final int COORDINATE_BITS = 21;
+	private static final int COORDINATE_MASK = (1 << COORDINATE_BITS) - 1;
+
+	/**
+	 * The value of a primitive register that has not been assigned. No
+	 * packed cube or boolean has this value, as packing leaves the sign bit
+	 * clear.
+	 */
+	static final long UNASSIGNED = Long.MIN_VALUE;
+
+	/**
+	 * Tells whether the cube with the given coordinates can be packed.
+	 */
+	static boolean canPack(int x, int y, int z) {
+		return fits(x) && fits(y) && fits(z);
+	}
+
+	private static boolean fits(int coordinate) {
+		return coordinate >= -(1 << (COORDINATE_BITS - 1)) && coordinate < (1 << (COORDINATE_BITS - 1));
+	}
+
+	/**
+	 * Pack the cube with the given coordinates into one long.
+	 * @throws IllegalArgumentException
+	 * 		The coordinates are too large to be packed.
+	 * 		| ! canPack(x, y, z)
+	 */
+	static long pack(int x, int y, int z) throws IllegalArgumentException {
+		if (!canPack(x, y, z))
+			throw new IllegalArgumentException("Cube out of range: " + x + ", " + y + ", " + z);
+		return (x & COORDINATE_MASK) | (long) (y & COORDINATE_MASK) << COORDINATE_BITS
+				| (long) (z & COORDINATE_MASK) << (2 * COORDINATE_BITS);
+	}
+
+	static long pack(Coordinate cube) throws IllegalArgumentException {
+		return pack(cube.getX(), cube.getY(), cube.getZ());
+	}
+
+	static int getX(long cube) {
+		return (int) (cube << (64 - COORDINATE_BITS) >> (64 - COORDINATE_BITS));
+	}
+
+	static int getY(long cube) {
+		return (int) (cube << (64 - 2 * COORDINATE_BITS) >> (64 - COORDINATE_BITS));
+	}
+
+	static int getZ(long cube) {
+		return (int) (cube << (64 - 3 * COORDINATE_BITS) >> (64 - COORDINATE_BITS));
+	}
+
+	static Coordinate unpack(long cube) {
+		return new Coordinate(getX(cube), getY(cube), getZ(cube));
+	}
+
+	/* Instruction set */
+
+	/**
+	 * The number of ints every instruction takes: opcode, destination and two
+	 * operands.
+	 */
+	static final int WIDTH = 4;
+
+	/**
+	 * Set in the opcode of the first instruction of every statement.
+	 */
+	static final int STATEMENT = 0x100;
+
+	/**
+	 * Mask to strip the STATEMENT bit from an opcode.
+	 */
+	static final int OPCODE = 0xff;
+
+	// In the descriptions below, o[] are the object registers and p[] the
+	// primitive ones.
+
+	/** Stop: the activity is done. */
+	static final int END = 0;
+	/** o[dst] := constants[a] */
+	static final int CONST = 1;
+	/** p[dst] := primitiveConstants[a] */
+	static final int CONST_PRIMITIVE = 2;
+	/** o[dst] := o[a], or VariableNotAssignedException if that is unassigned */
+	static final int LOAD = 3;
+	/** p[dst] := p[a], or VariableNotAssignedException if that is unassigned */
+	static final int LOAD_PRIMITIVE = 4;
+	/** o[dst] := o[a], or WrongTypeException if it is no instance of constants[b] */
+	static final int CAST = 5;
+	/** o[dst] := the boolean p[a] */
+	static final int BOX_BOOLEAN = 6;
+	/** o[dst] := the cube p[a] */
+	static final int BOX_CUBE = 7;
+	/** p[dst] := o[a], or WrongTypeException if it is no boolean */
+	static final int UNBOX_BOOLEAN = 8;
+	/** p[dst] := o[a], or WrongTypeException if it is no cube */
+	static final int UNBOX_CUBE = 9;
+	/** Continue at instruction b. */
+	static final int JUMP = 10;
+	/** Continue at instruction b if p[a] is false. */
+	static final int JUMP_IF_FALSE = 11;
+	/** Continue at instruction b if p[a] is true. */
+	static final int JUMP_IF_TRUE = 12;
+	/** p[dst] := !p[a] */
+	static final int NOT = 13;
+
+	/** p[dst] := the cube of the unit executing the task */
+	static final int HERE = 20;
+	/** o[dst] := the unit executing the task */
+	static final int THIS = 21;
+	/** p[dst] := the cube selected for the task */
+	static final int SELECTED = 22;
+	/** p[dst] := the cube of the nearest log */
+	static final int LOG = 23;
+	/** p[dst] := the cube of the nearest boulder */
+	static final int BOULDER = 24;
+	/** p[dst] := the nearest workshop */
+	static final int WORKSHOP = 25;
+	/** o[dst] := any other reachable unit */
+	static final int ANY = 26;
+	/** o[dst] := a reachable unit of the same faction */
+	static final int FRIEND = 27;
+	/** o[dst] := a reachable unit of another faction */
+	static final int ENEMY = 28;
+
+	/** p[dst] := whether cube p[a] is solid */
+	static final int IS_SOLID = 30;
+	/** p[dst] := whether cube p[a] is passable */
+	static final int IS_PASSABLE = 31;
+	/** p[dst] := whether unit o[a] belongs to the faction of the executing unit */
+	static final int IS_FRIEND = 32;
+	/** p[dst] := whether unit o[a] belongs to another faction */
+	static final int IS_ENEMY = 33;
+	/** p[dst] := whether unit o[a] is alive */
+	static final int IS_ALIVE = 34;
+	/** p[dst] := whether unit o[a] carries an item */
+	static final int CARRIES_ITEM = 35;
+	/** p[dst] := a reachable neighbour of cube p[a] */
+	static final int NEXT_TO = 36;
+	/** p[dst] := the cube of unit o[a] */
+	static final int POSITION_OF = 37;
+	/** p[dst] := whether cubes p[a] and p[b] are adjacent */
+	static final int ARE_ADJACENT = 38;
+
+	/** Print o[a]. */
+	static final int PRINT = 40;
+	/** Print the boolean p[a]. */
+	static final int PRINT_BOOLEAN = 41;
+	/** Print the cube p[a]. */
+	static final int PRINT_CUBE = 42;
+	/** Move to cube p[a], then yield. */
+	static final int MOVE_TO = 43;
+	/** Work at cube p[a], then yield. */
+	static final int WORK = 44;
+	/** Attack unit o[a], then yield. */
+	static final int ATTACK = 45;
+}
@@ -0,0 +1,616 @@
+package hillbillies.model.programs;
+
+import static hillbillies.model.programs.Program.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hillbillies.model.Coordinate;
+import hillbillies.model.expressions.*;
+import hillbillies.model.statements.*;
+
+/**
+ * Compiles the activity of a Task, as built by the TaskFactory, into a
+ * {@link Program}.
+ *
+ * Before compiling, every variable is resolved to a register of its own, so
+ * reading or assigning it is an array access instead of a lookup by name.
+ * A variable that is only ever assigned booleans, or only cubes, gets a
+ * primitive register, so its value is never boxed. Loops and conditionals
+ * become jumps: a break jumps straight to the end of the loop it breaks out
+ * of, and the conditions of while loops that are always true are not tested
+ * at all. Conversions between the types of the task language are only
+ * checked where the type of the converted expression is not known
+ * beforehand.
+ */
+public final class TaskCompiler {
+
+	/**
+	 * Compile the given activity into a Program.
+	 * @param activity
+	 * 		The activity to compile.
+	 * @return A program executing the given activity.
+	 * @throws IllegalArgumentException
+	 * 		The given activity is null or holds statements or expressions
+	 * 		that are not part of the task language.
+	 */
+	public static Program compile(Statement activity) throws IllegalArgumentException {
+		if (activity == null)
+			throw new IllegalArgumentException("No activity to compile");
+		TaskCompiler compiler = new TaskCompiler(resolveVariables(activity));
+		compiler.compileStatement(activity);
+		compiler.statementStart = false;
+		compiler.emit(END, 0, 0, 0);
+		long[] primitiveConstants = new long[compiler.primitiveConstants.size()];
+		for (int i = 0; i < primitiveConstants.length; i++) {
+			primitiveConstants[i] = compiler.primitiveConstants.get(i);
+		}
+		List<String> names = new ArrayList<String>(compiler.variables.keySet());
+		int[] registers = new int[names.size()];
+		for (int i = 0; i < registers.length; i++) {
+			registers[i] = compiler.variables.get(names.get(i));
+		}
+		return new Program(Arrays.copyOf(compiler.code, compiler.size), compiler.constants.toArray(),
+				primitiveConstants, names, registers, compiler.nbObjectRegisters, compiler.nbPrimitiveRegisters);
+	}
+
+	/**
+	 * Initialize a compiler giving every one of the given variables a
+	 * register of the given kind.
+	 */
+	private TaskCompiler(Map<String, Integer> variableKinds) {
+		for (Map.Entry<String, Integer> variable : variableKinds.entrySet()) {
+			int kind = variable.getValue();
+			this.variables.put(variable.getKey(), (allocateRegister(kind) << KIND_BITS) | kind);
+		}
+		this.nbObjectVariables = this.nextObjectRegister;
+		this.nbPrimitiveVariables = this.nextPrimitiveRegister;
+	}
+
+	/* Variables */
+
+	/**
+	 * Return the kind of the values of every variable in the given activity:
+	 * BOOLEAN or CUBE if all values assigned to it are of that kind, and
+	 * OBJECT otherwise. Variables that are read but never assigned are
+	 * OBJECT variables as well.
+	 */
+	private static Map<String, Integer> resolveVariables(Statement activity) {
+		List<Assignment> assignments = new ArrayList<Assignment>();
+		Set<String> names = new LinkedHashSet<String>();
+		collectVariables(activity, assignments, names);
+		// Assigning one variable to another makes the kind of the first
+		// depend on that of the second, so repeat until no kind changes.
+		Map<String, Integer> kinds = new HashMap<String, Integer>();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Assignment assignment : assignments) {
+				int kind = getKind(assignment.getExpression(), kinds);
+				Integer old = kinds.get(assignment.getName());
+				if (kind == UNKNOWN || (old != null && (old == kind || old == OBJECT)))
+					continue;
+				kinds.put(assignment.getName(), old == null ? kind : OBJECT);
+				changed = true;
+			}
+		}
+		Map<String, Integer> result = new LinkedHashMap<String, Integer>();
+		for (String name : names) {
+			Integer kind = kinds.get(name);
+			result.put(name, kind == null ? OBJECT : kind);
+		}
+		return result;
+	}
+
+	private static void collectVariables(Statement statement, List<Assignment> assignments, Set<String> names) {
+		if (statement instanceof Assignment) {
+			assignments.add((Assignment) statement);
+			names.add(((Assignment) statement).getName());
+		}
+		for (Expression<?> expression : getExpressions(statement)) {
+			collectVariables(expression, names);
+		}
+		for (Statement subStatement : getSubStatements(statement)) {
+			collectVariables(subStatement, assignments, names);
+		}
+	}
+
+	private static void collectVariables(Expression<?> expression, Set<String> names) {
+		if (expression instanceof ReadVariable) {
+			names.add(((ReadVariable) expression).getName());
+		}
+		for (Expression<?> operand : getOperands(expression)) {
+			collectVariables(operand, names);
+		}
+	}
+
+	/**
+	 * The register of every variable, in the order the variables were found,
+	 * with its kind in the lowest KIND_BITS bits.
+	 */
+	private final Map<String, Integer> variables = new LinkedHashMap<String, Integer>();
+
+	/* Kinds */
+
+	/**
+	 * The kind of a variable of which no assignment has been seen yet.
+	 */
+	private static final int UNKNOWN = -1;
+
+	/**
+	 * Return the kind of the values of the given expression, given the kinds
+	 * of the variables.
+	 */
+	private static int getKind(Expression<?> expression, Map<String, Integer> variableKinds) {
+		if (expression instanceof ReadVariable) {
+			Integer kind = variableKinds.get(((ReadVariable) expression).getName());
+			return kind == null ? UNKNOWN : kind;
+		}
+		if (expression instanceof Literal) {
+			Literal literal = (Literal) expression;
+			return canPack(literal.getX(), literal.getY(), literal.getZ()) ? CUBE : OBJECT;
+		}
+		return getKind(expression.getReturningClass());
+	}
+
+	private static int getKind(Class<?> type) {
+		if (type.equals(Boolean.class))
+			return BOOLEAN;
+		if (type.equals(Coordinate.class))
+			return CUBE;
+		return OBJECT;
+	}
+
+	private int getKind(Expression<?> expression) {
+		if (expression instanceof ReadVariable)
+			return this.variables.get(((ReadVariable) expression).getName()) & KIND_MASK;
+		return getKind(expression, Collections.<String, Integer> emptyMap());
+	}
+
+	/* Statements */
+
+	private void compileStatement(Statement statement) {
+		if (statement instanceof Sequence) {
+			for (Statement subStatement : ((Sequence) statement).getBody()) {
+				compileStatement(subStatement);
+			}
+		} else if (statement instanceof Assignment) {
+			Assignment assignment = (Assignment) statement;
+			int register = this.variables.get(assignment.getName());
+			int kind = register & KIND_MASK;
+			beginStatement();
+			if (reads(assignment.getExpression(), assignment.getName())) {
+				// Expressions write intermediate results to their target before
+				// reading all their operands, so evaluate into a fresh register
+				// and only then overwrite the variable.
+				int value = allocateRegister(kind);
+				compileExpression(assignment.getExpression(), kind, value);
+				emit(kind == OBJECT ? LOAD : LOAD_PRIMITIVE, register >> KIND_BITS, value, 0);
+			} else {
+				compileExpression(assignment.getExpression(), kind, register >> KIND_BITS);
+			}
+			endStatement();
+		} else if (statement instanceof Print) {
+			Expression<?> value = ((Print) statement).getExpression();
+			int kind = getKind(value);
+			beginStatement();
+			int register = allocateRegister(kind);
+			compileExpression(value, kind, register);
+			emit(kind == BOOLEAN ? PRINT_BOOLEAN : kind == CUBE ? PRINT_CUBE : PRINT, 0, register, 0);
+			endStatement();
+		} else if (statement instanceof MoveTo) {
+			compileAction(MOVE_TO, ((MoveTo) statement).destination, CUBE);
+		} else if (statement instanceof Work) {
+			compileAction(WORK, ((Work) statement).condition, CUBE);
+		} else if (statement instanceof Attack) {
+			compileAction(ATTACK, ((Attack) statement).getVictim(), OBJECT);
+		} else if (statement instanceof While) {
+			compileWhile((While) statement);
+		} else if (statement instanceof If) {
+			compileIf((If) statement);
+		} else if (statement instanceof Break) {
+			beginStatement();
+			if (this.loopExits.isEmpty()) {
+				// A break outside of any loop does nothing, as it did when
+				// tasks were executed statement by statement.
+				emit(JUMP, 0, 0, this.size + WIDTH);
+			} else {
+				this.loopExits.peek().add(emit(JUMP, 0, 0, 0));
+			}
+		} else {
+			throw new IllegalArgumentException("Cannot compile " + statement);
+		}
+	}
+
+	private void compileAction(int opcode, Expression<?> argument, int kind) {
+		beginStatement();
+		int register = allocateRegister(kind);
+		compileExpression(argument, kind, register);
+		emit(opcode, 0, register, 0);
+		endStatement();
+	}
+
+	private void compileWhile(While loop) {
+		List<Integer> exits = new ArrayList<Integer>();
+		this.loopExits.push(exits);
+		Expression<?> condition = unwrap(loop.getCondition());
+		if (condition instanceof True) {
+			int start = this.size;
+			compileStatement(loop.getBody());
+			// Every iteration counts as a statement, even if its body is empty.
+			beginStatement();
+			emit(JUMP, 0, 0, start);
+		} else {
+			beginStatement();
+			int start = this.size;
+			int register = allocateRegister(BOOLEAN);
+			compileExpression(condition, BOOLEAN, register);
+			exits.add(emit(JUMP_IF_FALSE, 0, register, 0));
+			endStatement();
+			compileStatement(loop.getBody());
+			emit(JUMP, 0, 0, start);
+		}
+		this.loopExits.pop();
+		for (int jump : exits) {
+			patch(jump, this.size);
+		}
+	}
+
+	private void compileIf(If conditional) {
+		beginStatement();
+		int register = allocateRegister(BOOLEAN);
+		compileExpression(conditional.getCondition(), BOOLEAN, register);
+		int toElse = emit(JUMP_IF_FALSE, 0, register, 0);
+		endStatement();
+		compileStatement(conditional.getIfBody());
+		if (conditional.getElseBody() != null) {
+			int toEnd = emit(JUMP, 0, 0, 0);
+			patch(toElse, this.size);
+			compileStatement(conditional.getElseBody());
+			patch(toEnd, this.size);
+		} else {
+			patch(toElse, this.size);
+		}
+	}
+
+	private static List<Expression<?>> getExpressions(Statement statement) {
+		if (statement instanceof Assignment)
+			return Collections.<Expression<?>> singletonList(((Assignment) statement).getExpression());
+		if (statement instanceof Print)
+			return Collections.<Expression<?>> singletonList(((Print) statement).getExpression());
+		if (statement instanceof MoveTo)
+			return Collections.<Expression<?>> singletonList(((MoveTo) statement).destination);
+		if (statement instanceof Work)
+			return Collections.<Expression<?>> singletonList(((Work) statement).condition);
+		if (statement instanceof Attack)
+			return Collections.<Expression<?>> singletonList(((Attack) statement).getVictim());
+		if (statement instanceof While)
+			return Collections.<Expression<?>> singletonList(((While) statement).getCondition());
+		if (statement instanceof If)
+			return Collections.<Expression<?>> singletonList(((If) statement).getCondition());
+		return Collections.emptyList();
+	}
+
+	private static List<Statement> getSubStatements(Statement statement) {
+		if (statement instanceof Sequence)
+			return ((Sequence) statement).getBody();
+		if (statement instanceof While)
+			return Collections.singletonList(((While) statement).getBody());
+		if (statement instanceof If) {
+			If conditional = (If) statement;
+			if (conditional.getElseBody() == null)
+				return Collections.singletonList(conditional.getIfBody());
+			return Arrays.asList(conditional.getIfBody(), conditional.getElseBody());
+		}
+		return Collections.emptyList();
+	}
+
+	/* Expressions */
+
+	/**
+	 * Emit the instructions that evaluate the given expression into the
+	 * given register of the given kind, converting its value if it is of
+	 * another kind.
+	 */
+	private void compileExpression(Expression<?> expression, int kind, int target) {
+		int actualKind = getKind(expression);
+		if (actualKind == kind) {
+			compileExpression(expression, target);
+		} else {
+			int source = allocateRegister(actualKind);
+			compileExpression(expression, source);
+			convert(actualKind, source, kind, target);
+		}
+	}
+
+	private void convert(int kind, int source, int newKind, int target) {
+		if (newKind == OBJECT) {
+			emit(kind == BOOLEAN ? BOX_BOOLEAN : BOX_CUBE, target, source, 0);
+		} else if (kind == OBJECT) {
+			emit(newKind == BOOLEAN ? UNBOX_BOOLEAN : UNBOX_CUBE, target, source, 0);
+		} else {
+			// A boolean used as a cube, or the other way around: this fails
+			// when unboxing.
+			int boxed = allocateRegister(OBJECT);
+			convert(kind, source, OBJECT, boxed);
+			convert(OBJECT, boxed, newKind, target);
+		}
+	}
+
+	/**
+	 * Emit the instructions that evaluate the given expression into the
+	 * given register of the kind of that expression.
+	 */
+	private void compileExpression(Expression<?> expression, int target) {
+		if (expression instanceof Convert) {
+			Convert<?> convert = (Convert<?>) expression;
+			Class<?> type = convert.getReturningClass();
+			compileExpression(convert.expression, getKind(convert), target);
+			if (getKind(convert) == OBJECT && !type.equals(convert.expression.getReturningClass())) {
+				emit(CAST, target, target, getConstant(type));
+			}
+		} else if (expression instanceof True) {
+			emit(CONST_PRIMITIVE, target, getPrimitiveConstant(1), 0);
+		} else if (expression instanceof False) {
+			emit(CONST_PRIMITIVE, target, getPrimitiveConstant(0), 0);
+		} else if (expression instanceof Literal) {
+			Literal literal = (Literal) expression;
+			if (getKind(literal) == CUBE) {
+				emit(CONST_PRIMITIVE, target, getPrimitiveConstant(pack(literal.getX(), literal.getY(), literal.getZ())), 0);
+			} else {
+				emit(CONST, target, getConstant(new Coordinate(literal.getX(), literal.getY(), literal.getZ())), 0);
+			}
+		} else if (expression instanceof ReadVariable) {
+			int register = this.variables.get(((ReadVariable) expression).getName());
+			emit((register & KIND_MASK) == OBJECT ? LOAD : LOAD_PRIMITIVE, target, register >> KIND_BITS, 0);
+		} else if (expression instanceof Not) {
+			compileExpression(((Not) expression).getExpression(), BOOLEAN, target);
+			emit(NOT, target, target, 0);
+		} else if (expression instanceof And) {
+			And and = (And) expression;
+			compileExpression(and.getFirstExpression(), BOOLEAN, target);
+			int shortCircuit = emit(JUMP_IF_FALSE, 0, target, 0);
+			compileExpression(and.getSecondExpression(), BOOLEAN, target);
+			patch(shortCircuit, this.size);
+		} else if (expression instanceof Or) {
+			Or or = (Or) expression;
+			compileExpression(or.getFirstExpression(), BOOLEAN, target);
+			int shortCircuit = emit(JUMP_IF_TRUE, 0, target, 0);
+			compileExpression(or.getSecondExpression(), BOOLEAN, target);
+			patch(shortCircuit, this.size);
+		} else if (expression instanceof Here) {
+			emit(HERE, target, 0, 0);
+		} else if (expression instanceof This) {
+			emit(THIS, target, 0, 0);
+		} else if (expression instanceof Selected) {
+			emit(SELECTED, target, 0, 0);
+		} else if (expression instanceof Log) {
+			emit(LOG, target, 0, 0);
+		} else if (expression instanceof Boulder) {
+			emit(BOULDER, target, 0, 0);
+		} else if (expression instanceof Workshop) {
+			emit(WORKSHOP, target, 0, 0);
+		} else if (expression instanceof Any) {
+			emit(ANY, target, 0, 0);
+		} else if (expression instanceof Friend) {
+			emit(FRIEND, target, 0, 0);
+		} else if (expression instanceof Enemy) {
+			emit(ENEMY, target, 0, 0);
+		} else if (expression instanceof IsSolid) {
+			compileCubeQuery(IS_SOLID, ((IsSolid) expression).getPosition(), target);
+		} else if (expression instanceof IsPassable) {
+			compileCubeQuery(IS_PASSABLE, ((IsPassable) expression).getPosition(), target);
+		} else if (expression instanceof NextTo) {
+			compileCubeQuery(NEXT_TO, ((NextTo) expression).getPosition(), target);
+		} else if (expression instanceof IsFriend) {
+			compileUnitQuery(IS_FRIEND, ((IsFriend) expression).getUnit(), target);
+		} else if (expression instanceof IsEnemy) {
+			compileUnitQuery(IS_ENEMY, ((IsEnemy) expression).getUnit(), target);
+		} else if (expression instanceof IsAlive) {
+			compileUnitQuery(IS_ALIVE, ((IsAlive) expression).getUnit(), target);
+		} else if (expression instanceof CarriesItem) {
+			compileUnitQuery(CARRIES_ITEM, ((CarriesItem) expression).getUnit(), target);
+		} else if (expression instanceof PositionOf) {
+			compileUnitQuery(POSITION_OF, ((PositionOf) expression).getUnit(), target);
+		} else if (expression instanceof AreAdjacent) {
+			AreAdjacent areAdjacent = (AreAdjacent) expression;
+			compileExpression(areAdjacent.getFirst(), CUBE, target);
+			int second = allocateRegister(CUBE);
+			compileExpression(areAdjacent.getSecond(), CUBE, second);
+			emit(ARE_ADJACENT, target, target, second);
+		} else {
+			throw new IllegalArgumentException("Cannot compile " + expression);
+		}
+	}
+
+	/**
+	 * Compile a query on a cube, of which the result is primitive as well.
+	 */
+	private void compileCubeQuery(int opcode, Expression<?> cube, int target) {
+		compileExpression(cube, CUBE, target);
+		emit(opcode, target, target, 0);
+	}
+
+	/**
+	 * Compile a query on a Unit, of which the result is primitive.
+	 */
+	private void compileUnitQuery(int opcode, Expression<?> unit, int target) {
+		int register = allocateRegister(OBJECT);
+		compileExpression(unit, OBJECT, register);
+		emit(opcode, target, register, 0);
+	}
+
+	private static List<Expression<?>> getOperands(Expression<?> expression) {
+		if (expression instanceof Convert)
+			return Collections.<Expression<?>> singletonList(((Convert<?>) expression).expression);
+		if (expression instanceof Not)
+			return Collections.<Expression<?>> singletonList(((Not) expression).getExpression());
+		if (expression instanceof And)
+			return Arrays.<Expression<?>> asList(((And) expression).getFirstExpression(),
+					((And) expression).getSecondExpression());
+		if (expression instanceof Or)
+			return Arrays.<Expression<?>> asList(((Or) expression).getFirstExpression(),
+					((Or) expression).getSecondExpression());
+		if (expression instanceof AreAdjacent)
+			return Arrays.<Expression<?>> asList(((AreAdjacent) expression).getFirst(),
+					((AreAdjacent) expression).getSecond());
+		if (expression instanceof IsSolid)
+			return Collections.<Expression<?>> singletonList(((IsSolid) expression).getPosition());
+		if (expression instanceof IsPassable)
+			return Collections.<Expression<?>> singletonList(((IsPassable) expression).getPosition());
+		if (expression instanceof NextTo)
+			return Collections.<Expression<?>> singletonList(((NextTo) expression).getPosition());
+		if (expression instanceof IsFriend)
+			return Collections.<Expression<?>> singletonList(((IsFriend) expression).getUnit());
+		if (expression instanceof IsEnemy)
+			return Collections.<Expression<?>> singletonList(((IsEnemy) expression).getUnit());
+		if (expression instanceof IsAlive)
+			return Collections.<Expression<?>> singletonList(((IsAlive) expression).getUnit());
+		if (expression instanceof CarriesItem)
+			return Collections.<Expression<?>> singletonList(((CarriesItem) expression).getUnit());
+		if (expression instanceof PositionOf)
+			return Collections.<Expression<?>> singletonList(((PositionOf) expression).getUnit());
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Tells whether the given expression reads the variable with the given
+	 * name.
+	 */
+	private static boolean reads(Expression<?> expression, String name) {
+		if (expression instanceof ReadVariable)
+			return ((ReadVariable) expression).getName().equals(name);
+		for (Expression<?> operand : getOperands(expression)) {
+			if (reads(operand, name))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Return the expression a Convert converts to a boolean, if the given
+	 * expression is such a Convert, or the given expression otherwise.
+	 */
+	private static Expression<?> unwrap(Expression<?> expression) {
+		if (expression instanceof Convert && expression.getReturningClass().equals(Boolean.class)) {
+			return ((Convert<?>) expression).expression;
+		}
+		return expression;
+	}
+
+	/* Code */
+
+	/**
+	 * Append an instruction, and return its address.
+	 */
+	private int emit(int opcode, int target, int a, int b) {
+		if (this.size + WIDTH > this.code.length) {
+			this.code = Arrays.copyOf(this.code, 2 * this.code.length);
+		}
+		int address = this.size;
+		this.code[address] = this.statementStart ? opcode | STATEMENT : opcode;
+		this.code[address + 1] = target;
+		this.code[address + 2] = a;
+		this.code[address + 3] = b;
+		this.size += WIDTH;
+		this.statementStart = false;
+		return address;
+	}
+
+	/**
+	 * Make the jump at the given address jump to the given address.
+	 */
+	private void patch(int jump, int destination) {
+		this.code[jump + 3] = destination;
+	}
+
+	/**
+	 * Mark the next instruction as the first of a statement.
+	 */
+	private void beginStatement() {
+		this.statementStart = true;
+	}
+
+	/**
+	 * Free the registers holding intermediate results of the statement
+	 * compiled last.
+	 */
+	private void endStatement() {
+		this.nextObjectRegister = this.nbObjectVariables;
+		this.nextPrimitiveRegister = this.nbPrimitiveVariables;
+	}
+
+	private int[] code = new int[16 * WIDTH];
+
+	/**
+	 * The number of ints of code emitted so far, and thus the address of the
+	 * next instruction.
+	 */
+	private int size;
+
+	private boolean statementStart;
+
+	/**
+	 * For every loop being compiled, from the innermost one, the addresses of
+	 * the jumps out of it.
+	 */
+	private final Deque<List<Integer>> loopExits = new ArrayDeque<List<Integer>>();
+
+	/* Constants */
+
+	private int getConstant(Object value) {
+		Integer index = this.constantIndices.get(value);
+		if (index == null) {
+			index = this.constants.size();
+			this.constants.add(value);
+			this.constantIndices.put(value, index);
+		}
+		return index;
+	}
+
+	private int getPrimitiveConstant(long value) {
+		int index = this.primitiveConstants.indexOf(value);
+		if (index < 0) {
+			index = this.primitiveConstants.size();
+			this.primitiveConstants.add(value);
+		}
+		return index;
+	}
+
+	private final List<Object> constants = new ArrayList<Object>();
+	private final Map<Object, Integer> constantIndices = new HashMap<Object, Integer>();
+	private final List<Long> primitiveConstants = new ArrayList<Long>();
+
+	/* Registers */
+
+	/**
+	 * Return a free register of the given kind.
+	 */
+	private int allocateRegister(int kind) {
+		if (kind == OBJECT) {
+			int register = this.nextObjectRegister++;
+			this.nbObjectRegisters = Math.max(this.nbObjectRegisters, this.nextObjectRegister);
+			return register;
+		} else {
+			int register = this.nextPrimitiveRegister++;
+			this.nbPrimitiveRegisters = Math.max(this.nbPrimitiveRegisters, this.nextPrimitiveRegister);
+			return register;
+		}
+	}
+
+	private int nbObjectVariables;
+	private int nbPrimitiveVariables;
+	private int nextObjectRegister;
+	private int nextPrimitiveRegister;
+	private int nbObjectRegisters;
+	private int nbPrimitiveRegisters;
+}
@@ -1,5 +1,8 @@
 package hillbillies.model.statements;
 
+/**
+ * A statement that makes the Unit executing the Task carry out an action,
+ * after which the execution of the Task waits until the action is over.
+ */
 public abstract class Action extends Statement {
-	public static final boolean shouldContinueExecution = false;
 }
@@ -1,7 +1,5 @@
 package hillbillies.model.statements;
 
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 import hillbillies.model.expressions.*;
 
 public class Assignment extends Statement {
@@ -12,6 +10,10 @@ public class Assignment extends Statement {
 		return this.variableName;
 	}
 	
+	public Expression<?> getExpression(){
+		return this.expression;
+	}
+	
 	private final Expression<?> expression; // TODO make sure we use the right generics, and no raw types.
 	
 	public Assignment (String variableName, Expression expression) {
@@ -19,11 +21,6 @@ public class Assignment extends Statement {
 		this.expression = expression;
 	}
 	
-	@Override
-	public void execute() throws WrongTypeException, VariableNotAssignedException {
-		this.getTask().addVariable(variableName, this.expression.evaluate());
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
@@ -1,10 +1,7 @@
 package hillbillies.model.statements;
 
-import hillbillies.model.BadFSMStateException;
 import hillbillies.model.expressions.*;
 import hillbillies.model.Unit;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class Attack extends Action {
 	
@@ -18,11 +15,6 @@ public class Attack extends Action {
 		this.victim = expression;
 	}
 	
-	@Override
-	public void execute () throws BadFSMStateException, WrongTypeException, IllegalArgumentException, VariableNotAssignedException {
-		this.getTask().getUnit().attack(this.victim.evaluate());
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return this.victim.isWellTyped();
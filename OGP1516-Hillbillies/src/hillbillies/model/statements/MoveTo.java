@@ -1,10 +1,7 @@
 package hillbillies.model.statements;
 
-import hillbillies.model.BadFSMStateException;
 import hillbillies.model.Coordinate;
-import hillbillies.model.VariableNotAssignedException;
 import hillbillies.model.expressions.*;
-import hillbillies.model.WrongTypeException;
 
 public class MoveTo extends Action {
 
@@ -14,11 +11,6 @@ public class MoveTo extends Action {
 		this.destination = expression;
 	}
 
-	@Override
-	public void execute () throws BadFSMStateException, WrongTypeException, IllegalArgumentException, VariableNotAssignedException {
-		this.getTask().getUnit().moveTo(this.destination.evaluate());
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return this.destination.isWellTyped();
@@ -1,7 +1,5 @@
 package hillbillies.model.statements;
 
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 import hillbillies.model.expressions.*;;
 
 public class Print extends Statement {
@@ -16,11 +14,6 @@ public class Print extends Statement {
 		this.expression = expression;
 	}
 	
-	@Override
-	public void execute () throws WrongTypeException, VariableNotAssignedException {
-		System.out.println(this.expression.evaluate().toString());
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return true;
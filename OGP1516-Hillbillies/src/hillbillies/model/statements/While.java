@@ -1,9 +1,6 @@
 package hillbillies.model.statements;
 
 import hillbillies.model.expressions.*;
-import hillbillies.model.Task;
-import hillbillies.model.VariableNotAssignedException;
-import hillbillies.model.WrongTypeException;
 
 public class While extends Statement {
 	
@@ -13,36 +10,14 @@ public class While extends Statement {
 	public While (Expression<Boolean> expression, Statement statement) {
 		this.condition = expression;
 		this.body = statement;
-		this.body.setNext(this);
 	}
 	
 	public Statement getBody(){
 		return this.body;
 	}
-	@Override
-	public Statement getNextStatement () throws WrongTypeException, VariableNotAssignedException {
-		if (this.condition.evaluate()) {
-			return this.body;
-		} else {
-			return this.getNext();
-		}
-	}
-	
-	@Override
-	public void setLinearNext (Statement linearNext) {
-		super.setLinearNext(this.body);
-		this.body.setLinearNext(linearNext);
-	}
 	
-	@Override
-	public void setTask (Task task) {
-		super.setTask(task);
-		this.body.setTask(task);
-	}
-	
-	@Override
-	public void execute () {
-		
+	public Expression<Boolean> getCondition(){
+		return this.condition;
 	}
 	
 	@Override
@@ -1,11 +1,8 @@
 
 package hillbillies.model.statements;
 
-import hillbillies.model.BadFSMStateException;
 import hillbillies.model.Coordinate;
-import hillbillies.model.VariableNotAssignedException;
 import hillbillies.model.expressions.*;
-import hillbillies.model.WrongTypeException;
 
 public class Work extends Action {
 	
@@ -15,11 +12,6 @@ public class Work extends Action {
 		this.condition = expression;
 	}
 	
-	@Override
-	public void execute () throws BadFSMStateException, WrongTypeException, VariableNotAssignedException {
-		this.getTask().getUnit().work(this.condition.evaluate());
-	}
-	
 	@Override
 	public boolean isWellTyped () {
 		return this.condition.isWellTyped();
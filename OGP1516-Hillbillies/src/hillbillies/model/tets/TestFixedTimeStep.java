@@ -0,0 +1,121 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFixedTimeStep {
+
+	World world;
+
+	@Before
+	public void initialize(){
+		world = populatedWorld();
+	}
+
+	/**
+	 * A 15x15x4 world with a rock floor, with 20 Units with default behavior
+	 * ticking every 0.2s, always created from the same seed.
+	 */
+	private static World populatedWorld(){
+		Utils.setRandomSeed(7);
+		int[][][] terrain = new int[15][15][4];
+		for(int x = 0; x<15; x++){
+			for(int y = 0; y<15; y++){
+				terrain[x][y][0] = 1;
+			}
+		}
+		World result = new World(terrain, (x, y, z) -> {});
+		result.setFixedTimeStep(0.2);
+		for(int i = 0; i<20; i++){
+			result.spawnUnit(true);
+		}
+		return result;
+	}
+
+	/**
+	 * Describes the state of every Unit of the given World, in the order
+	 * they were spawned.
+	 */
+	private static List<String> describeUnits(World world){
+		List<Unit> units = new ArrayList<Unit>(world.listAllUnits());
+		units.sort(Comparator.comparingLong(Unit::getId));
+		List<String> result = new ArrayList<String>();
+		for (Unit unit : units){
+			Position position = unit.getPosition();
+			result.add(position.getX() + " " + position.getY() + " " + position.getZ() + " " +
+					unit.getState() + " " + unit.getHP() + " " + unit.getStamina() + " " + unit.getXP());
+		}
+		return result;
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void TestAdvanceTime_infinite(){
+		world.advanceTime(Double.POSITIVE_INFINITY);
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void TestAdvanceTime_notANumber(){
+		world.advanceTime(Double.NaN);
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void TestAdvanceTime_negative(){
+		world.advanceTime(-0.1);
+	}
+
+	@Test
+	public void TestAdvanceTime_leftover(){
+		world.advanceTime(0.05);
+		assertEquals(0, world.getNbTicks());
+		assertEquals(0.05, world.getLeftoverTime(), 1e-12);
+		world.advanceTime(0.1);
+		assertEquals(0, world.getNbTicks());
+		world.advanceTime(0.05);
+		assertEquals(1, world.getNbTicks());
+		assertEquals(0.2, world.getSimulationTime(), 1e-12);
+		assertEquals(0, world.getLeftoverTime(), 1e-9);
+		world.advanceTime(0.5);
+		assertEquals(3, world.getNbTicks());
+		assertEquals(0.1, world.getLeftoverTime(), 1e-9);
+	}
+
+	@Test
+	public void TestAdvanceTime_sameOutcomeForAnySplit(){
+		for(int i = 0; i<600; i++){
+			world.advanceTime(0.05);
+		}
+
+		World byTenths = populatedWorld();
+		for(int i = 0; i<300; i++){
+			byTenths.advanceTime(0.1);
+		}
+
+		World byRandomSlices = populatedWorld();
+		Random random = new Random(7);
+		double advanced = 0;
+		while (advanced < 29.7){
+			double slice = random.nextDouble() * 0.3;
+			byRandomSlices.advanceTime(slice);
+			advanced += slice;
+		}
+		byRandomSlices.advanceTime(30 - advanced);
+
+		World atOnce = populatedWorld();
+		atOnce.advanceTime(30);
+
+		List<String> expected = describeUnits(world);
+		assertEquals(150, world.getNbTicks());
+		for (World other : new World[] {byTenths, byRandomSlices, atOnce}){
+			assertEquals(150, other.getNbTicks());
+			assertEquals(expected, describeUnits(other));
+			assertEquals(world.getTerrainVersion(), other.getTerrainVersion());
+		}
+	}
+}
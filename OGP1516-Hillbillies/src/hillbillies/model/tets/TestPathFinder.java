@@ -0,0 +1,103 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hillbillies.model.pathing.Path;
+import hillbillies.model.pathing.PathFinder;
+import hillbillies.model.pathing.PathIndex;
+
+public class TestPathFinder {
+
+	World world;
+	PathFinder pathFinder;
+
+	@Before
+	public void initialize(){
+		// A 5x5x3 world with a rock wall at x == 2 on the ground level, with
+		// one gap at y == 4.
+		int[][][] terrain = new int[5][5][3];
+		for(int y = 0; y<4; y++){
+			terrain[2][y][0] = 1;
+		}
+		world = new World(terrain, (x, y, z) -> {});
+		pathFinder = world.getPathFinder();
+	}
+
+	@Test
+	public void TestFindPath_sameCube(){
+		int[] path = pathFinder.findPath(new Coordinate(1, 1, 0), new Coordinate(1, 1, 0));
+		assertEquals(0, path.length);
+	}
+
+	@Test
+	public void TestFindPath_straightLine(){
+		int[] path = pathFinder.findPath(new Coordinate(0, 0, 0), new Coordinate(0, 3, 0));
+		assertEquals(3, path.length);
+		assertEquals(new Coordinate(0, 3, 0), world.getCoordinate(path[2]));
+	}
+
+	@Test
+	public void TestFindPath_aroundWall(){
+		int[] path = pathFinder.findPath(new Coordinate(0, 0, 0), new Coordinate(4, 0, 0));
+		assertNotNull(path);
+		assertEquals(new Coordinate(4, 0, 0), world.getCoordinate(path[path.length-1]));
+		Coordinate previous = new Coordinate(0, 0, 0);
+		for (int cube : path){
+			Coordinate next = world.getCoordinate(cube);
+			assertTrue(previous.isAdjacentTo(next));
+			assertTrue(world.isPassableCube(next));
+			assertTrue(world.isAroundSolid(next));
+			previous = next;
+		}
+	}
+
+	@Test
+	public void TestFindPath_unsupportedDestination(){
+		// Cubes two levels up are not next to any solid cube.
+		assertNull(pathFinder.findPath(new Coordinate(0, 0, 0), new Coordinate(0, 0, 2)));
+		assertFalse(pathFinder.isReachable(new Coordinate(0, 0, 0), new Coordinate(0, 0, 2)));
+	}
+
+	@Test
+	public void TestIsReachable_overWall(){
+		assertTrue(pathFinder.isReachable(new Coordinate(0, 0, 0), new Coordinate(3, 1, 1)));
+	}
+
+	@Test
+	public void TestPathIndex_terrainChange(){
+		Path path = new Path(world, pathFinder.findPath(new Coordinate(0, 0, 0), new Coordinate(0, 3, 0)));
+		PathIndex index = world.getPathIndex();
+		index.add(path);
+		assertEquals(1, index.getNbPaths());
+		// A change away from the path leaves it alone ...
+		world.setCubeAt(4, 4, 2, World.TerrainType.ROCK);
+		assertTrue(path.isValid());
+		assertTrue(index.hasAsPath(path));
+		// ... but a change next to it invalidates it.
+		world.setCubeAt(1, 2, 1, World.TerrainType.ROCK);
+		assertFalse(path.isValid());
+		assertFalse(index.hasAsPath(path));
+		assertEquals(0, index.getNbPaths());
+	}
+
+	@Test
+	public void TestPathIndex_remove(){
+		Path path = new Path(world, pathFinder.findPath(new Coordinate(0, 0, 0), new Coordinate(4, 0, 0)));
+		PathIndex index = world.getPathIndex();
+		index.add(path);
+		index.add(path);
+		assertEquals(1, index.getNbPaths());
+		index.remove(path);
+		assertEquals(0, index.getNbPaths());
+		world.setCubeAt(4, 1, 1, World.TerrainType.ROCK);
+		assertTrue(path.isValid());
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void TestFindPath_outOfBounds(){
+		pathFinder.findPath(new Coordinate(0, 0, 0), new Coordinate(5, 0, 0));
+	}
+}
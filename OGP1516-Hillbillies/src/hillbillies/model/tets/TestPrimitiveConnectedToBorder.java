@@ -0,0 +1,129 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hillbillies.util.BorderConnectivity;
+import hillbillies.util.ConnectedToBorder;
+import hillbillies.util.PrimitiveConnectedToBorder;
+
+public class TestPrimitiveConnectedToBorder {
+
+	BorderConnectivity original;
+	BorderConnectivity primitive;
+
+	@Before
+	public void initialize(){
+		original = BorderConnectivity.of(new ConnectedToBorder(6, 4, 4));
+		primitive = new PrimitiveConnectedToBorder(6, 4, 4);
+	}
+
+	/**
+	 * Gives back the indices x + y*64 + z*64*64 of the given coordinates,
+	 * sorted, so lists in a different order can be compared.
+	 */
+	private static int[] sorted(List<int[]> coordinates){
+		int[] result = new int[coordinates.size()];
+		for (int i = 0; i < result.length; i++){
+			int[] coordinate = coordinates.get(i);
+			result[i] = coordinate[0] + 64 * coordinate[1] + 64 * 64 * coordinate[2];
+		}
+		Arrays.sort(result);
+		return result;
+	}
+
+	private void assertSameState(int nbX, int nbY, int nbZ){
+		for (int x = 0; x < nbX; x++){
+			for (int y = 0; y < nbY; y++){
+				for (int z = 0; z < nbZ; z++){
+					assertEquals(original.isSolidConnectedToBorder(x, y, z),
+							primitive.isSolidConnectedToBorder(x, y, z));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void TestChangeSolidToPassable_alreadyDisconnected(){
+		// Dig out everything around the pillar (2, 2, 1)-(2, 2, 2), so it hangs
+		// loose, then dig out its upper half.
+		int[][] around = {{1, 2, 1}, {3, 2, 1}, {2, 1, 1}, {2, 3, 1}, {2, 2, 0},
+				{1, 2, 2}, {3, 2, 2}, {2, 1, 2}, {2, 3, 2}, {2, 2, 3}};
+		for (int[] cube : around){
+			assertArrayEquals(sorted(original.changeSolidToPassable(cube[0], cube[1], cube[2])),
+					sorted(primitive.changeSolidToPassable(cube[0], cube[1], cube[2])));
+		}
+		assertFalse(primitive.isSolidConnectedToBorder(2, 2, 1));
+		List<int[]> changed = primitive.changeSolidToPassable(2, 2, 2);
+		assertArrayEquals(sorted(original.changeSolidToPassable(2, 2, 2)), sorted(changed));
+		assertArrayEquals(sorted(Arrays.asList(new int[] {2, 2, 1})), sorted(changed));
+	}
+
+	@Test
+	public void TestChangeSolidToPassable_random(){
+		Random random = new Random(7);
+		for (int world = 0; world < 50; world++){
+			int nbX = 4 + random.nextInt(6);
+			int nbY = 4 + random.nextInt(6);
+			int nbZ = 4 + random.nextInt(6);
+			original = BorderConnectivity.of(new ConnectedToBorder(nbX, nbY, nbZ));
+			primitive = new PrimitiveConnectedToBorder(nbX, nbY, nbZ);
+			for (int change = 0; change < nbX * nbY * nbZ; change++){
+				// Only change cubes inside the border, so that solid bodies get
+				// disconnected often.
+				int x = 1 + random.nextInt(nbX - 2);
+				int y = 1 + random.nextInt(nbY - 2);
+				int z = 1 + random.nextInt(nbZ - 2);
+				if (random.nextInt(4) == 0){
+					assertArrayEquals(sorted(original.changePassableToSolid(x, y, z)),
+							sorted(primitive.changePassableToSolid(x, y, z)));
+				} else {
+					assertArrayEquals(sorted(original.changeSolidToPassable(x, y, z)),
+							sorted(primitive.changeSolidToPassable(x, y, z)));
+				}
+			}
+			assertSameState(nbX, nbY, nbZ);
+		}
+	}
+
+	@Test
+	public void TestConstructor_passableCubes(){
+		Random random = new Random(11);
+		BitSet passable = new BitSet();
+		for (int z = 0; z < 4; z++){
+			for (int y = 0; y < 4; y++){
+				for (int x = 0; x < 6; x++){
+					if (random.nextInt(3) == 0){
+						passable.set(x + 6 * y + 24 * z);
+						original.changeSolidToPassable(x, y, z);
+					}
+				}
+			}
+		}
+		primitive = new PrimitiveConnectedToBorder(6, 4, 4, passable);
+		assertSameState(6, 4, 4);
+		for (int x = 1; x < 5; x++){
+			assertArrayEquals(sorted(original.changeSolidToPassable(x, 1, 1)),
+					sorted(primitive.changeSolidToPassable(x, 1, 1)));
+		}
+		assertSameState(6, 4, 4);
+	}
+
+	@Test
+	public void TestCaveIn_floatingRock(){
+		// Two rocks floating in the air, not connected to the border.
+		int[][][] terrain = new int[5][5][6];
+		terrain[1][1][4] = 1;
+		terrain[2][1][4] = 1;
+		World world = new World(terrain, (x, y, z) -> {}, true);
+		world.setCubeAt(2, 1, 4, World.TerrainType.AIR);
+		assertTrue(world.isPassable(1, 1, 4));
+	}
+}
@@ -0,0 +1,196 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hillbillies.model.pathing.PathFinder;
+import hillbillies.model.pathing.ReachabilityIndex;
+
+public class TestReachabilityIndex {
+
+	World world;
+	ReachabilityIndex index;
+	PathFinder pathFinder;
+
+	@Before
+	public void initialize(){
+		// A 10x10x5 world with a rock floor and rock scattered over the
+		// levels above it.
+		Random random = new Random(11);
+		int[][][] terrain = new int[10][10][5];
+		for(int x = 0; x<10; x++){
+			for(int y = 0; y<10; y++){
+				terrain[x][y][0] = 1;
+				for(int z = 1; z<5; z++){
+					if (random.nextInt(4) == 0){
+						terrain[x][y][z] = 1;
+					}
+				}
+			}
+		}
+		world = new World(terrain, (x, y, z) -> {});
+		index = world.getReachabilityIndex();
+		pathFinder = world.getPathFinder();
+	}
+
+	private BitSet walkableCubes(){
+		BitSet result = new BitSet();
+		for (int cube = 0; cube < world.getNbCubes(); cube++){
+			if (world.isPassable(cube) && world.isAroundSolid(cube)){
+				result.set(cube);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Labels every walkable cube with its component, by flooding the given
+	 * walkable cubes over all 26 neighbours. Other cubes get -1.
+	 */
+	private int[] labelComponents(BitSet walkable){
+		int[] result = new int[world.getNbCubes()];
+		Arrays.fill(result, -1);
+		Deque<Integer> queue = new ArrayDeque<Integer>();
+		int label = 0;
+		for (int cube = walkable.nextSetBit(0); cube >= 0; cube = walkable.nextSetBit(cube + 1)){
+			if (result[cube] >= 0){
+				continue;
+			}
+			result[cube] = label;
+			queue.add(cube);
+			while (!queue.isEmpty()){
+				int current = queue.poll();
+				for (int n = 0; n < World.NB_NEIGHBORS; n++){
+					int neighbor = world.getNeighbor(current, n);
+					if (neighbor >= 0 && walkable.get(neighbor) && result[neighbor] < 0){
+						result[neighbor] = label;
+						queue.add(neighbor);
+					}
+				}
+			}
+			label++;
+		}
+		return result;
+	}
+
+	private void assertMatchesPathFinder(Random random){
+		BitSet walkable = walkableCubes();
+		assertEquals(walkable.cardinality(), index.getNbWalkable());
+		for (int cube = 0; cube < world.getNbCubes(); cube++){
+			assertEquals(walkable.get(cube), index.isWalkable(cube));
+		}
+		// Compare every walkable cube with a few others against a flood fill ...
+		int[] labels = labelComponents(walkable);
+		int[] walkableCubes = walkable.stream().toArray();
+		for (int i = 0; i < 3 && walkableCubes.length > 0; i++){
+			int start = walkableCubes[random.nextInt(walkableCubes.length)];
+			for (int destination : walkableCubes){
+				assertEquals(labels[start] == labels[destination], index.isReachable(start, destination));
+			}
+		}
+		// ... and random cubes against the PathFinder.
+		for (int i = 0; i < 40; i++){
+			int start = random.nextInt(world.getNbCubes());
+			int destination = random.nextInt(world.getNbCubes());
+			assertEquals(pathFinder.isReachable(start, destination), index.isReachable(start, destination));
+		}
+	}
+
+	@Test
+	public void TestIsReachable_randomDigsAndFills(){
+		// An 8x4x3 world with a rock floor, a wall of rock at x == 4 that
+		// splits it in two halves, and some rock scattered over both halves.
+		// Mostly the wall is filled and dug, so that it keeps splitting and
+		// merging the halves.
+		Random random = new Random(11);
+		int[][][] terrain = new int[8][4][3];
+		for(int x = 0; x<8; x++){
+			for(int y = 0; y<4; y++){
+				terrain[x][y][0] = 1;
+				for(int z = 1; z<3; z++){
+					if (x == 4 || random.nextInt(8) == 0){
+						terrain[x][y][z] = 1;
+					}
+				}
+			}
+		}
+		world = new World(terrain, (x, y, z) -> {});
+		index = world.getReachabilityIndex();
+		pathFinder = world.getPathFinder();
+		int nbLocal = 0;
+		int nbStale = 0;
+		int nbSplits = 0;
+		int nbComponents = 2;
+		for (int i = 0; i < 400; i++){
+			BitSet before = walkableCubes();
+			int rebuilds = index.getNbRebuilds();
+			int x = random.nextInt(3) == 0 ? random.nextInt(8) : 4;
+			boolean fill = x == 4 ? random.nextInt(10) >= 2 : random.nextBoolean();
+			world.setCubeAt(x, random.nextInt(4), 1 + random.nextInt(2), fill ? World.TerrainType.ROCK : World.TerrainType.AIR);
+			assertMatchesPathFinder(random);
+			int[] labels = labelComponents(walkableCubes());
+			int nbComponentsNow = Arrays.stream(labels).max().getAsInt() + 1;
+			if (nbComponentsNow > nbComponents){
+				nbSplits++;
+			}
+			nbComponents = nbComponentsNow;
+			before.andNot(walkableCubes());
+			if (!before.isEmpty()){
+				if (index.getNbRebuilds() == rebuilds){
+					nbLocal++;
+				} else {
+					nbStale++;
+				}
+			}
+		}
+		// Cubes that only died locally, and real splits, were both covered.
+		assertTrue(nbLocal > 0);
+		assertTrue(nbStale > 0);
+		assertTrue(nbSplits > 0);
+	}
+
+	@Test
+	public void TestIsReachable_wallSplitsFloor(){
+		// A wall of rock across the middle of the first level leaves the two
+		// halves connected over its top ...
+		for(int y = 0; y<10; y++){
+			for(int z = 1; z<5; z++){
+				world.setCubeAt(5, y, z, World.TerrainType.AIR);
+			}
+			world.setCubeAt(5, y, 1, World.TerrainType.ROCK);
+		}
+		assertTrue(index.isReachable(new Coordinate(0, 0, 1), new Coordinate(9, 9, 1)));
+		// ... until the wall reaches the top of the World.
+		for(int y = 0; y<10; y++){
+			for(int z = 2; z<5; z++){
+				world.setCubeAt(5, y, z, World.TerrainType.ROCK);
+			}
+		}
+		assertFalse(index.isReachable(new Coordinate(0, 0, 1), new Coordinate(9, 9, 1)));
+		assertFalse(pathFinder.isReachable(new Coordinate(0, 0, 1), new Coordinate(9, 9, 1)));
+	}
+
+	@Test
+	public void TestOnTerrainChanged_compactsDeadNodes(){
+		Random random = new Random(13);
+		int rebuilds = index.getNbRebuilds();
+		// Filling and digging one cube on the floor again and again kills and
+		// revives the same cubes without ever splitting anything.
+		for (int i = 0; i < 2000; i++){
+			world.setCubeAt(3, 3, 1, i % 2 == 0 ? World.TerrainType.ROCK : World.TerrainType.AIR);
+			assertTrue(index.isReachable(world.getIndex(0, 0, 1), world.getIndex(9, 9, 1)) ==
+					pathFinder.isReachable(world.getIndex(0, 0, 1), world.getIndex(9, 9, 1)));
+			assertTrue(index.getNbNodes() <= 2 * Math.max(index.getNbWalkable(), 16) + 27);
+		}
+		assertTrue(index.getNbRebuilds() > rebuilds);
+		assertMatchesPathFinder(random);
+	}
+}
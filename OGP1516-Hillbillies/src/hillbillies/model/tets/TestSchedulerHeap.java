@@ -0,0 +1,151 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hillbillies.part3.TaskFactory;
+import hillbillies.part3.programs.TaskParser;
+
+public class TestSchedulerHeap {
+
+	World world;
+	Unit unit;
+	Scheduler scheduler;
+
+	@Before
+	public void initialize(){
+		// A 5x5x3 world with a rock floor at z == 0.
+		int[][][] terrain = new int[5][5][3];
+		for(int x = 0; x<5; x++){
+			for(int y = 0; y<5; y++){
+				terrain[x][y][0] = 1;
+			}
+		}
+		world = new World(terrain, (x, y, z) -> {});
+		unit = world.spawnUnit(false);
+		scheduler = unit.getFaction().getScheduler();
+	}
+
+	private static Task task(int priority){
+		return TaskParser.create(new TaskFactory()).parseString(
+				"name: \"task\"\npriority: " + priority + "\nactivities: x := true;",
+				Collections.emptyList()).get().get(0);
+	}
+
+	private List<Task> add(int... priorities){
+		List<Task> result = new ArrayList<Task>();
+		for (int priority : priorities){
+			Task task = task(priority);
+			scheduler.addTask(task);
+			result.add(task);
+		}
+		return result;
+	}
+
+	@Test
+	public void TestGetMostImportantTask_order(){
+		List<Task> tasks = add(3, 10, -5, 7, 0);
+		assertSame(tasks.get(1), scheduler.getMostImportandTask());
+		assertSame(tasks.get(3), scheduler.getMostImportandTask());
+		assertSame(tasks.get(0), scheduler.getMostImportandTask());
+		assertSame(tasks.get(4), scheduler.getMostImportandTask());
+		assertSame(tasks.get(2), scheduler.getMostImportandTask());
+		assertNull(scheduler.getMostImportandTask());
+	}
+
+	@Test
+	public void TestSetPriority_reordersHeap(){
+		List<Task> tasks = add(1, 2, 3, 4, 5);
+		tasks.get(0).setPriority(100);
+		tasks.get(4).setPriority(-100);
+		assertSame(tasks.get(0), scheduler.getMostImportandTask());
+		assertSame(tasks.get(3), scheduler.getMostImportandTask());
+		assertSame(tasks.get(2), scheduler.getMostImportandTask());
+		assertSame(tasks.get(1), scheduler.getMostImportandTask());
+		assertSame(tasks.get(4), scheduler.getMostImportandTask());
+	}
+
+	@Test
+	public void TestRemoveTask_middle(){
+		List<Task> tasks = add(5, 4, 3, 2, 1, 0);
+		scheduler.removeTask(tasks.get(1));
+		assertFalse(scheduler.hasAsTask(tasks.get(1)));
+		assertEquals(5, scheduler.getNbTasks());
+		for (int i : new int[] {0, 2, 3, 4, 5}){
+			assertSame(tasks.get(i), scheduler.getMostImportandTask());
+		}
+	}
+
+	@Test
+	public void TestAddTask_twice(){
+		Task task = add(1).get(0);
+		scheduler.addTask(task);
+		assertEquals(1, scheduler.getNbTasks());
+		assertSame(task, scheduler.getMostImportandTask());
+		assertNull(scheduler.getMostImportandTask());
+	}
+
+	@Test
+	public void TestResetTask_releasesUnit(){
+		// Resetting a Task used to fail on the null check of the Unit giving
+		// it up.
+		assertTrue(unit.cabHaveAsTask(null));
+		Task task = add(1).get(0);
+		scheduler.setTaskToBeScheduled(unit);
+		assertSame(task, unit.getTask());
+		scheduler.resetTask(task);
+		assertFalse(unit.hasTask());
+		assertFalse(task.hasUnit());
+		assertFalse(scheduler.isScheduled(task));
+		assertSame(task, scheduler.getMostImportandTask());
+	}
+
+	@Test
+	public void TestResetTask_backInHeap(){
+		List<Task> tasks = add(1, 9, 5);
+		scheduler.setTaskToBeScheduled(unit);
+		assertTrue(scheduler.isScheduled(tasks.get(1)));
+		assertSame(tasks.get(1), unit.getTask());
+		// Lowering the priority of a scheduled Task leaves the heap alone ...
+		tasks.get(1).setPriority(3);
+		assertEquals(3, scheduler.getNbTasks());
+		// ... and resetting it puts it back in its place.
+		scheduler.resetTask(tasks.get(1));
+		assertFalse(scheduler.isScheduled(tasks.get(1)));
+		assertFalse(unit.hasTask());
+		assertSame(tasks.get(2), scheduler.getMostImportandTask());
+		assertSame(tasks.get(1), scheduler.getMostImportandTask());
+		assertSame(tasks.get(0), scheduler.getMostImportandTask());
+	}
+
+	@Test
+	public void TestHeap_randomOperations(){
+		Random random = new Random(3);
+		List<Task> expected = new ArrayList<Task>();
+		for (int i = 0; i < 2000; i++){
+			int operation = random.nextInt(4);
+			if (operation == 0 || expected.isEmpty()){
+				expected.addAll(add(random.nextInt(50)));
+			} else if (operation == 1){
+				Task task = expected.remove(random.nextInt(expected.size()));
+				scheduler.removeTask(task);
+			} else if (operation == 2){
+				expected.get(random.nextInt(expected.size())).setPriority(random.nextInt(50));
+			} else {
+				Task polled = scheduler.getMostImportandTask();
+				for (Task task : expected){
+					assertTrue(task.getPriority() <= polled.getPriority());
+				}
+				assertTrue(expected.remove(polled));
+			}
+			assertEquals(expected.size(), scheduler.getNbTasks());
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSpatialHash {
+
+	World world;
+	SpatialHash hash;
+	List<Unit> units;
+
+	@Before
+	public void initialize(){
+		// A 20x20x6 world with a rock floor at z == 0, and 60 Units filed in
+		// a SpatialHash of their own.
+		Utils.setRandomSeed(5);
+		int[][][] terrain = new int[20][20][6];
+		for(int x = 0; x<20; x++){
+			for(int y = 0; y<20; y++){
+				terrain[x][y][0] = 1;
+			}
+		}
+		world = new World(terrain, (x, y, z) -> {});
+		hash = new SpatialHash(20, 20, 6);
+		units = new ArrayList<Unit>();
+		for(int i = 0; i<60; i++){
+			Unit unit = world.spawnUnit(false);
+			units.add(unit);
+			hash.insert(unit, unit.getCubeIndex());
+		}
+	}
+
+	private static boolean isNextTo(int cube, int other){
+		return cube != other && Math.abs(cube % 20 - other % 20) <= 1 &&
+				Math.abs(cube / 20 % 20 - other / 20 % 20) <= 1 && Math.abs(cube / 400 - other / 400) <= 1;
+	}
+
+	private static double distanceToCentre(Position origin, int cube){
+		return origin.distance(new Position(cube % 20 + 0.5, cube / 20 % 20 + 0.5, cube / 400 + 0.5));
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void TestConstructor_illegalDimensions(){
+		new SpatialHash(20, 0, 6);
+	}
+
+	@Test
+	public void TestCollectInCube(){
+		assertEquals(60, hash.getNbGameObjects());
+		for (Unit unit : units){
+			Set<Unit> found = new HashSet<Unit>();
+			hash.collectInCube(unit.getCubeIndex(), Unit.class, found);
+			assertTrue(found.contains(unit));
+			for (Unit other : found){
+				assertEquals(unit.getCubeIndex(), other.getCubeIndex());
+			}
+			assertEquals(unit.getCubeIndex(), hash.findInCube(unit.getCubeIndex(), Unit.class).getCubeIndex());
+			assertNull(hash.findInCube(unit.getCubeIndex(), Boulder.class));
+		}
+	}
+
+	@Test
+	public void TestCollectAround(){
+		for (int cube = 0; cube < 20 * 20 * 6; cube += 7){
+			Set<Unit> found = new HashSet<Unit>();
+			hash.collectAround(cube, Unit.class, found);
+			Set<Unit> expected = new HashSet<Unit>();
+			for (Unit unit : units){
+				if (isNextTo(cube, unit.getCubeIndex())){
+					expected.add(unit);
+				}
+			}
+			assertEquals(expected, found);
+		}
+	}
+
+	@Test
+	public void TestRemoveAndMove(){
+		Unit unit = units.get(0);
+		int cube = unit.getCubeIndex();
+		hash.remove(unit, cube);
+		assertEquals(59, hash.getNbGameObjects());
+		Set<Unit> found = new HashSet<Unit>();
+		hash.collectInCube(cube, Unit.class, found);
+		assertFalse(found.contains(unit));
+		// Removing it again changes nothing.
+		hash.remove(unit, cube);
+		assertEquals(59, hash.getNbGameObjects());
+
+		Unit other = units.get(1);
+		hash.move(other, other.getCubeIndex(), 0);
+		assertEquals(59, hash.getNbGameObjects());
+		found.clear();
+		hash.collectAround(1, Unit.class, found);
+		assertFalse(found.contains(other));
+	}
+
+	@Test
+	public void TestFindNearest(){
+		Random random = new Random(5);
+		for (int i = 0; i < 200; i++){
+			Position origin = new Position(random.nextDouble() * 20, random.nextDouble() * 20, random.nextDouble() * 6);
+			// Only accept the Units with an even identifier.
+			Unit nearest = hash.findNearest(origin, Unit.class, unit -> unit.getId() % 2 == 0);
+			double best = Double.POSITIVE_INFINITY;
+			for (Unit unit : units){
+				if (unit.getId() % 2 == 0){
+					best = Math.min(best, origin.distance(unit.getPosition()));
+				}
+			}
+			assertEquals(0, nearest.getId() % 2);
+			assertEquals(best, origin.distance(nearest.getPosition()), 1e-9);
+		}
+		assertNull(hash.findNearest(new Position(1, 1, 1), Unit.class, unit -> false));
+		assertNull(hash.findNearest(new Position(1, 1, 1), Boulder.class, boulder -> true));
+	}
+
+	@Test
+	public void TestFindNearestMarked(){
+		assertEquals(-1, hash.findNearestMarked(new Position(1, 1, 1), cube -> true));
+		Random random = new Random(6);
+		List<Integer> marked = new ArrayList<Integer>();
+		for (int i = 0; i < 40; i++){
+			int cube = random.nextInt(20 * 20 * 6);
+			hash.mark(cube);
+			marked.add(cube);
+		}
+		Integer unmarked = marked.get(0);
+		hash.unmark(unmarked);
+		assertFalse(hash.isMarked(unmarked));
+		marked.removeIf(unmarked::equals);
+		for (int i = 0; i < 200; i++){
+			Position origin = new Position(random.nextDouble() * 20, random.nextDouble() * 20, random.nextDouble() * 6);
+			int nearest = hash.findNearestMarked(origin, cube -> cube % 3 != 0);
+			double best = Double.POSITIVE_INFINITY;
+			for (int cube : marked){
+				if (cube % 3 != 0){
+					best = Math.min(best, distanceToCentre(origin, cube));
+				}
+			}
+			assertTrue(hash.isMarked(nearest));
+			assertEquals(best, distanceToCentre(origin, nearest), 1e-9);
+		}
+	}
+}
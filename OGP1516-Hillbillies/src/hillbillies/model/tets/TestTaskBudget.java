@@ -0,0 +1,176 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hillbillies.part3.TaskFactory;
+import hillbillies.part3.programs.TaskParser;
+
+public class TestTaskBudget {
+
+	World world;
+	List<Unit> units;
+
+	@Before
+	public void initialize(){
+		// A 5x5x3 world with a rock floor at z == 0, and 3 Units that do
+		// nothing until they are given a Task.
+		int[][][] terrain = new int[5][5][3];
+		for(int x = 0; x<5; x++){
+			for(int y = 0; y<5; y++){
+				terrain[x][y][0] = 1;
+			}
+		}
+		world = new World(terrain, (x, y, z) -> {});
+		units = new ArrayList<Unit>();
+		for(int i = 0; i<3; i++){
+			units.add(world.spawnUnit(false));
+		}
+	}
+
+	/**
+	 * Gives the given Unit a Task that never ends nor gives it anything to
+	 * do, and lets it execute that Task.
+	 */
+	private Task giveEndlessTask(Unit unit){
+		Task task = TaskParser.create(new TaskFactory()).parseString(
+				"name: \"endless\"\npriority: 1\nactivities: while true do x := true; done",
+				Collections.emptyList()).get().get(0);
+		Scheduler scheduler = unit.getFaction().getScheduler();
+		scheduler.addTask(task);
+		scheduler.setTaskToBeScheduled(unit);
+		assertSame(task, unit.getTask());
+		unit.setDefaultBehaviorEnabled(true);
+		return task;
+	}
+
+	private void tick(){
+		world.advanceTime(world.getFixedTimeStep());
+	}
+
+	/**
+	 * Advances this World until every given Task has executed at least one
+	 * statement. Units with default behavior start by resting, and only
+	 * execute their Task once they are done.
+	 */
+	private void tickUntilExecuting(List<Task> tasks){
+		for (int i = 0; i < 200; i++){
+			boolean allExecuting = true;
+			for (Task task : tasks){
+				allExecuting &= task.getNbStatementsExecuted() > 0;
+			}
+			if (allExecuting){
+				return;
+			}
+			tick();
+		}
+		fail("The Tasks were never executed");
+	}
+
+	private static long[] nbStatementsExecuted(List<Task> tasks){
+		long[] result = new long[tasks.size()];
+		for (int i = 0; i < result.length; i++){
+			result[i] = tasks.get(i).getNbStatementsExecuted();
+		}
+		return result;
+	}
+
+	@Test
+	public void TestExecuteTasks_equalShares(){
+		world.setTaskStatementsPerTick(300);
+		List<Task> tasks = new ArrayList<Task>();
+		for (Unit unit : units){
+			tasks.add(giveEndlessTask(unit));
+		}
+		tickUntilExecuting(tasks);
+		long[] start = nbStatementsExecuted(tasks);
+		for (int i = 1; i <= 5; i++){
+			tick();
+			assertEquals(300, world.getNbTaskStatementsLastTick());
+			assertEquals(0, world.getTaskBudgetLeft());
+			for (int j = 0; j < tasks.size(); j++){
+				assertEquals(100 * i, tasks.get(j).getNbStatementsExecuted() - start[j]);
+			}
+		}
+	}
+
+	@Test
+	public void TestExecuteTasks_roundRobin(){
+		// 10 statements do not divide over 3 Units: every tick one of them
+		// gets the last statement, and it is a different one every tick.
+		world.setTaskStatementsPerTick(10);
+		List<Task> tasks = new ArrayList<Task>();
+		for (Unit unit : units){
+			tasks.add(giveEndlessTask(unit));
+		}
+		tickUntilExecuting(tasks);
+		long[] start = nbStatementsExecuted(tasks);
+		for (int i = 1; i <= 9; i++){
+			tick();
+			assertEquals(10, world.getNbTaskStatementsLastTick());
+			long[] executed = nbStatementsExecuted(tasks);
+			long min = Long.MAX_VALUE;
+			long max = 0;
+			for (int j = 0; j < executed.length; j++){
+				min = Math.min(min, executed[j] - start[j]);
+				max = Math.max(max, executed[j] - start[j]);
+			}
+			assertTrue(max - min <= 1);
+			if (i % 3 == 0){
+				assertEquals(min, max);
+				assertEquals(10 * i / 3, min);
+			}
+		}
+	}
+
+	@Test
+	public void TestExecuteTasks_carryOver(){
+		world.setTaskStatementsPerTick(100);
+		// Ticks in which no Task is executed leave their whole budget over,
+		// but never more than one tick's worth ...
+		tick();
+		assertEquals(0, world.getNbTaskStatementsLastTick());
+		assertEquals(100, world.getTaskBudgetLeft());
+		tick();
+		tick();
+		assertEquals(100, world.getTaskBudgetLeft());
+		// ... which the first tick that executes a Task executes on top of
+		// its own budget.
+		Task task = giveEndlessTask(units.get(0));
+		while (task.getNbStatementsExecuted() == 0){
+			assertEquals(100, world.getTaskBudgetLeft());
+			tick();
+		}
+		assertEquals(200, world.getNbTaskStatementsLastTick());
+		assertEquals(200, task.getNbStatementsExecuted());
+		assertEquals(0, world.getTaskBudgetLeft());
+		tick();
+		assertEquals(100, world.getNbTaskStatementsLastTick());
+		assertEquals(300, task.getNbStatementsExecuted());
+	}
+
+	@Test
+	public void TestExecuteTasks_leftoverCapped(){
+		world.setTaskStatementsPerTick(100);
+		// A Task that ends after 3 of the 200 statements it may execute
+		// leaves only one tick's worth over.
+		Task task = TaskParser.create(new TaskFactory()).parseString(
+				"name: \"short\"\npriority: 1\nactivities: x := true; y := x; z := y;",
+				Collections.emptyList()).get().get(0);
+		Unit unit = units.get(0);
+		unit.getFaction().getScheduler().addTask(task);
+		unit.getFaction().getScheduler().setTaskToBeScheduled(unit);
+		unit.setDefaultBehaviorEnabled(true);
+		tickUntilExecuting(Collections.singletonList(task));
+		assertEquals(3, world.getNbTaskStatementsLastTick());
+		assertEquals(3, task.getNbStatementsExecuted());
+		assertEquals(100, world.getTaskBudgetLeft());
+		assertFalse(unit.hasTask());
+	}
+}
@@ -0,0 +1,155 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hillbillies.part3.TaskFactory;
+import hillbillies.part3.programs.TaskParser;
+
+public class TestTaskCompiler {
+
+	World world;
+	Unit unit;
+	Scheduler scheduler;
+
+	@Before
+	public void initialize(){
+		// A 5x5x3 world with a rock floor at z == 0.
+		int[][][] terrain = new int[5][5][3];
+		for(int x = 0; x<5; x++){
+			for(int y = 0; y<5; y++){
+				terrain[x][y][0] = 1;
+			}
+		}
+		world = new World(terrain, (x, y, z) -> {});
+		unit = world.spawnUnit(false);
+		scheduler = unit.getFaction().getScheduler();
+	}
+
+	private List<Task> parse(String activities, int[]... cubes){
+		return TaskParser.create(new TaskFactory()).parseString(
+				"name: \"test\"\npriority: 1\nactivities: " + activities, Arrays.asList(cubes)).get();
+	}
+
+	/**
+	 * Schedule the given Task for the Unit and execute at most the given
+	 * number of statements of it.
+	 */
+	private Task run(Task task, int nbStatements){
+		scheduler.addTask(task);
+		scheduler.setTaskToBeScheduled(unit);
+		task.execute(nbStatements);
+		return task;
+	}
+
+	private Task run(String activities, int nbStatements){
+		return run(parse(activities).get(0), nbStatements);
+	}
+
+	@Test
+	public void TestAssignment_selfReferencingAnd() throws VariableNotAssignedException{
+		Task task = run("y := true; x := false; x := y && x;", 10);
+		assertTrue(task.taskIsDone());
+		assertEquals(false, task.getValue("x"));
+	}
+
+	@Test
+	public void TestAssignment_selfReferencingOr() throws VariableNotAssignedException{
+		Task task = run("y := false; x := true; x := y || x;", 10);
+		assertTrue(task.taskIsDone());
+		assertEquals(true, task.getValue("x"));
+	}
+
+	@Test
+	public void TestAssignment_selfReferencingNot() throws VariableNotAssignedException{
+		Task task = run("x := true; x := !x;", 10);
+		assertEquals(false, task.getValue("x"));
+	}
+
+	@Test
+	public void TestAssignment_selfReferencingUnassigned(){
+		Task task = run("y := true; x := y && x;", 10);
+		// Reading x fails, so the Task is given back with a lower priority.
+		assertFalse(unit.hasTask());
+		assertEquals(0, task.getPriority());
+		try {
+			task.getValue("x");
+			fail();
+		} catch (VariableNotAssignedException e) {
+		}
+	}
+
+	@Test
+	public void TestAssignment_kinds() throws VariableNotAssignedException{
+		Task task = run("b := true; c := (1, 2, 3); m := true; m := (1, 1, 1); u := this; v := c;", 10);
+		assertEquals(true, task.getValue("b"));
+		assertEquals(new Coordinate(1, 2, 3), task.getValue("c"));
+		assertEquals(new Coordinate(1, 1, 1), task.getValue("m"));
+		assertSame(unit, task.getValue("u"));
+		assertEquals(new Coordinate(1, 2, 3), task.getValue("v"));
+	}
+
+	@Test (expected = VariableNotAssignedException.class)
+	public void TestGetValue_beforeExecution() throws VariableNotAssignedException{
+		Task task = parse("x := true;").get(0);
+		task.getValue("x");
+	}
+
+	@Test
+	public void TestWhile_break() throws VariableNotAssignedException{
+		Task task = run("x := true; while true do x := false; break; done y := true;", 10);
+		assertTrue(task.taskIsDone());
+		assertEquals(false, task.getValue("x"));
+		assertEquals(true, task.getValue("y"));
+	}
+
+	@Test
+	public void TestIf_else() throws VariableNotAssignedException{
+		Task task = run("if is_solid (0, 0, 0) then x := (1, 0, 0); else x := (2, 0, 0); fi", 10);
+		assertEquals(new Coordinate(1, 0, 0), task.getValue("x"));
+	}
+
+	@Test
+	public void TestExecute_budget(){
+		Task task = parse("while true do x := true; done").get(0);
+		scheduler.addTask(task);
+		scheduler.setTaskToBeScheduled(unit);
+		assertEquals(10, task.execute(10));
+		assertFalse(task.taskIsDone());
+		assertTrue(unit.hasTask());
+	}
+
+	@Test
+	public void TestExecute_wrongType(){
+		Task task = run("x := this; moveTo x;", 10);
+		assertFalse(unit.hasTask());
+		assertEquals(0, task.getPriority());
+	}
+
+	@Test
+	public void TestExecute_endsWithAction(){
+		Task task = run(parse("work selected;", new int[] {0, 0, 0}).get(0), 10);
+		// The Task stays with its Unit until the Unit has carried out the work.
+		assertTrue(task.isWaitingForUnit());
+		assertTrue(scheduler.hasAsTasks(Collections.singleton(task)));
+		assertSame(task, unit.getTask());
+		task.execute(10);
+		assertFalse(scheduler.hasAsTasks(Collections.singleton(task)));
+		assertFalse(unit.hasTask());
+	}
+
+	@Test
+	public void TestSharedProgram() throws VariableNotAssignedException{
+		List<Task> tasks = parse("x := selected;", new int[] {0, 0, 1}, new int[] {4, 4, 1});
+		run(tasks.get(0), 10);
+		run(tasks.get(1), 10);
+		assertEquals(new Coordinate(0, 0, 1), tasks.get(0).getValue("x"));
+		assertEquals(new Coordinate(4, 4, 1), tasks.get(1).getValue("x"));
+	}
+}
@@ -0,0 +1,107 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTickParallelism {
+
+	World world;
+
+	@Before
+	public void initialize(){
+		world = populatedWorld();
+	}
+
+	@After
+	public void shutDown(){
+		world.setTickParallelism(1);
+	}
+
+	/**
+	 * A 20x20x5 world with a rock floor and a pillar of rock in every fourth
+	 * cube of the first level, with 40 Units with default behavior, always
+	 * created from the same seed. The World ticks every 0.1s, so that enough
+	 * Units set off in the same tick to prepare them in parallel.
+	 */
+	private static World populatedWorld(){
+		Utils.setRandomSeed(42);
+		int[][][] terrain = new int[20][20][5];
+		for(int x = 0; x<20; x++){
+			for(int y = 0; y<20; y++){
+				terrain[x][y][0] = 1;
+				if (x % 4 == 2 && y % 4 == 2){
+					terrain[x][y][1] = 1;
+				}
+			}
+		}
+		World result = new World(terrain, (x, y, z) -> {});
+		result.setFixedTimeStep(0.1);
+		for(int i = 0; i<40; i++){
+			result.spawnUnit(true);
+		}
+		return result;
+	}
+
+	/**
+	 * Describes the state of every Unit of the given World, in the order
+	 * they were spawned.
+	 */
+	private static List<String> describeUnits(World world){
+		List<Unit> units = new ArrayList<Unit>(world.listAllUnits());
+		units.sort(Comparator.comparingLong(Unit::getId));
+		List<String> result = new ArrayList<String>();
+		for (Unit unit : units){
+			Position position = unit.getPosition();
+			result.add(position.getX() + " " + position.getY() + " " + position.getZ() + " " +
+					unit.getState() + " " + unit.getHP() + " " + unit.getStamina() + " " + unit.getXP());
+		}
+		return result;
+	}
+
+	@Test
+	public void TestAdvanceTime_sameOutcome(){
+		for(int i = 0; i<300; i++){
+			world.advanceTime(0.1);
+		}
+		List<String> serial = describeUnits(world);
+		long nbSerialSearches = world.getNbPathSearches();
+
+		World parallel = populatedWorld();
+		parallel.setTickParallelism(4);
+		try {
+			for(int i = 0; i<300; i++){
+				parallel.advanceTime(0.1);
+			}
+			assertEquals(serial, describeUnits(parallel));
+			assertEquals(world.getTerrainVersion(), parallel.getTerrainVersion());
+			assertEquals(nbSerialSearches, parallel.getNbPathSearches());
+			// Most searches were run while preparing the Units.
+			assertTrue(parallel.getPathFinder().getNbSearches() < parallel.getNbPathSearches() / 2);
+		} finally {
+			parallel.setTickParallelism(1);
+		}
+	}
+
+	@Test
+	public void TestSetTickParallelism_releasesPathFinders() throws InterruptedException{
+		for(int i = 0; i<20; i++){
+			world.setTickParallelism(4);
+			world.advanceTime(0.1);
+			world.setTickParallelism(1);
+			world.advanceTime(0.1);
+		}
+		// The threads of the last pool give up their PathFinders as they stop.
+		for(int i = 0; i<500 && world.getNbTickPathFinders() > 0; i++){
+			Thread.sleep(10);
+		}
+		assertEquals(0, world.getNbTickPathFinders());
+		assertEquals(1, world.getTickParallelism());
+	}
+}
@@ -0,0 +1,173 @@
+package hillbillies.model;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hillbillies.part2.internal.map.GameMap;
+import hillbillies.part2.internal.map.GameMapReader;
+import hillbillies.util.VoxelMap;
+import hillbillies.util.VoxelMapReader;
+
+public class TestVoxelMapReader {
+
+	VoxelMapReader reader;
+
+	@Before
+	public void initialize(){
+		reader = new VoxelMapReader();
+	}
+
+	/**
+	 * The levels bundled with the game.
+	 */
+	private static File[] levels(){
+		File[] result = new File("src-provided/resources").listFiles((directory, name) -> name.endsWith(".wrld"));
+		assertNotNull(result);
+		assertTrue(result.length > 0);
+		return result;
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException{
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		try (GZIPOutputStream stream = new GZIPOutputStream(result)){
+			stream.write(bytes);
+		}
+		return result.toByteArray();
+	}
+
+	private static byte[] toCrlf(byte[] bytes){
+		String text = new String(bytes, StandardCharsets.US_ASCII);
+		return text.replace("\r\n", "\n").replace("\n", "\r\n").getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static void assertSameMap(GameMap expected, VoxelMap map){
+		assertEquals(expected.getNbTilesX(), map.getNbX());
+		assertEquals(expected.getNbTilesY(), map.getNbY());
+		assertEquals(expected.getNbTilesZ(), map.getNbZ());
+		for (int z = 0; z < map.getNbZ(); z++){
+			for (int y = 0; y < map.getNbY(); y++){
+				for (int x = 0; x < map.getNbX(); x++){
+					assertEquals(expected.getTypeAt(x, y, z).getByteValue(), map.getCube(x, y, z));
+				}
+			}
+		}
+	}
+
+	private VoxelMap readFromString(String text) throws IOException{
+		return reader.readFromStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	/**
+	 * Tells whether GameMapReader refuses the given map, which it does by
+	 * giving back null or by throwing an IllegalArgumentException.
+	 */
+	private static boolean isRefusedByGameMapReader(String text){
+		try {
+			return new GameMapReader().readFromReader(new StringReader(text)) == null;
+		} catch (IllegalArgumentException e){
+			return true;
+		}
+	}
+
+	@Test
+	public void TestReadFromFile_bundledLevels() throws IOException{
+		for (File level : levels()){
+			byte[] bytes = Files.readAllBytes(level.toPath());
+			GameMap expected = new GameMapReader().readFromReader(
+					new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.US_ASCII));
+			assertNotNull(expected);
+			for (byte[] variant : new byte[][] {bytes, gzip(bytes), toCrlf(bytes), gzip(toCrlf(bytes))}){
+				// Once through a (memory-mapped or gzip'd) file ...
+				File file = File.createTempFile("level", ".wrld");
+				try {
+					Files.write(file.toPath(), variant);
+					assertSameMap(expected, reader.readFromFile(file.getPath()));
+				} finally {
+					file.delete();
+				}
+				// ... and once through a stream.
+				assertSameMap(expected, reader.readFromStream(new ByteArrayInputStream(variant)));
+			}
+			assertSameMap(expected, reader.readFromReader(
+					new InputStreamReader(new ByteArrayInputStream(toCrlf(bytes)), StandardCharsets.US_ASCII)));
+		}
+	}
+
+	@Test
+	public void TestReadFromStream_smallMap() throws IOException{
+		VoxelMap map = readFromString("3 2 2\n\nRRR\nSW.\n\n...\n.R.\n");
+		assertEquals(1, map.getCube(1, 1, 0));
+		assertEquals(2, map.getCube(0, 1, 1));
+		assertEquals(3, map.getCube(1, 1, 1));
+		assertEquals(0, map.getCube(2, 1, 1));
+		assertEquals(0, map.getCube(0, 0, 0));
+	}
+
+	@Test
+	public void TestReadFromStream_shortRow() throws IOException{
+		String text = "3 2 1\n\nRRR\nRR\n";
+		assertTrue(isRefusedByGameMapReader(text));
+		try {
+			readFromString(text);
+			fail();
+		} catch (EOFException e){
+		}
+	}
+
+	@Test
+	public void TestReadFromStream_longRow() throws IOException{
+		String text = "3 2 1\n\nRRRR\nRRR\n";
+		assertTrue(isRefusedByGameMapReader(text));
+		try {
+			readFromString(text);
+			fail();
+		} catch (IllegalArgumentException e){
+		}
+	}
+
+	@Test
+	public void TestReadFromStream_unknownCharacter() throws IOException{
+		String text = "3 2 1\n\nRRR\nRXR\n";
+		assertTrue(isRefusedByGameMapReader(text));
+		try {
+			readFromString(text);
+			fail();
+		} catch (IllegalArgumentException e){
+		}
+	}
+
+	@Test
+	public void TestReadFromStream_missingLayer() throws IOException{
+		String text = "3 2 2\n\nRRR\nRRR\n";
+		assertTrue(isRefusedByGameMapReader(text));
+		try {
+			readFromString(text);
+			fail();
+		} catch (EOFException e){
+		}
+	}
+
+	@Test
+	public void TestReadFromStream_missingEmptyLine() throws IOException{
+		String text = "3 2 1\nRRR\nRRR\n";
+		assertTrue(isRefusedByGameMapReader(text));
+		try {
+			readFromString(text);
+			fail();
+		} catch (IllegalArgumentException e){
+		}
+	}
+}
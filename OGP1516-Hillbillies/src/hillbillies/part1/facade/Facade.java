@@ -3,7 +3,6 @@ package hillbillies.part1.facade;
 import hillbillies.model.BadFSMStateException;
 import hillbillies.model.Coordinate;
 import hillbillies.model.Unit;
-import hillbillies.model.Utils;
 import ogp.framework.util.ModelException;
 
 public class Facade implements IFacade {
@@ -21,12 +20,12 @@ public class Facade implements IFacade {
 
 	@Override
 	public double[] getPosition(Unit unit) throws ModelException {
-		return Utils.unboxArray(unit.getPosition().toArray());
+		return unit.getPosition().toDoubleArray();
 	}
 
 	@Override
 	public int[] getCubeCoordinate(Unit unit) throws ModelException {
-		return Utils.unboxArray(unit.getPosition().toCoordinate().toArray());
+		return unit.getPosition().toCoordinate().toIntArray();
 	}
 
 	@Override
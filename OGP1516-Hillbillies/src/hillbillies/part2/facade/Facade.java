@@ -9,7 +9,6 @@ import hillbillies.model.Faction;
 import hillbillies.model.Log;
 import hillbillies.model.State;
 import hillbillies.model.Unit;
-import hillbillies.model.Utils;
 import hillbillies.model.World;
 import hillbillies.part2.listener.TerrainChangeListener;
 import ogp.framework.util.ModelException;
@@ -24,12 +23,12 @@ public class Facade implements IFacade {
 
 	@Override
 	public double[] getPosition(Unit unit) throws ModelException {
-		return Utils.unboxArray(unit.getPosition().toArray());
+		return unit.getPosition().toDoubleArray();
 	}
 
 	@Override
 	public int[] getCubeCoordinate(Unit unit) throws ModelException {
-		return Utils.unboxArray(unit.getPosition().toCoordinate().toArray());
+		return unit.getPosition().toCoordinate().toIntArray();
 	}
 
 	@Override
@@ -279,6 +278,9 @@ public class Facade implements IFacade {
 	@Override
 	public void addUnit(Unit unit, World world) throws ModelException {
 		unit.setWorld(world);
+		if (unit.getFaction() == null) {
+			unit.setFaction(world.getSmallestFaction());
+		}
 	}
 
 	@Override
@@ -332,7 +334,7 @@ public class Facade implements IFacade {
 
 	@Override
 	public double[] getPosition(Boulder boulder) throws ModelException {
-		return Utils.unboxArray(boulder.getPosition().toArray());
+		return boulder.getPosition().toDoubleArray();
 	}
 
 	@Override
@@ -342,7 +344,7 @@ public class Facade implements IFacade {
 
 	@Override
 	public double[] getPosition(Log log) throws ModelException {
-		return Utils.unboxArray(log.getPosition().toArray());
+		return log.getPosition().toDoubleArray();
 	}
 
 	@Override
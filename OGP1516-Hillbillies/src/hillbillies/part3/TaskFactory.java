@@ -8,6 +8,8 @@ import hillbillies.model.Task;
 import hillbillies.model.Unit;
 import hillbillies.model.VariableNameGenerator;
 import hillbillies.model.expressions.*;
+import hillbillies.model.programs.Program;
+import hillbillies.model.programs.TaskCompiler;
 import hillbillies.model.statements.*;
 import hillbillies.part3.programs.ITaskFactory;
 import hillbillies.part3.programs.SourceLocation;
@@ -17,12 +19,14 @@ public class TaskFactory implements ITaskFactory<Expression<?>, Statement, Task>
 	@Override
 	public List<Task> createTasks(String name, int priority, Statement activity, List<int[]> selectedCubes) {
 		List<Task> list = new ArrayList<Task>();
+		// All tasks share one compiled program, each executing it in a frame of its own.
+		Program program = TaskCompiler.compile(activity);
 		if (!selectedCubes.isEmpty()) {
 			for (int[] cube : selectedCubes) {
-				list.add(new Task(name, priority, new Coordinate(cube), activity));
+				list.add(new Task(name, priority, new Coordinate(cube), activity, program));
 			}
 		} else {
-			list.add(new Task(name, priority, null, activity));
+			list.add(new Task(name, priority, null, activity, program));
 		}
 		return list;
 	}
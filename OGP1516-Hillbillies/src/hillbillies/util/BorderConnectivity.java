@@ -0,0 +1,61 @@
+package hillbillies.util;
+
+import java.util.List;
+
+/**
+ * The contract of an algorithm that determines whether a solid cube is
+ * connected to a border of the world through other directly adjacent solid
+ * cubes, as implemented by {@link ConnectedToBorder}.
+ * 
+ * Implementations assume that initially the entire world is solid.
+ */
+public interface BorderConnectivity {
+
+	/**
+	 * Returns whether the cube at the given position is a solid cube that is
+	 * connected to a border of the world through other directly adjacent solid
+	 * cubes.
+	 */
+	boolean isSolidConnectedToBorder(int x, int y, int z);
+
+	/**
+	 * Make the cube at the given position solid instead of passable, and return
+	 * the list of coordinates {x, y, z} that became connected to a border of the
+	 * world due to this change.
+	 */
+	List<int[]> changePassableToSolid(int x, int y, int z);
+
+	/**
+	 * Make the cube at the given position passable instead of solid, and return
+	 * the list of coordinates {x, y, z} that are no longer connected to a border
+	 * of the world due to this change.
+	 */
+	List<int[]> changeSolidToPassable(int x, int y, int z);
+
+	/**
+	 * Gives back a BorderConnectivity that forwards to the given
+	 * ConnectedToBorder.
+	 * 
+	 * @param connectedToBorder
+	 *            The provided algorithm to forward to.
+	 */
+	static BorderConnectivity of(ConnectedToBorder connectedToBorder) {
+		return new BorderConnectivity() {
+
+			@Override
+			public boolean isSolidConnectedToBorder(int x, int y, int z) {
+				return connectedToBorder.isSolidConnectedToBorder(x, y, z);
+			}
+
+			@Override
+			public List<int[]> changePassableToSolid(int x, int y, int z) {
+				return connectedToBorder.changePassableToSolid(x, y, z);
+			}
+
+			@Override
+			public List<int[]> changeSolidToPassable(int x, int y, int z) {
+				return connectedToBorder.changeSolidToPassable(x, y, z);
+			}
+		};
+	}
+}
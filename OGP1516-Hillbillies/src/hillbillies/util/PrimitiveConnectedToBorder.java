@@ -0,0 +1,346 @@
+package hillbillies.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An implementation of {@link BorderConnectivity} with the same behaviour as
+ * {@link ConnectedToBorder}, that works on int cube indices only.
+ *
+ * Cubes are identified by their index x + y*nbX + z*nbX*nbY. Searches use an
+ * int[] ring buffer as queue and a generation-stamped int[] as visited set,
+ * both allocated once and reused by every call, so checking whether a large
+ * solid body is still connected to the border allocates nothing but the
+ * resulting list.
+ *
+ * Like the provided class, making a cube passable reports every solid cube
+ * that is not connected to the border through its solid neighbours, even
+ * those that were already known to be disconnected before.
+ */
+public class PrimitiveConnectedToBorder implements BorderConnectivity {
+
+	/**
+	 * Create a new instance of the algorithm, initialized for a world of the
+	 * given dimensions where all cubes are solid.
+	 *
+	 * @param nbX
+	 * @param nbY
+	 * @param nbZ
+	 * @throws IllegalArgumentException
+	 *             If any of the dimensions is not positive.
+	 */
+	public PrimitiveConnectedToBorder(int nbX, int nbY, int nbZ) throws IllegalArgumentException {
+		if (nbX <= 0 || nbY <= 0 || nbZ <= 0) {
+			throw new IllegalArgumentException("Dimensions must be positive: " + nbX + ", " + nbY + ", " + nbZ);
+		}
+		this.nbX = nbX;
+		this.nbY = nbY;
+		this.nbZ = nbZ;
+		this.nbXY = nbX * nbY;
+		int nbCubes = this.nbXY * nbZ;
+		this.passable = new boolean[nbCubes];
+		this.notConnected = new boolean[nbCubes];
+		this.visited = new int[nbCubes];
+		this.connected = new int[nbCubes];
+		this.disconnected = new int[nbCubes];
+		this.queue = new int[1024];
+		this.tested = new int[1024];
+	}
+
+	/**
+	 * Create a new instance of the algorithm, initialized for a world of the
+	 * given dimensions where exactly the cubes whose indices are set in the
+	 * given BitSet are passable.
+	 *
+	 * The result is the same as calling changeSolidToPassable for every one of
+	 * those cubes on a world that is entirely solid, but the connections are
+	 * found with a single breadth-first search through the solid cubes,
+	 * starting from all solid cubes on the border at once. That takes time
+	 * linear in the number of cubes, instead of a search per passable cube.
+	 *
+	 * @param nbX
+	 * @param nbY
+	 * @param nbZ
+	 * @param passable
+	 *            The indices x + y*nbX + z*nbX*nbY of the passable cubes.
+	 * @throws IllegalArgumentException
+	 *             If any of the dimensions is not positive.
+	 */
+	public PrimitiveConnectedToBorder(int nbX, int nbY, int nbZ, BitSet passable) throws IllegalArgumentException {
+		this(nbX, nbY, nbZ);
+		int nbCubes = this.passable.length;
+		for (int index = passable.nextSetBit(0); index >= 0 && index < nbCubes; index = passable.nextSetBit(index + 1)) {
+			this.passable[index] = true;
+		}
+		Arrays.fill(notConnected, true);
+		clearQueue();
+		for (int index = 0; index < nbCubes; index++) {
+			if (!this.passable[index] && isBorder(index)) {
+				notConnected[index] = false;
+				push(index);
+			}
+		}
+		while (!isQueueEmpty()) {
+			int cube = poll();
+			for (int direction = 0; direction < 6; direction++) {
+				int neighbour = getNeighbour(cube, direction);
+				if (neighbour >= 0 && !this.passable[neighbour] && notConnected[neighbour]) {
+					notConnected[neighbour] = false;
+					push(neighbour);
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean isSolidConnectedToBorder(int x, int y, int z) {
+		int index = getIndex(x, y, z);
+		return !passable[index] && !notConnected[index];
+	}
+
+	@Override
+	public List<int[]> changePassableToSolid(int x, int y, int z) {
+		int index = getIndex(x, y, z);
+		if (!passable[index]) {
+			return Collections.emptyList();
+		}
+		passable[index] = false;
+		if (!isBorder(index) && !hasConnectedNeighbour(index)) {
+			return Collections.emptyList();
+		}
+		// The cube and every disconnected solid cube it touches, directly or
+		// indirectly, become connected.
+		List<int[]> result = new ArrayList<>();
+		int generation = nextGeneration();
+		clearQueue();
+		visited[index] = generation;
+		push(index);
+		while (!isQueueEmpty()) {
+			int cube = poll();
+			notConnected[cube] = false;
+			result.add(toCoordinate(cube));
+			for (int direction = 0; direction < 6; direction++) {
+				int neighbour = getNeighbour(cube, direction);
+				if (neighbour >= 0 && !passable[neighbour] && notConnected[neighbour] && visited[neighbour] != generation) {
+					visited[neighbour] = generation;
+					push(neighbour);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public List<int[]> changeSolidToPassable(int x, int y, int z) {
+		int index = getIndex(x, y, z);
+		if (passable[index]) {
+			return Collections.emptyList();
+		}
+		passable[index] = true;
+		notConnected[index] = true;
+		List<int[]> result = null;
+		int call = ++callGeneration;
+		if (call == Integer.MAX_VALUE) {
+			Arrays.fill(connected, 0);
+			Arrays.fill(disconnected, 0);
+			call = callGeneration = 1;
+		}
+		for (int direction = 0; direction < 6; direction++) {
+			int neighbour = getNeighbour(index, direction);
+			if (neighbour < 0 || passable[neighbour] || connected[neighbour] == call || disconnected[neighbour] == call) {
+				// Not solid, or its state is already known during this call.
+				continue;
+			}
+			if (existsPathToBorder(neighbour, call)) {
+				for (int i = 0; i < nbTested; i++) {
+					connected[tested[i]] = call;
+				}
+			} else {
+				if (result == null) {
+					result = new ArrayList<>(nbTested);
+				}
+				for (int i = 0; i < nbTested; i++) {
+					notConnected[tested[i]] = true;
+					disconnected[tested[i]] = call;
+					result.add(toCoordinate(tested[i]));
+				}
+			}
+		}
+		return result == null ? Collections.emptyList() : result;
+	}
+
+	/**
+	 * Searches a path of solid cubes from the given cube to the border,
+	 * recording every cube it tests.
+	 *
+	 * @return true if the border, or a cube known to be connected during the
+	 *         given call, was reached.
+	 */
+	private boolean existsPathToBorder(int origin, int call) {
+		int generation = nextGeneration();
+		clearQueue();
+		nbTested = 0;
+		visited[origin] = generation;
+		push(origin);
+		while (!isQueueEmpty()) {
+			int cube = poll();
+			addTested(cube);
+			if (connected[cube] == call || isBorder(cube)) {
+				return true;
+			}
+			for (int direction = 0; direction < 6; direction++) {
+				int neighbour = getNeighbour(cube, direction);
+				if (neighbour >= 0 && !passable[neighbour] && visited[neighbour] != generation) {
+					visited[neighbour] = generation;
+					push(neighbour);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the cube with the given index has a directly adjacent
+	 * solid cube that is connected to the border.
+	 */
+	private boolean hasConnectedNeighbour(int index) {
+		for (int direction = 0; direction < 6; direction++) {
+			int neighbour = getNeighbour(index, direction);
+			if (neighbour >= 0 && !passable[neighbour] && !notConnected[neighbour]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the index of the directly adjacent cube in the given direction
+	 * (0 to 5 for -x, +x, -y, +y, -z, +z), or -1 if that lies outside the
+	 * world.
+	 */
+	private int getNeighbour(int index, int direction) {
+		switch (direction) {
+		case 0:
+			return index % nbX == 0 ? -1 : index - 1;
+		case 1:
+			return index % nbX == nbX - 1 ? -1 : index + 1;
+		case 2:
+			return (index % nbXY) / nbX == 0 ? -1 : index - nbX;
+		case 3:
+			return (index % nbXY) / nbX == nbY - 1 ? -1 : index + nbX;
+		case 4:
+			return index / nbXY == 0 ? -1 : index - nbXY;
+		default:
+			return index / nbXY == nbZ - 1 ? -1 : index + nbXY;
+		}
+	}
+
+	private boolean isBorder(int index) {
+		int x = index % nbX;
+		int y = (index % nbXY) / nbX;
+		int z = index / nbXY;
+		return x == 0 || x == nbX - 1 || y == 0 || y == nbY - 1 || z == 0 || z == nbZ - 1;
+	}
+
+	private int getIndex(int x, int y, int z) {
+		return x + y * nbX + z * nbXY;
+	}
+
+	private int[] toCoordinate(int index) {
+		return new int[] { index % nbX, (index % nbXY) / nbX, index / nbXY };
+	}
+
+	/**
+	 * Starts a new search generation, invalidating all visited marks.
+	 */
+	private int nextGeneration() {
+		if (searchGeneration == Integer.MAX_VALUE) {
+			Arrays.fill(visited, 0);
+			searchGeneration = 0;
+		}
+		return ++searchGeneration;
+	}
+
+	/*
+	 * The ring buffer queue.
+	 */
+
+	private void clearQueue() {
+		head = 0;
+		size = 0;
+	}
+
+	private boolean isQueueEmpty() {
+		return size == 0;
+	}
+
+	private void push(int value) {
+		if (size == queue.length) {
+			// Unroll the ring into a buffer twice as large.
+			int[] larger = new int[2 * queue.length];
+			for (int i = 0; i < size; i++) {
+				larger[i] = queue[(head + i) & (queue.length - 1)];
+			}
+			queue = larger;
+			head = 0;
+		}
+		queue[(head + size) & (queue.length - 1)] = value;
+		size++;
+	}
+
+	private int poll() {
+		int value = queue[head];
+		head = (head + 1) & (queue.length - 1);
+		size--;
+		return value;
+	}
+
+	private void addTested(int cube) {
+		if (nbTested == tested.length) {
+			tested = Arrays.copyOf(tested, 2 * nbTested);
+		}
+		tested[nbTested++] = cube;
+	}
+
+	private final int nbX;
+	private final int nbY;
+	private final int nbZ;
+	private final int nbXY;
+	private final boolean[] passable;
+	private final boolean[] notConnected;
+
+	/**
+	 * The generation of the last search that visited each cube.
+	 */
+	private final int[] visited;
+	private int searchGeneration;
+
+	/**
+	 * The last call to changeSolidToPassable during which each cube was
+	 * found to be connected to the border.
+	 */
+	private final int[] connected;
+
+	/**
+	 * The last call to changeSolidToPassable during which each cube was
+	 * found to be disconnected from the border.
+	 */
+	private final int[] disconnected;
+	private int callGeneration;
+
+	/**
+	 * The ring buffer, whose capacity is always a power of two.
+	 */
+	private int[] queue;
+	private int head;
+	private int size;
+
+	/**
+	 * The cubes tested by the last search for a path to the border.
+	 */
+	private int[] tested;
+	private int nbTested;
+}
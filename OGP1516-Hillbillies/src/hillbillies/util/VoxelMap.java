@@ -0,0 +1,71 @@
+package hillbillies.util;
+
+/**
+ * The terrain of a map of the game, as read by {@link VoxelMapReader}: its
+ * dimensions and one byte per cube, holding the number of the terrain type
+ * of that cube (0 for air, 1 for rock, 2 for a tree and 3 for a workshop),
+ * at the index x + y*nbX + z*nbX*nbY.
+ *
+ * This is the same layout a World keeps its cubes in, so a World can take
+ * over the array of a VoxelMap without converting or copying it.
+ */
+public class VoxelMap {
+
+	/**
+	 * Create a new map of the given dimensions, holding the given cubes.
+	 *
+	 * @param nbX
+	 * @param nbY
+	 * @param nbZ
+	 * @param cubes
+	 *            The terrain type of every cube, at the index
+	 *            x + y*nbX + z*nbX*nbY. The array is not copied.
+	 * @throws IllegalArgumentException
+	 *             If any of the dimensions is not positive, or the length of
+	 *             the given array is not the product of the dimensions.
+	 */
+	public VoxelMap(int nbX, int nbY, int nbZ, byte[] cubes) throws IllegalArgumentException {
+		if (nbX <= 0 || nbY <= 0 || nbZ <= 0) {
+			throw new IllegalArgumentException("Dimensions must be positive: " + nbX + ", " + nbY + ", " + nbZ);
+		}
+		if (cubes == null || cubes.length != (long) nbX * nbY * nbZ) {
+			throw new IllegalArgumentException("Cubes array does not match the dimensions");
+		}
+		this.nbX = nbX;
+		this.nbY = nbY;
+		this.nbZ = nbZ;
+		this.cubes = cubes;
+	}
+
+	public int getNbX() {
+		return nbX;
+	}
+
+	public int getNbY() {
+		return nbY;
+	}
+
+	public int getNbZ() {
+		return nbZ;
+	}
+
+	/**
+	 * Returns the terrain type of the cube at the given position.
+	 */
+	public byte getCube(int x, int y, int z) {
+		return cubes[x + y * nbX + z * nbX * nbY];
+	}
+
+	/**
+	 * Returns the array holding the terrain types of all cubes. This is the
+	 * array of this map itself, not a copy.
+	 */
+	public byte[] getCubes() {
+		return cubes;
+	}
+
+	private final int nbX;
+	private final int nbY;
+	private final int nbZ;
+	private final byte[] cubes;
+}
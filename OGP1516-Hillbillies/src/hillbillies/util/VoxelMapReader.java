@@ -0,0 +1,333 @@
+package hillbillies.util;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads maps in the format of the levels of the game (the format read by
+ * GameMapReader) into a {@link VoxelMap}.
+ *
+ * Unlike GameMapReader, this reader never creates a String per line or per
+ * cube: it decodes the characters of every row straight from its input
+ * buffer into the flat byte array of the resulting map. Plain files are
+ * memory-mapped, and files or streams starting with the gzip magic number
+ * are decompressed on the fly, so reading a map takes time linear in its
+ * size and needs little memory besides the resulting array itself.
+ */
+public class VoxelMapReader {
+
+	/**
+	 * Reads the map in the file with the given name, which may be gzip'd.
+	 *
+	 * @throws IOException
+	 *             If the file cannot be read, or ends too early.
+	 * @throws IllegalArgumentException
+	 *             If the file is not a valid map.
+	 */
+	public VoxelMap readFromFile(String filename) throws IOException, IllegalArgumentException {
+		Path path = Paths.get(filename);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length > Integer.MAX_VALUE || isGzip(channel)) {
+				try (InputStream stream = Files.newInputStream(path)) {
+					return readFromStream(stream);
+				}
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			return read(new BufferSource(buffer));
+		}
+	}
+
+	/**
+	 * Reads the map from the given stream, which may be gzip'd. The stream is
+	 * not closed.
+	 *
+	 * @throws IOException
+	 *             If the stream cannot be read, or ends too early.
+	 * @throws IllegalArgumentException
+	 *             If the stream does not hold a valid map.
+	 */
+	public VoxelMap readFromStream(InputStream stream) throws IOException, IllegalArgumentException {
+		if (!stream.markSupported()) {
+			stream = new BufferedInputStream(stream, BUFFER_SIZE);
+		}
+		stream.mark(2);
+		int first = stream.read();
+		int second = stream.read();
+		stream.reset();
+		if (first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2) {
+			stream = new GZIPInputStream(stream, BUFFER_SIZE);
+		}
+		return read(new StreamSource(stream));
+	}
+
+	/**
+	 * Reads the map from the given reader, which is not closed.
+	 *
+	 * @throws IOException
+	 *             If the reader cannot be read, or ends too early.
+	 * @throws IllegalArgumentException
+	 *             If the reader does not hold a valid map.
+	 */
+	public VoxelMap readFromReader(Reader reader) throws IOException, IllegalArgumentException {
+		return read(new ReaderSource(reader));
+	}
+
+	private static boolean isGzip(FileChannel channel) throws IOException {
+		ByteBuffer magic = ByteBuffer.allocate(2);
+		while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+		}
+		return magic.position() == 2 && (magic.get(0) & 0xff) == GZIP_MAGIC_1 && (magic.get(1) & 0xff) == GZIP_MAGIC_2;
+	}
+
+	/**
+	 * Decodes a whole map: a line with the three dimensions, followed by the
+	 * layers from the top (z = nbZ-1) down, each of them an empty line
+	 * followed by nbY rows of nbX characters.
+	 */
+	private static VoxelMap read(Source source) throws IOException, IllegalArgumentException {
+		int nbX = readDimension(source);
+		int nbY = readDimension(source);
+		int nbZ = readDimension(source);
+		endLine(source, "the dimensions");
+		if ((long) nbX * nbY * nbZ > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Map too large: " + nbX + "x" + nbY + "x" + nbZ);
+		}
+		int nbXY = nbX * nbY;
+		byte[] cubes = new byte[nbXY * nbZ];
+		for (int z = nbZ - 1; z >= 0; z--) {
+			int c = skipBlanks(source);
+			if (c == -1) {
+				throw new EOFException("Unexpected end of file; no data for z=" + z);
+			}
+			if (!isEndOfLine(c)) {
+				throw new IllegalArgumentException("Expected empty line");
+			}
+			skipLineFeed(source, c);
+			for (int y = 0; y < nbY; y++) {
+				c = skipBlanks(source);
+				if (c == -1) {
+					throw new EOFException("Unexpected end of file; no data for z=" + z + " and y = " + y);
+				}
+				int index = y * nbX + z * nbXY;
+				for (int x = 0; x < nbX; x++) {
+					if (c == -1 || isEndOfLine(c) || isBlank(c)) {
+						throw new EOFException("Unexpected end of line; for z=" + z + " and y = " + y
+								+ ", only have " + x + " characters.");
+					}
+					byte type = c < TYPES.length ? TYPES[c] : -1;
+					if (type < 0) {
+						throw new IllegalArgumentException("Unknown type: " + (char) c);
+					}
+					cubes[index + x] = type;
+					c = source.read();
+				}
+				while (isBlank(c)) {
+					c = source.read();
+				}
+				if (c != -1 && !isEndOfLine(c)) {
+					throw new IllegalArgumentException("Row too long; for z=" + z + " and y = " + y);
+				}
+				skipLineFeed(source, c);
+			}
+		}
+		return new VoxelMap(nbX, nbY, nbZ, cubes);
+	}
+
+	private static int readDimension(Source source) throws IOException, IllegalArgumentException {
+		int c = skipBlanks(source);
+		if (c == -1) {
+			throw new EOFException("Unexpected end of file; no dimensions");
+		}
+		if (c < '0' || c > '9') {
+			throw new IllegalArgumentException("Expected the dimensions of the map");
+		}
+		long result = 0;
+		while (c >= '0' && c <= '9') {
+			result = 10 * result + (c - '0');
+			if (result > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Dimension too large");
+			}
+			c = source.read();
+		}
+		source.unread();
+		return (int) result;
+	}
+
+	/**
+	 * Skips the rest of the current line, which must be blank.
+	 */
+	private static void endLine(Source source, String what) throws IOException, IllegalArgumentException {
+		int c = skipBlanks(source);
+		if (c != -1 && !isEndOfLine(c)) {
+			throw new IllegalArgumentException("Unexpected character after " + what + ": " + (char) c);
+		}
+		skipLineFeed(source, c);
+	}
+
+	/**
+	 * Skips spaces and tabs, and returns the first other character, or -1 at
+	 * the end of the input.
+	 */
+	private static int skipBlanks(Source source) throws IOException {
+		int c = source.read();
+		while (isBlank(c)) {
+			c = source.read();
+		}
+		return c;
+	}
+
+	/**
+	 * Given the end of line character that was just read, also skips the
+	 * line feed of a CR LF pair.
+	 */
+	private static void skipLineFeed(Source source, int c) throws IOException {
+		if (c == '\r') {
+			int next = source.read();
+			if (next != '\n') {
+				source.unread();
+			}
+		}
+	}
+
+	private static boolean isBlank(int c) {
+		return c == ' ' || c == '\t';
+	}
+
+	private static boolean isEndOfLine(int c) {
+		return c == '\n' || c == '\r';
+	}
+
+	/**
+	 * The terrain type for every character, or -1 for characters that do not
+	 * stand for a terrain type.
+	 */
+	private static final byte[] TYPES = new byte[128];
+	static {
+		Arrays.fill(TYPES, (byte) -1);
+		TYPES['.'] = 0;
+		TYPES['R'] = 1;
+		TYPES['S'] = 2;
+		TYPES['W'] = 3;
+	}
+
+	private static final int GZIP_MAGIC_1 = 0x1f;
+	private static final int GZIP_MAGIC_2 = 0x8b;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * A source of characters, read one at a time from a buffer, that can
+	 * put back the last character it gave.
+	 */
+	private static abstract class Source {
+
+		/**
+		 * Returns the next character, or -1 at the end of the input.
+		 */
+		final int read() throws IOException {
+			if (this.pushedBack) {
+				this.pushedBack = false;
+				return this.last;
+			}
+			this.last = next();
+			return this.last;
+		}
+
+		/**
+		 * Makes the next call to read return the character it returned
+		 * last once more.
+		 */
+		final void unread() {
+			this.pushedBack = true;
+		}
+
+		abstract int next() throws IOException;
+
+		private int last;
+		private boolean pushedBack;
+	}
+
+	/**
+	 * A Source reading the bytes of a (memory-mapped) ByteBuffer.
+	 */
+	private static class BufferSource extends Source {
+
+		BufferSource(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		int next() {
+			return this.buffer.hasRemaining() ? this.buffer.get() & 0xff : -1;
+		}
+
+		private final ByteBuffer buffer;
+	}
+
+	/**
+	 * A Source reading the bytes of an InputStream, a block at a time.
+	 */
+	private static class StreamSource extends Source {
+
+		StreamSource(InputStream stream) {
+			this.stream = stream;
+		}
+
+		@Override
+		int next() throws IOException {
+			if (this.position == this.limit) {
+				this.limit = this.stream.read(this.buffer);
+				this.position = 0;
+				if (this.limit <= 0) {
+					this.limit = 0;
+					return -1;
+				}
+			}
+			return this.buffer[this.position++] & 0xff;
+		}
+
+		private final InputStream stream;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int position;
+		private int limit;
+	}
+
+	/**
+	 * A Source reading the characters of a Reader, a block at a time.
+	 */
+	private static class ReaderSource extends Source {
+
+		ReaderSource(Reader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		int next() throws IOException {
+			if (this.position == this.limit) {
+				this.limit = this.reader.read(this.buffer);
+				this.position = 0;
+				if (this.limit <= 0) {
+					this.limit = 0;
+					return -1;
+				}
+			}
+			return this.buffer[this.position++];
+		}
+
+		private final Reader reader;
+		private final char[] buffer = new char[BUFFER_SIZE];
+		private int position;
+		private int limit;
+	}
+}